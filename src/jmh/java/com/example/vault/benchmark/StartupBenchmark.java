@@ -0,0 +1,176 @@
+package com.example.vault.benchmark;
+
+import com.example.vault.configuration.VaultUamiAuthProperties;
+import com.example.vault.configuration.VaultUamiAuthenticationConfiguration;
+import com.example.vault.configuration.VaultUamiHttpTransports;
+import com.example.vault.configuration.VaultUamiPreConnect;
+import com.example.vault.delegate.VaultUamiAuthentication;
+import com.example.vault.service.ManagedIdentityTokenCache;
+import com.example.vault.service.PersistentTokenStore;
+import com.example.vault.service.UamiAuthService;
+import com.example.vault.stub.LocalAuthStub;
+import com.example.vault.transport.HttpTransport;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.ssl.TrustSelfSignedStrategy;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.DefaultBootstrapContext;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.vault.authentication.ClientAuthentication;
+import org.springframework.vault.authentication.LoginToken;
+
+/**
+ * Costs paid once per application start: binding the properties, the bootstrap registrations up
+ * to a resolved ClientAuthentication, and the first login with and without a warm persistent token
+ * store.
+ *
+ * <p>The binding variants compare binding {@code vault.uami} from the Environment Spring Boot has
+ * already loaded with parsing {@code application-bench.yml} again first, as bootstrap used to.
+ *
+ * <p>The first-login variants compare the TLS setups: a TLS context of its own per client (full
+ * handshakes), the shared TLS context (resumed sessions), and a transport pre-connected during
+ * bootstrap, where the first login finds open connections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StartupBenchmark {
+
+  private LocalAuthStub stub;
+  private Path storeDir;
+  private PersistentTokenStore tokenStore;
+  private Binder binder;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    binder = Binder.get(benchEnvironment());
+    stub = LocalAuthStub.startHttps();
+    storeDir = Files.createTempDirectory("vault-uami-bench");
+    tokenStore = new PersistentTokenStore(storeDir.resolve("token"), "bench-client-id");
+    try (UamiAuthService service = StubServices.create(stub, null)) {
+      tokenStore.save(service.authenticate());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    tokenStore.delete();
+    try (var files = Files.list(storeDir)) {
+      for (Path file : files.toList()) {
+        Files.deleteIfExists(file);
+      }
+    }
+    Files.deleteIfExists(storeDir);
+    stub.close();
+  }
+
+  private static StandardEnvironment benchEnvironment() throws Exception {
+    StandardEnvironment environment = new StandardEnvironment();
+    List<PropertySource<?>> sources =
+        new YamlPropertySourceLoader()
+            .load("application-bench.yml", new ClassPathResource("application-bench.yml"));
+    sources.forEach(environment.getPropertySources()::addLast);
+    return environment;
+  }
+
+  /** Binds {@code vault.uami} from the already loaded Environment, as bootstrap does now. */
+  @Benchmark
+  public VaultUamiAuthProperties bindFromEnvironment() {
+    return binder.bind("vault.uami", VaultUamiAuthProperties.class).get();
+  }
+
+  /** Parses the profile YAML again before binding, the cost bootstrap no longer pays. */
+  @Benchmark
+  public VaultUamiAuthProperties bindAfterYamlParse() throws Exception {
+    return Binder.get(benchEnvironment()).bind("vault.uami", VaultUamiAuthProperties.class).get();
+  }
+
+  /** BootstrapRegistryInitializer up to a resolved ClientAuthentication; no network calls. */
+  @Benchmark
+  public ClientAuthentication bootstrapWiring() {
+    DefaultBootstrapContext context = new DefaultBootstrapContext();
+    context.register(Binder.class, ignored -> binder);
+    new VaultUamiAuthenticationConfiguration().initialize(context);
+    ClientAuthentication authentication = context.get(ClientAuthentication.class);
+    context.get(UamiAuthService.class).close();
+    context.get(ManagedIdentityTokenCache.class).close();
+    return authentication;
+  }
+
+  /** First login with a TLS context of its own: full handshakes to IMDS and Vault. */
+  @Benchmark
+  public LoginToken firstLoginOwnTlsContext() throws Exception {
+    HttpTransport transport =
+        VaultUamiHttpTransports.create(
+            new VaultUamiAuthProperties.Http(),
+            SSLContexts.custom().loadTrustMaterial(TrustSelfSignedStrategy.INSTANCE).build(),
+            null);
+    try (UamiAuthService service = StubServices.create(stub, null, transport)) {
+      return new VaultUamiAuthentication(service).login();
+    }
+  }
+
+  /** First login on new connections over the shared TLS context, which resumes TLS sessions. */
+  @Benchmark
+  public LoginToken firstLogin() {
+    try (UamiAuthService service = StubServices.create(stub, null)) {
+      return new VaultUamiAuthentication(service).login();
+    }
+  }
+
+  /** First login on a transport whose connections were opened while bootstrap went on. */
+  @Benchmark
+  public LoginToken firstLoginPreConnected(PreConnectedService preConnected) {
+    return new VaultUamiAuthentication(preConnected.service).login();
+  }
+
+  /** A service whose transport is pre-connected outside the measured time. */
+  @State(Scope.Thread)
+  public static class PreConnectedService {
+    UamiAuthService service;
+
+    @Setup(Level.Invocation)
+    public void setUp(StartupBenchmark benchmark) {
+      HttpTransport transport =
+          VaultUamiHttpTransports.create(new VaultUamiAuthProperties.Http(), null);
+      VaultUamiPreConnect.warmUp(
+          transport, benchmark.stub.vaultUri(), benchmark.stub.identityEndpoint());
+      service = StubServices.create(benchmark.stub, null, transport);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+      service.close();
+    }
+  }
+
+  /** First login of a fresh process reusing the stored token with a single lookup-self. */
+  @Benchmark
+  public LoginToken firstLoginFromTokenStore() {
+    try (UamiAuthService service = StubServices.create(stub, null)) {
+      return new VaultUamiAuthentication(service, tokenStore, Duration.ofMinutes(5)).login();
+    }
+  }
+}
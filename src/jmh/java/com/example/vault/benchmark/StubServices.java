@@ -0,0 +1,36 @@
+package com.example.vault.benchmark;
+
+import com.example.vault.configuration.VaultUamiAuthProperties;
+import com.example.vault.configuration.VaultUamiHttpClients;
+import com.example.vault.service.AuthResilience;
+import com.example.vault.service.ManagedIdentityTokenCache;
+import com.example.vault.service.UamiAuthMetrics;
+import com.example.vault.service.UamiAuthService;
+import com.example.vault.stub.LocalAuthStub;
+import com.example.vault.transport.ClassicHttpTransport;
+import com.example.vault.transport.HttpTransport;
+
+/** Builds UamiAuthService instances that talk to a {@link LocalAuthStub}. */
+final class StubServices {
+
+  private StubServices() {}
+
+  /**
+   * @param cache access token cache, or {@code null} to fetch a new access token on every login
+   */
+  static UamiAuthService create(LocalAuthStub stub, ManagedIdentityTokenCache cache) {
+    return create(
+        stub,
+        cache,
+        new ClassicHttpTransport(VaultUamiHttpClients.create(new VaultUamiAuthProperties.Http())));
+  }
+
+  /**
+   * @param cache access token cache, or {@code null} to fetch a new access token on every login
+   * @param transport transport the service takes ownership of
+   */
+  static UamiAuthService create(
+      LocalAuthStub stub, ManagedIdentityTokenCache cache, HttpTransport transport) {
+    return stub.uamiService(transport, cache, UamiAuthMetrics.NOOP, AuthResilience.none());
+  }
+}
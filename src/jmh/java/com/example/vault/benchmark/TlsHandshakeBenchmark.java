@@ -0,0 +1,89 @@
+package com.example.vault.benchmark;
+
+import com.example.vault.configuration.VaultUamiAuthProperties;
+import com.example.vault.configuration.VaultUamiHttpClients;
+import com.example.vault.stub.LocalAuthStub;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.client5.http.ssl.TrustSelfSignedStrategy;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of a TLS handshake on the IMDS hop: a GET on a pooled keep-alive connection against the
+ * same GET on a fresh connection per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TlsHandshakeBenchmark {
+
+  private LocalAuthStub stub;
+  private CloseableHttpClient pooledClient;
+  private CloseableHttpClient handshakePerRequestClient;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    stub = LocalAuthStub.startHttps();
+    pooledClient = VaultUamiHttpClients.create(new VaultUamiAuthProperties.Http());
+    handshakePerRequestClient =
+        HttpClients.custom()
+            .setConnectionManager(
+                PoolingHttpClientConnectionManagerBuilder.create()
+                    .setTlsSocketStrategy(
+                        new DefaultClientTlsStrategy(
+                            SSLContexts.custom()
+                                .loadTrustMaterial(TrustSelfSignedStrategy.INSTANCE)
+                                .build()))
+                    .build())
+            .setConnectionReuseStrategy((request, response, context) -> false)
+            .build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    pooledClient.close(CloseMode.GRACEFUL);
+    handshakePerRequestClient.close(CloseMode.GRACEFUL);
+    stub.close();
+  }
+
+  @Benchmark
+  public int pooledConnection() throws IOException {
+    return get(pooledClient);
+  }
+
+  @Benchmark
+  public int handshakePerRequest() throws IOException {
+    return get(handshakePerRequestClient);
+  }
+
+  private int get(CloseableHttpClient client) throws IOException {
+    return client.execute(
+        new HttpGet(stub.identityEndpoint()),
+        response -> {
+          EntityUtils.consume(response.getEntity());
+          return response.getCode();
+        });
+  }
+}
@@ -0,0 +1,92 @@
+package com.example.vault.benchmark;
+
+import com.example.vault.service.ManagedIdentityTokenCache.AccessToken;
+import com.example.vault.service.TokenResponses;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.vault.authentication.LoginToken;
+
+/**
+ * JSON parse cost of the IMDS and Vault login responses: buffering the body as a String and
+ * reading a tree (with a new or a shared ObjectMapper) against streaming the fields we need.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenParseBenchmark {
+
+  private static final byte[] ACCESS_TOKEN_BODY =
+      ("{\"access_token\":\"" + "a".repeat(1500) + "\",\"expires_in\":\"86399\","
+              + "\"expires_on\":\"1760000000\",\"ext_expires_in\":\"86399\","
+              + "\"not_before\":\"1759913300\",\"resource\":\"https://management.azure.com/\","
+              + "\"token_type\":\"Bearer\",\"client_id\":\"00000000-0000-0000-0000-000000000000\"}")
+          .getBytes(StandardCharsets.UTF_8);
+
+  private static final byte[] LOGIN_BODY =
+      ("{\"request_id\":\"7a9b2a52-3b0e-4c1c-9b55-5c1d3f1e2d11\",\"lease_id\":\"\","
+              + "\"renewable\":false,\"lease_duration\":0,\"data\":null,\"wrap_info\":null,"
+              + "\"warnings\":null,\"auth\":{\"client_token\":\"hvs.CAESIJ" + "x".repeat(90)
+              + "\",\"accessor\":\"0e9e354a-520f-df04-6867-ee81cae3d42d\","
+              + "\"policies\":[\"default\",\"app-read\",\"app-write\"],"
+              + "\"token_policies\":[\"default\",\"app-read\",\"app-write\"],"
+              + "\"metadata\":{\"resource_group_name\":\"rg\",\"subscription_id\":\"sub\","
+              + "\"role\":\"vault-role\"},\"lease_duration\":2764800,\"renewable\":true,"
+              + "\"entity_id\":\"7d2e3179-f69b-450c-7179-ac8ee8bd8ca9\","
+              + "\"token_type\":\"service\",\"orphan\":true}}")
+          .getBytes(StandardCharsets.UTF_8);
+
+  private final ObjectMapper sharedMapper = new ObjectMapper();
+  private final Instant now = Instant.now();
+
+  @Benchmark
+  public String accessTokenTreeNewMapper() throws IOException {
+    return readTree(new ObjectMapper(), ACCESS_TOKEN_BODY).path("access_token").asText();
+  }
+
+  @Benchmark
+  public String accessTokenTreeSharedMapper() throws IOException {
+    return readTree(sharedMapper, ACCESS_TOKEN_BODY).path("access_token").asText();
+  }
+
+  @Benchmark
+  public AccessToken accessTokenStreaming() throws IOException {
+    return TokenResponses.readAccessToken(new ByteArrayInputStream(ACCESS_TOKEN_BODY), now);
+  }
+
+  @Benchmark
+  public String loginTreeNewMapper() throws IOException {
+    return readTree(new ObjectMapper(), LOGIN_BODY).path("auth").path("client_token").asText();
+  }
+
+  @Benchmark
+  public String loginTreeSharedMapper() throws IOException {
+    return readTree(sharedMapper, LOGIN_BODY).path("auth").path("client_token").asText();
+  }
+
+  @Benchmark
+  public LoginToken loginStreaming() throws IOException {
+    return TokenResponses.readLoginToken(new ByteArrayInputStream(LOGIN_BODY));
+  }
+
+  /** Mirrors the former path: the body converted to a String before being read as a tree. */
+  private static JsonNode readTree(ObjectMapper mapper, byte[] body) throws IOException {
+    return mapper.readTree(new String(body, StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.vault.benchmark;
+
+import com.example.vault.configuration.VaultUamiAuthProperties;
+import com.example.vault.configuration.VaultUamiAuthProperties.Transport;
+import com.example.vault.configuration.VaultUamiHttpTransports;
+import com.example.vault.service.UamiAuthService;
+import com.example.vault.stub.LocalAuthStub;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.vault.authentication.LoginToken;
+
+/**
+ * Warm login latency and concurrent throughput per {@code vault.uami.http.transport}, against an
+ * HTTPS {@link LocalAuthStub}. Each trial prints the number of TLS connections the stub accepted,
+ * so pool behaviour can be compared alongside the timings.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransportBenchmark {
+
+  @Param({"CLASSIC", "ASYNC", "JDK"})
+  public Transport transport;
+
+  private LocalAuthStub stub;
+  private UamiAuthService service;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    stub = LocalAuthStub.startHttps();
+    VaultUamiAuthProperties.Http http = new VaultUamiAuthProperties.Http();
+    http.setTransport(transport);
+    service = stub.uamiService(VaultUamiHttpTransports.create(http, null));
+    service.authenticate();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    System.out.printf(
+        "%n%s: %d logins over %d connections%n",
+        transport, stub.loginCalls(), stub.distinctConnections());
+    service.close();
+    stub.close();
+  }
+
+  /** IMDS call and Vault login from one thread. SampleTime reports the percentiles. */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  public LoginToken login() {
+    return service.authenticate();
+  }
+
+  /** IMDS call and Vault login from eight threads sharing the transport's pool. */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @Threads(8)
+  public LoginToken concurrentLogin() {
+    return service.authenticate();
+  }
+}
@@ -0,0 +1,96 @@
+package com.example.vault.benchmark;
+
+import com.example.vault.delegate.VaultUamiAuthentication;
+import com.example.vault.service.ManagedIdentityTokenCache;
+import com.example.vault.service.UamiAuthService;
+import com.example.vault.stub.LocalAuthStub;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.vault.authentication.LoginToken;
+
+/**
+ * Login latency against an HTTPS {@link LocalAuthStub}. Cold logins build a new service and
+ * connection pool per call, so they include the TLS handshakes; warm logins reuse pooled
+ * connections. SampleTime mode reports the p50/p90/p99/p99.9 percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UamiLoginBenchmark {
+
+  private LocalAuthStub stub;
+  private ManagedIdentityTokenCache tokenCache;
+  private UamiAuthService warmService;
+  private UamiAuthService cachedService;
+  private VaultUamiAuthentication authentication;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    stub = LocalAuthStub.startHttps();
+    tokenCache = new ManagedIdentityTokenCache(Duration.ofMinutes(5));
+    warmService = StubServices.create(stub, null);
+    cachedService = StubServices.create(stub, tokenCache);
+    authentication = new VaultUamiAuthentication(cachedService);
+    warmService.authenticate();
+    cachedService.authenticate();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    warmService.close();
+    cachedService.close();
+    tokenCache.close();
+    stub.close();
+  }
+
+  /** New service per login: pool creation, two TLS handshakes, IMDS call and Vault login. */
+  @Benchmark
+  public LoginToken coldLogin() {
+    try (UamiAuthService service = StubServices.create(stub, null)) {
+      return service.authenticate();
+    }
+  }
+
+  /** Pooled connections, IMDS call and Vault login on every call. */
+  @Benchmark
+  public LoginToken warmLogin() {
+    return warmService.authenticate();
+  }
+
+  /** Pooled connections and a cached access token: only the Vault login goes over the wire. */
+  @Benchmark
+  public LoginToken warmLoginCachedAccessToken() {
+    return cachedService.authenticate();
+  }
+
+  /** Full ClientAuthentication path, including login coalescing. */
+  @Benchmark
+  public LoginToken clientAuthenticationLogin() {
+    return authentication.login();
+  }
+
+  /** Logins per second with eight callers sharing one service and connection pool. */
+  @Benchmark
+  @Threads(8)
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public LoginToken warmLoginThroughput() {
+    return warmService.authenticate();
+  }
+}
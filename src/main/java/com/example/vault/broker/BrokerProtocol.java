@@ -0,0 +1,63 @@
+package com.example.vault.broker;
+
+import com.example.vault.service.TokenResponses;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import org.springframework.vault.authentication.LoginToken;
+import org.springframework.vault.support.VaultToken;
+
+/**
+ * Wire format of the token broker: on each connection the server writes one JSON object and closes
+ * it, {@code {"token":...,"ttl":<seconds left>,"accessor":...}} or {@code {"error":...}}. Clients
+ * send nothing.
+ */
+final class BrokerProtocol {
+
+  private BrokerProtocol() {}
+
+  static byte[] token(VaultToken token, Duration remaining) throws IOException {
+    ObjectNode json = TokenResponses.OBJECT_MAPPER.createObjectNode();
+    json.put("token", token.getToken());
+    json.put("ttl", remaining.toSeconds());
+    if (token instanceof LoginToken login && login.getAccessor() != null) {
+      json.put("accessor", login.getAccessor());
+    }
+    return TokenResponses.OBJECT_MAPPER.writeValueAsBytes(json);
+  }
+
+  static byte[] error(String message) throws IOException {
+    ObjectNode json = TokenResponses.OBJECT_MAPPER.createObjectNode();
+    json.put("error", message);
+    return TokenResponses.OBJECT_MAPPER.writeValueAsBytes(json);
+  }
+
+  /**
+   * Reads the token the server sent. It is not renewable on the client side: the server owns its
+   * lease, and a client asks again once the TTL runs out.
+   */
+  static LoginToken read(InputStream in) throws IOException {
+    JsonNode json = TokenResponses.OBJECT_MAPPER.readTree(in);
+    if (json == null || !json.isObject()) {
+      throw new IOException("Empty token broker response");
+    }
+    if (json.hasNonNull("error")) {
+      throw new IOException("Token broker failed: " + json.get("error").asText());
+    }
+    String token = json.path("token").asText();
+    if (token.isEmpty()) {
+      throw new IOException("Token broker response did not contain a token");
+    }
+    var builder =
+        LoginToken.builder()
+            .token(token)
+            .leaseDuration(Duration.ofSeconds(json.path("ttl").asLong()))
+            .renewable(false);
+    if (json.hasNonNull("accessor")) {
+      builder.accessor(json.get("accessor").asText());
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,87 @@
+package com.example.vault.broker;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.vault.authentication.ClientAuthentication;
+import org.springframework.vault.authentication.LoginToken;
+import org.springframework.vault.support.VaultToken;
+
+/**
+ * ClientAuthentication that takes the Vault token from a {@link TokenBrokerServer} on the same
+ * host, and logs in itself through a fallback if the broker is not running, does not answer within
+ * the timeout, or hands out a token with less than the minimum TTL left.
+ *
+ * <p>Brokered tokens are returned as non-renewable, so the session manager asks the broker again
+ * once the TTL runs out instead of renewing a token other processes share.
+ */
+public class TokenBrokerAuthentication implements ClientAuthentication {
+  private static final Logger logger = LoggerFactory.getLogger(TokenBrokerAuthentication.class);
+
+  private final UnixDomainSocketAddress address;
+  private final Duration timeout;
+  private final Duration minTtl;
+  private final ClientAuthentication fallback;
+
+  /**
+   * @param socketPath Unix domain socket of the broker
+   * @param timeout how long to wait for the broker's answer
+   * @param minTtl minimum remaining TTL of a brokered token
+   * @param fallback login used when the broker cannot provide a token
+   */
+  public TokenBrokerAuthentication(
+      Path socketPath, Duration timeout, Duration minTtl, ClientAuthentication fallback) {
+    this.address = UnixDomainSocketAddress.of(socketPath.toAbsolutePath());
+    this.timeout = timeout;
+    this.minTtl = minTtl;
+    this.fallback = fallback;
+  }
+
+  @Override
+  public LoginToken login() {
+    try {
+      LoginToken token = fetch();
+      if (token.getLeaseDuration().compareTo(minTtl) >= 0) {
+        logger.debug("Using vault token from broker {}.", address.getPath());
+        return token;
+      }
+      logger.info(
+          "Brokered vault token has {}s left, logging in directly.",
+          token.getLeaseDuration().toSeconds());
+    } catch (IOException e) {
+      logger.info("Vault token broker unavailable, logging in directly: {}", e.getMessage());
+    }
+    VaultToken token = fallback.login();
+    return token instanceof LoginToken login ? login : LoginToken.of(token.getToken());
+  }
+
+  private LoginToken fetch() throws IOException {
+    try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+      // Blocking Unix domain sockets have no read timeout; closing the channel ends the read.
+      Thread watchdog = Thread.ofVirtual().start(() -> closeAfterTimeout(channel));
+      try {
+        channel.connect(address);
+        return BrokerProtocol.read(Channels.newInputStream(channel));
+      } finally {
+        watchdog.interrupt();
+      }
+    }
+  }
+
+  private void closeAfterTimeout(SocketChannel channel) {
+    try {
+      Thread.sleep(timeout);
+      channel.close();
+    } catch (InterruptedException e) {
+      // Answered in time.
+    } catch (IOException e) {
+      logger.debug("Failed to close vault token broker connection: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,244 @@
+package com.example.vault.broker;
+
+import com.example.vault.service.SingleFlight;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import jdk.net.ExtendedSocketOptions;
+import jdk.net.UnixDomainPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.vault.authentication.LoginToken;
+import org.springframework.vault.authentication.SessionManager;
+import org.springframework.vault.client.VaultHttpHeaders;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultToken;
+import org.springframework.web.client.RestOperations;
+
+/**
+ * Serves the Vault token of this process to other JVMs on the same host over a Unix domain socket,
+ * so N processes running under one managed identity cost one IMDS call and one Vault login per
+ * token lifetime instead of N.
+ *
+ * <p>The served token is the one of this process's {@link SessionManager}, so the broker adds no
+ * login of its own. It is renewed with {@code renew-self}, coalesced across concurrent requests,
+ * once less than {@code refreshAhead} of its TTL is left; the renewal also tells the exact TTL to
+ * hand out. A token that cannot be renewed any further is served until the session manager
+ * replaces it. The socket's directory is created readable only by its owner, the socket file
+ * itself is owner-only, and where the platform reports peer credentials a connection from another
+ * user is closed without a response.
+ */
+public class TokenBrokerServer implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(TokenBrokerServer.class);
+
+  /**
+   * The served token.
+   *
+   * @param renewable whether a renewal can still extend the token beyond {@code refreshAhead}
+   */
+  private record Lease(VaultToken token, Instant expiresAt, boolean renewable) {
+    Duration remaining() {
+      return Duration.between(Instant.now(), expiresAt);
+    }
+  }
+
+  private final Path socketPath;
+  private final SessionManager sessionManager;
+  private final RestOperations vault;
+  private final Duration refreshAhead;
+  private final SingleFlight<Lease> singleFlight = new SingleFlight<>();
+  private volatile Lease lease;
+  private volatile ServerSocketChannel server;
+  private volatile String owner;
+
+  /**
+   * @param socketPath Unix domain socket to listen on
+   * @param sessionManager session of this process, whose token is served
+   * @param vault Vault client of the {@code renew-self} calls
+   * @param refreshAhead remaining TTL below which the next request renews the token
+   */
+  public TokenBrokerServer(
+      Path socketPath,
+      SessionManager sessionManager,
+      RestOperations vault,
+      Duration refreshAhead) {
+    this.socketPath = socketPath.toAbsolutePath();
+    this.sessionManager = sessionManager;
+    this.vault = vault;
+    this.refreshAhead = refreshAhead;
+  }
+
+  /**
+   * Binds the socket and starts accepting connections on a virtual thread.
+   *
+   * @throws IllegalStateException if the socket cannot be bound or another broker is serving it
+   */
+  public TokenBrokerServer start() {
+    UnixDomainSocketAddress address = UnixDomainSocketAddress.of(socketPath);
+    try {
+      if (posix()) {
+        Files.createDirectories(
+            socketPath.getParent(),
+            PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+      } else {
+        Files.createDirectories(socketPath.getParent());
+      }
+      removeStaleSocket(address);
+      ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+      channel.bind(address);
+      if (posix()) {
+        Files.setPosixFilePermissions(socketPath, PosixFilePermissions.fromString("rw-------"));
+      }
+      owner = Files.getOwner(socketPath).getName();
+      server = channel;
+    } catch (IOException e) {
+      throw new IllegalStateException(
+          "Failed to bind vault token broker at " + socketPath + ": " + e.getMessage(), e);
+    }
+    Thread.ofVirtual().name("vault-uami-broker").start(this::accept);
+    logger.info("Vault token broker listening on {}.", socketPath);
+    return this;
+  }
+
+  /** Stops accepting connections and removes the socket file. */
+  @Override
+  public void close() {
+    ServerSocketChannel channel = server;
+    if (channel == null) {
+      return;
+    }
+    server = null;
+    try {
+      channel.close();
+      Files.deleteIfExists(socketPath);
+    } catch (IOException e) {
+      logger.warn("Failed to close vault token broker {}: {}", socketPath, e.getMessage());
+    }
+  }
+
+  private void removeStaleSocket(UnixDomainSocketAddress address) throws IOException {
+    if (!Files.exists(socketPath)) {
+      return;
+    }
+    try (SocketChannel probe = SocketChannel.open(address)) {
+      throw new IllegalStateException("A vault token broker is already serving " + socketPath);
+    } catch (IOException e) {
+      // Nobody is listening: left behind by a broker that did not shut down cleanly.
+      Files.delete(socketPath);
+    }
+  }
+
+  private void accept() {
+    ServerSocketChannel channel;
+    while ((channel = server) != null) {
+      try {
+        SocketChannel connection = channel.accept();
+        Thread.ofVirtual().name("vault-uami-broker-conn").start(() -> serve(connection));
+      } catch (IOException e) {
+        if (server != null) {
+          logger.warn("Vault token broker failed to accept a connection: {}", e.getMessage());
+        }
+      }
+    }
+  }
+
+  private void serve(SocketChannel connection) {
+    try (connection) {
+      if (!isOwner(connection)) {
+        return;
+      }
+      byte[] response;
+      try {
+        Lease current = currentLease();
+        response = BrokerProtocol.token(current.token(), current.remaining());
+      } catch (RuntimeException e) {
+        logger.warn("Vault token broker could not obtain a token: {}", e.getMessage());
+        response = BrokerProtocol.error(e.getMessage());
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(response);
+      while (buffer.hasRemaining()) {
+        connection.write(buffer);
+      }
+    } catch (IOException e) {
+      logger.debug("Vault token broker connection failed: {}", e.getMessage());
+    }
+  }
+
+  private boolean isOwner(SocketChannel connection) throws IOException {
+    UnixDomainPrincipal peer;
+    try {
+      peer = connection.getOption(ExtendedSocketOptions.SO_PEERCRED);
+    } catch (UnsupportedOperationException e) {
+      return true; // Only the socket file permissions apply.
+    }
+    if (!peer.user().getName().equals(owner)) {
+      logger.warn("Vault token broker refused a connection from user {}.", peer.user().getName());
+      return false;
+    }
+    return true;
+  }
+
+  private Lease currentLease() {
+    Lease current = lease;
+    if (isFresh(current)) {
+      return current;
+    }
+    return singleFlight.execute(
+        () -> {
+          // A renewal that just completed may already have replaced the lease.
+          Lease previous = lease;
+          if (isFresh(previous)) {
+            return previous;
+          }
+          VaultToken token = sessionManager.getSessionToken();
+          if (previous != null
+              && !previous.renewable()
+              && previous.token().getToken().equals(token.getToken())) {
+            return previous;
+          }
+          lease = renew(token);
+          return lease;
+        });
+  }
+
+  /** Renews the token, unless its session reports it as not renewable. */
+  private Lease renew(VaultToken token) {
+    if (token instanceof LoginToken login && !login.isRenewable()) {
+      return new Lease(token, Instant.now().plus(login.getLeaseDuration()), false);
+    }
+    VaultResponse response =
+        vault.postForObject(
+            "auth/token/renew-self",
+            new HttpEntity<>(VaultHttpHeaders.from(token)),
+            VaultResponse.class);
+    Map<String, Object> auth = response == null ? null : response.getAuth();
+    if (auth == null || !(auth.get("lease_duration") instanceof Number seconds)) {
+      throw new IllegalStateException("Vault token renewal returned no lease");
+    }
+    Duration granted = Duration.ofSeconds(seconds.longValue());
+    logger.debug("Renewed the brokered vault token for {}s.", granted.toSeconds());
+    // Capped by its max TTL, the token cannot be extended beyond refresh-ahead again.
+    boolean renewable =
+        Boolean.TRUE.equals(auth.get("renewable")) && granted.compareTo(refreshAhead) >= 0;
+    return new Lease(token, Instant.now().plus(granted), renewable);
+  }
+
+  private boolean isFresh(Lease current) {
+    return current != null && current.remaining().compareTo(refreshAhead) > 0;
+  }
+
+  private static boolean posix() {
+    return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+  }
+}
@@ -0,0 +1,43 @@
+package com.example.vault.configuration;
+
+import com.example.vault.service.ReactiveUamiAuthService;
+import javax.net.ssl.SSLContext;
+import org.springframework.boot.BootstrapRegistry;
+import org.springframework.util.ClassUtils;
+import org.springframework.vault.authentication.VaultTokenSupplier;
+
+/**
+ * Registers the non-blocking UAMI {@link VaultTokenSupplier} used by {@code ReactiveVaultTemplate}.
+ * Kept apart from {@link VaultUamiAuthenticationConfiguration} so WebFlux and Reactor Netty are
+ * only loaded when they are on the classpath.
+ */
+final class ReactiveVaultUamiRegistrar {
+
+  private ReactiveVaultUamiRegistrar() {}
+
+  /** Whether WebClient and Reactor Netty are available. */
+  static boolean isReactivePresent(ClassLoader classLoader) {
+    return ClassUtils.isPresent(
+            "org.springframework.web.reactive.function.client.WebClient", classLoader)
+        && ClassUtils.isPresent("reactor.netty.http.client.HttpClient", classLoader);
+  }
+
+  /** Registers the reactive token supplier, on the TLS context of the blocking logins. */
+  static void register(BootstrapRegistry registry) {
+    registry.register(
+        VaultTokenSupplier.class,
+        context -> {
+          VaultUamiAuthProperties props = context.get(VaultUamiAuthProperties.class);
+          return new ReactiveUamiAuthService(
+              props.getUri(),
+              props.getNamespace(),
+              props.getRole(),
+              props.getResource(),
+              props.getClientId(),
+              context.get(SSLContext.class),
+              props.getHttp().getConnectTimeout(),
+              props.getHttp().getResponseTimeout(),
+              props.getHttp().getLoginTimeout());
+        });
+  }
+}
@@ -0,0 +1,54 @@
+package com.example.vault.configuration;
+
+import com.example.vault.service.VaultEndpointRouter;
+import java.io.IOException;
+import java.net.URI;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Sends secret reads ({@code GET}, including {@code LIST}) to the lowest-latency healthy Vault node
+ * of the {@link VaultEndpointRouter}. Writes, {@code auth/} (logins, token renewal and lookup) and
+ * {@code sys/} requests stay on the active node.
+ */
+final class ReadRoutingInterceptor implements ClientHttpRequestInterceptor {
+
+  private final VaultEndpointRouter router;
+
+  ReadRoutingInterceptor(VaultEndpointRouter router) {
+    this.router = router;
+  }
+
+  @Override
+  public ClientHttpResponse intercept(
+      HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    String path = request.getURI().getPath();
+    if (!HttpMethod.GET.equals(request.getMethod())
+        || path.startsWith("/v1/auth/")
+        || path.startsWith("/v1/sys/")) {
+      return execution.execute(request, body);
+    }
+    VaultEndpoint target = router.readEndpoint();
+    URI routed =
+        UriComponentsBuilder.fromUri(request.getURI())
+            .scheme(target.getScheme())
+            .host(target.getHost())
+            .port(target.getPort())
+            .build(true)
+            .toUri();
+    return execution.execute(
+        new HttpRequestWrapper(request) {
+          @Override
+          public URI getURI() {
+            return routed;
+          }
+        },
+        body);
+  }
+}
@@ -0,0 +1,94 @@
+package com.example.vault.configuration;
+
+import com.example.vault.service.TokenResponses;
+import com.example.vault.service.UamiAuthMetrics;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.vault.authentication.LoginToken;
+
+/**
+ * Counts {@code auth/token/renew-self} calls made by the session manager and records the renewed
+ * TTL, so token renewals can be told apart from re-logins. Other requests pass through untouched.
+ */
+public final class RenewalMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+  private final UamiAuthMetrics metrics;
+
+  public RenewalMetricsInterceptor(UamiAuthMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public ClientHttpResponse intercept(
+      HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    if (!HttpMethod.POST.equals(request.getMethod())
+        || !request.getURI().getPath().endsWith("/auth/token/renew-self")) {
+      return execution.execute(request, body);
+    }
+    ClientHttpResponse response;
+    try {
+      response = execution.execute(request, body);
+    } catch (IOException e) {
+      metrics.recordRenewal(false, null);
+      throw e;
+    }
+    if (!response.getStatusCode().is2xxSuccessful()) {
+      metrics.recordRenewal(false, null);
+      return response;
+    }
+    // The renewal response is small; buffer it so the TTL can be read and the caller still sees it.
+    byte[] content = response.getBody().readAllBytes();
+    LoginToken renewed;
+    try {
+      renewed = TokenResponses.readLoginToken(new ByteArrayInputStream(content));
+    } catch (IOException | RuntimeException e) {
+      renewed = null;
+    }
+    metrics.recordRenewal(true, renewed);
+    return new BufferedResponse(response, content);
+  }
+
+  private static final class BufferedResponse implements ClientHttpResponse {
+
+    private final ClientHttpResponse delegate;
+    private final byte[] content;
+
+    BufferedResponse(ClientHttpResponse delegate, byte[] content) {
+      this.delegate = delegate;
+      this.content = content;
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() throws IOException {
+      return delegate.getStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+      return delegate.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return delegate.getHeaders();
+    }
+
+    @Override
+    public InputStream getBody() {
+      return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public void close() {
+      delegate.close();
+    }
+  }
+}
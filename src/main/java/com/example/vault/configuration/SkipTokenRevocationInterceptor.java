@@ -0,0 +1,60 @@
+package com.example.vault.configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Answers {@code auth/token/revoke-self} locally with 204 so that a login token kept in the
+ * persistent token store survives a graceful shutdown and can be reused on restart.
+ */
+final class SkipTokenRevocationInterceptor implements ClientHttpRequestInterceptor {
+  private static final Logger logger =
+      LoggerFactory.getLogger(SkipTokenRevocationInterceptor.class);
+
+  @Override
+  public ClientHttpResponse intercept(
+      HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    if (HttpMethod.POST.equals(request.getMethod())
+        && request.getURI().getPath().endsWith("/auth/token/revoke-self")) {
+      logger.info("Keeping vault token for warm start, skipping revoke-self.");
+      return new NoContentResponse();
+    }
+    return execution.execute(request, body);
+  }
+
+  private static final class NoContentResponse implements ClientHttpResponse {
+
+    @Override
+    public HttpStatusCode getStatusCode() {
+      return HttpStatus.NO_CONTENT;
+    }
+
+    @Override
+    public String getStatusText() {
+      return HttpStatus.NO_CONTENT.getReasonPhrase();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return new HttpHeaders();
+    }
+
+    @Override
+    public InputStream getBody() {
+      return InputStream.nullInputStream();
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,35 @@
+package com.example.vault.configuration;
+
+import com.example.vault.diagnostics.StartupTimeline;
+import com.example.vault.service.BulkSecretFetcher;
+import java.util.List;
+import org.springframework.boot.context.config.ConfigData;
+import org.springframework.boot.context.config.ConfigDataLoader;
+import org.springframework.boot.context.config.ConfigDataLoaderContext;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Loads a {@code vault-bulk:} import with the bootstrap {@link BulkSecretFetcher}. Keys of later
+ * paths override those of earlier ones. Unless the import is {@code optional:}, any failed path
+ * fails startup. The result is kept for {@code bulk-fetch.refresh}.
+ */
+public class VaultBulkConfigDataLoader implements ConfigDataLoader<VaultBulkConfigDataResource> {
+
+  @Override
+  public ConfigData load(ConfigDataLoaderContext context, VaultBulkConfigDataResource resource) {
+    BulkSecretFetcher.Result result;
+    try (StartupTimeline.Span phase = StartupTimeline.get().phase(resource.toString())) {
+      result =
+          context.getBootstrapContext().get(BulkSecretFetcher.class).fetch(resource.getPaths());
+    }
+    if (!result.isComplete() && !resource.isOptionalImport()) {
+      IllegalStateException failure =
+          new IllegalStateException(
+              "Failed to read Vault secrets " + result.failures().keySet() + " of " + resource);
+      result.failures().values().forEach(failure::addSuppressed);
+      throw failure;
+    }
+    context.getBootstrapContext().get(VaultBulkImports.class).add(resource.toString(), result);
+    return new ConfigData(List.of(new MapPropertySource(resource.toString(), result.merged())));
+  }
+}
@@ -0,0 +1,46 @@
+package com.example.vault.configuration;
+
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.boot.context.config.ConfigDataLocation;
+import org.springframework.boot.context.config.ConfigDataLocationNotFoundException;
+import org.springframework.boot.context.config.ConfigDataLocationResolver;
+import org.springframework.boot.context.config.ConfigDataLocationResolverContext;
+
+/**
+ * Resolves {@code spring.config.import: vault-bulk://secret/data/a,secret/data/b} into a single
+ * resource whose paths are read concurrently instead of one import after another.
+ */
+public class VaultBulkConfigDataLocationResolver
+    implements ConfigDataLocationResolver<VaultBulkConfigDataResource> {
+
+  static final String PREFIX = "vault-bulk:";
+
+  @Override
+  public boolean isResolvable(
+      ConfigDataLocationResolverContext context, ConfigDataLocation location) {
+    return location.hasPrefix(PREFIX);
+  }
+
+  @Override
+  public List<VaultBulkConfigDataResource> resolve(
+      ConfigDataLocationResolverContext context, ConfigDataLocation location) {
+    List<String> paths = paths(location.getNonPrefixedValue(PREFIX));
+    if (paths.isEmpty()) {
+      throw new ConfigDataLocationNotFoundException(location);
+    }
+    return List.of(new VaultBulkConfigDataResource(paths, location.isOptional()));
+  }
+
+  /** Splits {@code //a,/b} into {@code [a, b]}. */
+  static List<String> paths(String value) {
+    if (value.startsWith("//")) {
+      value = value.substring(2);
+    }
+    return Arrays.stream(value.split(","))
+        .map(String::trim)
+        .map(path -> path.startsWith("/") ? path.substring(1) : path)
+        .filter(path -> !path.isEmpty())
+        .toList();
+  }
+}
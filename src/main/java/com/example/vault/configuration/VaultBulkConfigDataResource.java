@@ -0,0 +1,42 @@
+package com.example.vault.configuration;
+
+import java.util.List;
+import java.util.Objects;
+import org.springframework.boot.context.config.ConfigDataResource;
+
+/** The Vault paths of one {@code vault-bulk:} import, read together by the bulk fetcher. */
+public class VaultBulkConfigDataResource extends ConfigDataResource {
+
+  private final List<String> paths;
+  private final boolean optional;
+
+  VaultBulkConfigDataResource(List<String> paths, boolean optional) {
+    super(optional);
+    this.paths = List.copyOf(paths);
+    this.optional = optional;
+  }
+
+  public List<String> getPaths() {
+    return paths;
+  }
+
+  /** Whether the import is {@code optional:}. */
+  public boolean isOptionalImport() {
+    return optional;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof VaultBulkConfigDataResource resource && paths.equals(resource.paths);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(paths);
+  }
+
+  @Override
+  public String toString() {
+    return VaultBulkConfigDataLocationResolver.PREFIX + "//" + String.join(",", paths);
+  }
+}
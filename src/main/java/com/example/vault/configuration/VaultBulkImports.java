@@ -0,0 +1,19 @@
+package com.example.vault.configuration;
+
+import com.example.vault.service.BulkSecretFetcher;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** The {@code vault-bulk:} imports loaded at startup, by property source name. */
+final class VaultBulkImports {
+
+  private final Map<String, BulkSecretFetcher.Result> imports = new LinkedHashMap<>();
+
+  synchronized void add(String propertySourceName, BulkSecretFetcher.Result result) {
+    imports.put(propertySourceName, result);
+  }
+
+  synchronized Map<String, BulkSecretFetcher.Result> getAll() {
+    return Map.copyOf(imports);
+  }
+}
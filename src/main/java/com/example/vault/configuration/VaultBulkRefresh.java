@@ -0,0 +1,62 @@
+package com.example.vault.configuration;
+
+import com.example.vault.service.BulkSecretFetcher;
+import com.example.vault.service.IncrementalSecretRefresher;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+
+/**
+ * Keeps the {@code vault-bulk:} imports of an application current. A change replaces the import's
+ * property source in the environment and is published as a {@link VaultSecretsChangedEvent}, which
+ * {@link VaultSecretsRebinder} uses to rebind only the affected configuration properties.
+ */
+final class VaultBulkRefresh implements AutoCloseable {
+
+  private final ConfigurableApplicationContext applicationContext;
+  private final BulkSecretFetcher fetcher;
+  private final Map<String, BulkSecretFetcher.Result> imports;
+  private final List<IncrementalSecretRefresher> refreshers = new ArrayList<>();
+
+  VaultBulkRefresh(
+      ConfigurableApplicationContext applicationContext,
+      BulkSecretFetcher fetcher,
+      Map<String, BulkSecretFetcher.Result> imports) {
+    this.applicationContext = applicationContext;
+    this.fetcher = fetcher;
+    this.imports = imports;
+    applicationContext.addApplicationListener(new VaultSecretsRebinder(applicationContext));
+  }
+
+  /** Starts one refresher per import, each running every {@code interval}; once only. */
+  synchronized void start(Duration interval) {
+    if (!refreshers.isEmpty()) {
+      return;
+    }
+    imports.forEach(
+        (name, result) ->
+            refreshers.add(
+                new IncrementalSecretRefresher(fetcher, result, change -> apply(name, change))
+                    .start(interval)));
+  }
+
+  private void apply(String propertySourceName, IncrementalSecretRefresher.Change change) {
+    MutablePropertySources propertySources =
+        applicationContext.getEnvironment().getPropertySources();
+    if (propertySources.contains(propertySourceName)) {
+      propertySources.replace(
+          propertySourceName, new MapPropertySource(propertySourceName, change.merged()));
+    }
+    applicationContext.publishEvent(
+        new VaultSecretsChangedEvent(this, propertySourceName, change.keys()));
+  }
+
+  @Override
+  public synchronized void close() {
+    refreshers.forEach(IncrementalSecretRefresher::close);
+  }
+}
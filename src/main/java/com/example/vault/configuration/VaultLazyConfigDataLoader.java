@@ -0,0 +1,41 @@
+package com.example.vault.configuration;
+
+import com.example.vault.service.BulkSecretFetcher;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.context.config.ConfigData;
+import org.springframework.boot.context.config.ConfigDataLoader;
+import org.springframework.boot.context.config.ConfigDataLoaderContext;
+
+/**
+ * Loads a {@code vault-lazy:} import as a {@link VaultLazyPropertySource} on the bootstrap {@link
+ * BulkSecretFetcher}. Unless the import is {@code optional:}, its required keys are read now, and
+ * a failed read or a missing required key fails startup.
+ */
+public class VaultLazyConfigDataLoader implements ConfigDataLoader<VaultLazyConfigDataResource> {
+
+  @Override
+  public ConfigData load(ConfigDataLoaderContext context, VaultLazyConfigDataResource resource) {
+    VaultLazyPropertySource propertySource =
+        new VaultLazyPropertySource(
+            resource.toString(),
+            context.getBootstrapContext().get(BulkSecretFetcher.class),
+            resource.getPaths(),
+            resource.getKeys(),
+            context
+                .getBootstrapContext()
+                .get(VaultUamiAuthProperties.class)
+                .getLazyImport()
+                .getTtl());
+    if (!resource.getRequired().isEmpty() && !resource.isOptionalImport()) {
+      Map<String, Object> values = propertySource.values();
+      List<String> missing =
+          resource.getRequired().stream().filter(key -> !values.containsKey(key)).sorted().toList();
+      if (!missing.isEmpty()) {
+        throw new IllegalStateException(
+            "Missing required Vault keys " + missing + " of " + resource);
+      }
+    }
+    return new ConfigData(List.of(propertySource));
+  }
+}
@@ -0,0 +1,70 @@
+package com.example.vault.configuration;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.boot.context.config.ConfigDataLocation;
+import org.springframework.boot.context.config.ConfigDataLocationNotFoundException;
+import org.springframework.boot.context.config.ConfigDataLocationResolver;
+import org.springframework.boot.context.config.ConfigDataLocationResolverContext;
+
+/**
+ * Resolves {@code spring.config.import: vault-lazy://secret/data/a,secret/data/b?keys=x,y} into a
+ * resource whose secrets are read on first access of one of its keys. {@code required=x} marks
+ * keys that are read at startup and fail it when missing.
+ */
+public class VaultLazyConfigDataLocationResolver
+    implements ConfigDataLocationResolver<VaultLazyConfigDataResource> {
+
+  static final String PREFIX = "vault-lazy:";
+
+  @Override
+  public boolean isResolvable(
+      ConfigDataLocationResolverContext context, ConfigDataLocation location) {
+    return location.hasPrefix(PREFIX);
+  }
+
+  @Override
+  public List<VaultLazyConfigDataResource> resolve(
+      ConfigDataLocationResolverContext context, ConfigDataLocation location) {
+    String value = location.getNonPrefixedValue(PREFIX);
+    int query = value.indexOf('?');
+    List<String> paths =
+        VaultBulkConfigDataLocationResolver.paths(query < 0 ? value : value.substring(0, query));
+    if (paths.isEmpty()) {
+      throw new ConfigDataLocationNotFoundException(location);
+    }
+    Map<String, Set<String>> parameters =
+        query < 0 ? Map.of() : parameters(value.substring(query + 1));
+    Set<String> required = parameters.getOrDefault("required", Set.of());
+    Set<String> keys = new LinkedHashSet<>(parameters.getOrDefault("keys", Set.of()));
+    keys.addAll(required);
+    if (keys.isEmpty()) {
+      throw new IllegalStateException(
+          "Missing 'keys' of " + location + ", e.g. " + PREFIX + "//secret/data/app?keys=db.pass");
+    }
+    return List.of(
+        new VaultLazyConfigDataResource(paths, keys, required, location.isOptional()));
+  }
+
+  /** Parses {@code keys=a,b&required=a} into {@code {keys=[a, b], required=[a]}}. */
+  private static Map<String, Set<String>> parameters(String query) {
+    Map<String, Set<String>> parameters = new LinkedHashMap<>();
+    for (String parameter : query.split("&")) {
+      int equals = parameter.indexOf('=');
+      if (equals > 0) {
+        parameters
+            .computeIfAbsent(parameter.substring(0, equals).trim(), name -> new LinkedHashSet<>())
+            .addAll(
+                Arrays.stream(parameter.substring(equals + 1).split(","))
+                    .map(String::trim)
+                    .filter(key -> !key.isEmpty())
+                    .toList());
+      }
+    }
+    return parameters;
+  }
+}
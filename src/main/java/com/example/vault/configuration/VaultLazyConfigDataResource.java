@@ -0,0 +1,61 @@
+package com.example.vault.configuration;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import org.springframework.boot.context.config.ConfigDataResource;
+
+/** The Vault paths and declared keys of one {@code vault-lazy:} import. */
+public class VaultLazyConfigDataResource extends ConfigDataResource {
+
+  private final List<String> paths;
+  private final Set<String> keys;
+  private final Set<String> required;
+  private final boolean optional;
+
+  VaultLazyConfigDataResource(
+      List<String> paths, Set<String> keys, Set<String> required, boolean optional) {
+    super(optional);
+    this.paths = List.copyOf(paths);
+    this.keys = Set.copyOf(keys);
+    this.required = Set.copyOf(required);
+    this.optional = optional;
+  }
+
+  public List<String> getPaths() {
+    return paths;
+  }
+
+  /** Property names the import provides, required ones included. */
+  public Set<String> getKeys() {
+    return keys;
+  }
+
+  /** Property names read at startup, failing it when missing. */
+  public Set<String> getRequired() {
+    return required;
+  }
+
+  /** Whether the import is {@code optional:}. */
+  public boolean isOptionalImport() {
+    return optional;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof VaultLazyConfigDataResource resource
+        && paths.equals(resource.paths)
+        && keys.equals(resource.keys)
+        && required.equals(resource.required);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(paths, keys, required);
+  }
+
+  @Override
+  public String toString() {
+    return VaultLazyConfigDataLocationResolver.PREFIX + "//" + String.join(",", paths);
+  }
+}
@@ -0,0 +1,119 @@
+package com.example.vault.configuration;
+
+import com.example.vault.service.BulkSecretFetcher;
+import com.example.vault.service.SingleFlight;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.EnumerablePropertySource;
+
+/**
+ * Property source of a {@code vault-lazy:} import. Its key names are declared up front, so property
+ * lookups of other names never reach Vault. The first lookup of a declared key reads all paths of
+ * the import with the bulk fetcher; values are kept for the TTL, and concurrent lookups of an
+ * expired source share one read. When a later read fails, the previous values are served and the
+ * read is retried after {@link #RETRY_INTERVAL}.
+ */
+public class VaultLazyPropertySource extends EnumerablePropertySource<BulkSecretFetcher> {
+  private static final Logger logger = LoggerFactory.getLogger(VaultLazyPropertySource.class);
+
+  static final Duration RETRY_INTERVAL = Duration.ofSeconds(10);
+
+  private record Snapshot(Map<String, Object> values, Instant expiresAt) {}
+
+  private final List<String> paths;
+  private final String[] keys;
+  private final Set<String> keySet;
+  private final Duration ttl;
+  private final Clock clock;
+  private final SingleFlight<Snapshot> singleFlight = new SingleFlight<>();
+  private volatile Snapshot snapshot;
+
+  /**
+   * @param name property source name
+   * @param fetcher bulk fetcher of the reads, sharing the bootstrap Vault session
+   * @param paths Vault paths; keys of later paths override those of earlier ones
+   * @param keys property names the source provides
+   * @param ttl how long read values are served before they are read again
+   */
+  public VaultLazyPropertySource(
+      String name,
+      BulkSecretFetcher fetcher,
+      List<String> paths,
+      Collection<String> keys,
+      Duration ttl) {
+    this(name, fetcher, paths, keys, ttl, Clock.systemUTC());
+  }
+
+  VaultLazyPropertySource(
+      String name,
+      BulkSecretFetcher fetcher,
+      List<String> paths,
+      Collection<String> keys,
+      Duration ttl,
+      Clock clock) {
+    super(name, fetcher);
+    this.paths = List.copyOf(paths);
+    this.keys = keys.toArray(String[]::new);
+    this.keySet = Set.copyOf(keys);
+    this.ttl = ttl;
+    this.clock = clock;
+  }
+
+  @Override
+  public String[] getPropertyNames() {
+    return keys.clone();
+  }
+
+  @Override
+  public boolean containsProperty(String name) {
+    return keySet.contains(name);
+  }
+
+  /** The value of a declared key, reading the secrets on first access or after the TTL. */
+  @Override
+  public Object getProperty(String name) {
+    return keySet.contains(name) ? values().get(name) : null;
+  }
+
+  /** All values of the import, flattened and merged, read if not read yet or expired. */
+  Map<String, Object> values() {
+    Snapshot current = snapshot;
+    if (current != null && clock.instant().isBefore(current.expiresAt())) {
+      return current.values();
+    }
+    return singleFlight.execute(this::read).values();
+  }
+
+  private Snapshot read() {
+    Snapshot current = snapshot;
+    // Another read may have completed between the expiry check and this one starting.
+    if (current != null && clock.instant().isBefore(current.expiresAt())) {
+      return current;
+    }
+    BulkSecretFetcher.Result result = source.fetch(paths);
+    if (result.isComplete()) {
+      snapshot = new Snapshot(Collections.unmodifiableMap(result.merged()), clock.instant().plus(ttl));
+    } else if (current != null) {
+      logger.warn(
+          "Failed to re-read Vault secrets {} of {}, serving previous values.",
+          result.failures().keySet(),
+          getName());
+      snapshot = new Snapshot(current.values(), clock.instant().plus(RETRY_INTERVAL));
+    } else {
+      IllegalStateException failure =
+          new IllegalStateException(
+              "Failed to read Vault secrets " + result.failures().keySet() + " of " + getName());
+      result.failures().values().forEach(failure::addSuppressed);
+      throw failure;
+    }
+    return snapshot;
+  }
+}
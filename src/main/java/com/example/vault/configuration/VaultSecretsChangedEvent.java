@@ -0,0 +1,35 @@
+package com.example.vault.configuration;
+
+import java.util.Set;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a refresh of a {@code vault-bulk:} import changed some of its keys. The property
+ * source in the environment already holds the new values.
+ */
+public class VaultSecretsChangedEvent extends ApplicationEvent {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String propertySourceName;
+  private final Set<String> keys;
+
+  /**
+   * @param source the refreshed import
+   * @param propertySourceName name of the property source of the import
+   * @param keys flattened property names that were added, changed or removed
+   */
+  public VaultSecretsChangedEvent(Object source, String propertySourceName, Set<String> keys) {
+    super(source);
+    this.propertySourceName = propertySourceName;
+    this.keys = Set.copyOf(keys);
+  }
+
+  public String getPropertySourceName() {
+    return propertySourceName;
+  }
+
+  public Set<String> getKeys() {
+    return keys;
+  }
+}
@@ -0,0 +1,57 @@
+package com.example.vault.configuration;
+
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationPropertiesBean;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.cloud.context.properties.ConfigurationPropertiesRebinder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Rebinds the {@code @ConfigurationProperties} beans whose prefix covers a changed Vault key, and
+ * only those, through Spring Cloud's {@link ConfigurationPropertiesRebinder}.
+ */
+final class VaultSecretsRebinder implements ApplicationListener<VaultSecretsChangedEvent> {
+  private static final Logger logger = LoggerFactory.getLogger(VaultSecretsRebinder.class);
+
+  private final ConfigurableApplicationContext applicationContext;
+
+  VaultSecretsRebinder(ConfigurableApplicationContext applicationContext) {
+    this.applicationContext = applicationContext;
+  }
+
+  @Override
+  public void onApplicationEvent(VaultSecretsChangedEvent event) {
+    ConfigurationPropertiesRebinder rebinder =
+        applicationContext.getBeanProvider(ConfigurationPropertiesRebinder.class).getIfAvailable();
+    if (rebinder == null) {
+      logger.debug("No ConfigurationPropertiesRebinder; changed Vault keys are not rebound.");
+      return;
+    }
+    List<String> beanNames =
+        affectedBeans(ConfigurationPropertiesBean.getAll(applicationContext), event);
+    beanNames.forEach(rebinder::rebind);
+    logger.info("Rebound {} after Vault keys changed.", beanNames);
+  }
+
+  /** Names of the beans whose prefix is an ancestor of, or equal to, a changed key. */
+  static List<String> affectedBeans(
+      Map<String, ConfigurationPropertiesBean> beans, VaultSecretsChangedEvent event) {
+    List<ConfigurationPropertyName> keys =
+        event.getKeys().stream().map(key -> ConfigurationPropertyName.adapt(key, '.')).toList();
+    return beans.entrySet().stream()
+        .filter(entry -> covers(entry.getValue().getAnnotation().prefix(), keys))
+        .map(Map.Entry::getKey)
+        .sorted()
+        .toList();
+  }
+
+  private static boolean covers(String prefix, List<ConfigurationPropertyName> keys) {
+    ConfigurationPropertyName name = ConfigurationPropertyName.of(prefix);
+    return keys.stream()
+        .anyMatch(key -> name.isEmpty() || name.isAncestorOf(key) || name.equals(key));
+  }
+}
@@ -1,5 +1,10 @@
 package com.example.vault.configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "vault.uami")
@@ -10,6 +15,20 @@ public class VaultUamiAuthProperties {
   private String role;
   private String resource;
   private String clientId;
+  private Http http = new Http();
+  private Tls tls = new Tls();
+  private TokenCache tokenCache = new TokenCache();
+  private TokenStore tokenStore = new TokenStore();
+  private Retry retry = new Retry();
+  private CircuitBreaker circuitBreaker = new CircuitBreaker();
+  private SecretCache secretCache = new SecretCache();
+  private BulkFetch bulkFetch = new BulkFetch();
+  private LazyImport lazyImport = new LazyImport();
+  private Leases leases = new Leases();
+  private Broker broker = new Broker();
+  private Routing routing = new Routing();
+  private Health health = new Health();
+  private Map<String, Identity> identities = new LinkedHashMap<>();
 
   public VaultUamiAuthProperties() {}
 
@@ -61,4 +80,833 @@ public class VaultUamiAuthProperties {
   public void setRole(String role) {
     this.role = role;
   }
+
+  public Http getHttp() {
+    return http;
+  }
+
+  public void setHttp(Http http) {
+    this.http = http;
+  }
+
+  public Tls getTls() {
+    return tls;
+  }
+
+  public void setTls(Tls tls) {
+    this.tls = tls;
+  }
+
+  public TokenCache getTokenCache() {
+    return tokenCache;
+  }
+
+  public void setTokenCache(TokenCache tokenCache) {
+    this.tokenCache = tokenCache;
+  }
+
+  public TokenStore getTokenStore() {
+    return tokenStore;
+  }
+
+  public void setTokenStore(TokenStore tokenStore) {
+    this.tokenStore = tokenStore;
+  }
+
+  public Retry getRetry() {
+    return retry;
+  }
+
+  public void setRetry(Retry retry) {
+    this.retry = retry;
+  }
+
+  public CircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+    this.circuitBreaker = circuitBreaker;
+  }
+
+  public SecretCache getSecretCache() {
+    return secretCache;
+  }
+
+  public void setSecretCache(SecretCache secretCache) {
+    this.secretCache = secretCache;
+  }
+
+  public BulkFetch getBulkFetch() {
+    return bulkFetch;
+  }
+
+  public void setBulkFetch(BulkFetch bulkFetch) {
+    this.bulkFetch = bulkFetch;
+  }
+
+  public LazyImport getLazyImport() {
+    return lazyImport;
+  }
+
+  public void setLazyImport(LazyImport lazyImport) {
+    this.lazyImport = lazyImport;
+  }
+
+  public Leases getLeases() {
+    return leases;
+  }
+
+  public void setLeases(Leases leases) {
+    this.leases = leases;
+  }
+
+  public Broker getBroker() {
+    return broker;
+  }
+
+  public void setBroker(Broker broker) {
+    this.broker = broker;
+  }
+
+  public Routing getRouting() {
+    return routing;
+  }
+
+  public void setRouting(Routing routing) {
+    this.routing = routing;
+  }
+
+  public Health getHealth() {
+    return health;
+  }
+
+  public void setHealth(Health health) {
+    this.health = health;
+  }
+
+  public Map<String, Identity> getIdentities() {
+    return identities;
+  }
+
+  public void setIdentities(Map<String, Identity> identities) {
+    this.identities = identities;
+  }
+
+  /**
+   * Returns the named identity with unset fields taken from the top-level {@code vault.uami.*}
+   * settings.
+   *
+   * @throws IllegalArgumentException if no identity with that name is configured
+   */
+  public Identity resolveIdentity(String name) {
+    Identity identity = identities.get(name);
+    if (identity == null) {
+      throw new IllegalArgumentException("No vault.uami.identities entry named '" + name + "'");
+    }
+    Identity resolved = new Identity();
+    resolved.setUri(identity.getUri() != null ? identity.getUri() : uri);
+    resolved.setNamespace(identity.getNamespace() != null ? identity.getNamespace() : namespace);
+    resolved.setRole(identity.getRole() != null ? identity.getRole() : role);
+    resolved.setResource(identity.getResource() != null ? identity.getResource() : resource);
+    resolved.setClientId(identity.getClientId() != null ? identity.getClientId() : clientId);
+    return resolved;
+  }
+
+  /** HTTP stacks selectable with {@code vault.uami.http.transport}. */
+  public enum Transport {
+    /** Apache HttpClient 5 with blocking I/O. */
+    CLASSIC,
+    /** Apache HttpClient 5 on its non-blocking I/O reactor. */
+    ASYNC,
+    /** {@code java.net.http.HttpClient} with HTTP/2 and virtual threads. */
+    JDK
+  }
+
+  /** Connection pool and timeout settings of the HTTP client shared by all logins. */
+  public static class Http {
+
+    /** HTTP stack: Apache HttpClient 5 classic or async, or the JDK HttpClient. */
+    private Transport transport = Transport.CLASSIC;
+
+    /**
+     * Maximum number of pooled connections. Ignored by the {@code jdk} transport, which manages its
+     * own connections.
+     */
+    private int maxTotal = 20;
+
+    /** Maximum number of pooled connections per route (IMDS, Vault). Ignored by {@code jdk}. */
+    private int maxPerRoute = 10;
+
+    /** How long an idle connection is kept for reuse after a response. Ignored by {@code jdk}. */
+    private Duration keepAlive = Duration.ofSeconds(60);
+
+    /**
+     * Idle time after which the background evictor closes a pooled connection. Ignored by the
+     * {@code jdk} transport.
+     */
+    private Duration idleEviction = Duration.ofSeconds(30);
+
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration responseTimeout = Duration.ofSeconds(10);
+
+    /** Overall deadline of a non-blocking (reactive) login pipeline. */
+    private Duration loginTimeout = Duration.ofSeconds(30);
+
+    /** Whether TLS connections to Vault and IMDS are opened in the background during bootstrap. */
+    private boolean preConnect = false;
+
+    public Transport getTransport() {
+      return transport;
+    }
+
+    public void setTransport(Transport transport) {
+      this.transport = transport;
+    }
+
+    public int getMaxTotal() {
+      return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+      this.maxTotal = maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+      return maxPerRoute;
+    }
+
+    public void setMaxPerRoute(int maxPerRoute) {
+      this.maxPerRoute = maxPerRoute;
+    }
+
+    public Duration getKeepAlive() {
+      return keepAlive;
+    }
+
+    public void setKeepAlive(Duration keepAlive) {
+      this.keepAlive = keepAlive;
+    }
+
+    public Duration getIdleEviction() {
+      return idleEviction;
+    }
+
+    public void setIdleEviction(Duration idleEviction) {
+      this.idleEviction = idleEviction;
+    }
+
+    public Duration getConnectTimeout() {
+      return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+      this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getResponseTimeout() {
+      return responseTimeout;
+    }
+
+    public void setResponseTimeout(Duration responseTimeout) {
+      this.responseTimeout = responseTimeout;
+    }
+
+    public Duration getLoginTimeout() {
+      return loginTimeout;
+    }
+
+    public void setLoginTimeout(Duration loginTimeout) {
+      this.loginTimeout = loginTimeout;
+    }
+
+    public boolean isPreConnect() {
+      return preConnect;
+    }
+
+    public void setPreConnect(boolean preConnect) {
+      this.preConnect = preConnect;
+    }
+  }
+
+  /** Trust settings of the TLS context shared by every HTTP client. */
+  public static class Tls {
+
+    /** Trust store location ({@code classpath:} or file path); the JDK trust store if unset. */
+    private String trustStore;
+
+    private String trustStorePassword;
+
+    private String trustStoreType = "PKCS12";
+
+    /** Whether self-signed server certificates are trusted as well. */
+    private boolean trustSelfSigned = true;
+
+    public String getTrustStore() {
+      return trustStore;
+    }
+
+    public void setTrustStore(String trustStore) {
+      this.trustStore = trustStore;
+    }
+
+    public String getTrustStorePassword() {
+      return trustStorePassword;
+    }
+
+    public void setTrustStorePassword(String trustStorePassword) {
+      this.trustStorePassword = trustStorePassword;
+    }
+
+    public String getTrustStoreType() {
+      return trustStoreType;
+    }
+
+    public void setTrustStoreType(String trustStoreType) {
+      this.trustStoreType = trustStoreType;
+    }
+
+    public boolean isTrustSelfSigned() {
+      return trustSelfSigned;
+    }
+
+    public void setTrustSelfSigned(boolean trustSelfSigned) {
+      this.trustSelfSigned = trustSelfSigned;
+    }
+  }
+
+  /** Settings of the in-memory managed identity access token cache. */
+  public static class TokenCache {
+
+    /** Whether managed identity access tokens are cached between logins. */
+    private boolean enabled = true;
+
+    /** How long before expiry a cached access token is refreshed in the background. */
+    private Duration refreshAhead = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Duration getRefreshAhead() {
+      return refreshAhead;
+    }
+
+    public void setRefreshAhead(Duration refreshAhead) {
+      this.refreshAhead = refreshAhead;
+    }
+  }
+
+  /** Settings of the opt-in on-disk store used to reuse the Vault token across restarts. */
+  public static class TokenStore {
+
+    /** Whether the last Vault token is persisted and reused on restart. */
+    private boolean enabled = false;
+
+    /** Location of the encrypted token file. */
+    private String path = System.getProperty("user.home") + "/.vault-uami/token";
+
+    /** Minimum remaining TTL for a stored token to be reused. */
+    private Duration minTtl = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    public void setPath(String path) {
+      this.path = path;
+    }
+
+    public Duration getMinTtl() {
+      return minTtl;
+    }
+
+    public void setMinTtl(Duration minTtl) {
+      this.minTtl = minTtl;
+    }
+  }
+
+  /** Retries of IMDS and Vault login calls failing with 429, 5xx or an I/O error. */
+  public static class Retry {
+
+    /** Whether failed calls are retried. */
+    private boolean enabled = true;
+
+    /** Attempts per call, including the first. */
+    private int maxAttempts = 4;
+
+    /** Lower bound of the decorrelated-jitter backoff. */
+    private Duration initialBackoff = Duration.ofMillis(200);
+
+    /** Upper bound of the decorrelated-jitter backoff. */
+    private Duration maxBackoff = Duration.ofSeconds(10);
+
+    /** Overall time budget of one login, across IMDS, Vault and all retries. */
+    private Duration deadline = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getMaxAttempts() {
+      return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+      this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+      return initialBackoff;
+    }
+
+    public void setInitialBackoff(Duration initialBackoff) {
+      this.initialBackoff = initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+      return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+      this.maxBackoff = maxBackoff;
+    }
+
+    public Duration getDeadline() {
+      return deadline;
+    }
+
+    public void setDeadline(Duration deadline) {
+      this.deadline = deadline;
+    }
+  }
+
+  /** Circuit breakers in front of the IMDS and Vault login endpoints. */
+  public static class CircuitBreaker {
+
+    /** Whether calls fail fast while an endpoint keeps failing. */
+    private boolean enabled = true;
+
+    /** Consecutive 429, 5xx or I/O failures that open the breaker. */
+    private int failureThreshold = 5;
+
+    /** How long an open breaker fails fast before letting a trial call through. */
+    private Duration openDuration = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getFailureThreshold() {
+      return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+      this.failureThreshold = failureThreshold;
+    }
+
+    public Duration getOpenDuration() {
+      return openDuration;
+    }
+
+    public void setOpenDuration(Duration openDuration) {
+      this.openDuration = openDuration;
+    }
+  }
+
+  /** Settings of the in-memory cache of Vault secret reads. */
+  public static class SecretCache {
+
+    /** Whether the {@code vaultUamiSecretCache} bean is registered. */
+    private boolean enabled = true;
+
+    /** Maximum number of cached secrets. */
+    private int maxSize = 1000;
+
+    /** Lifetime of secrets that carry neither a lease nor a KV {@code ttl} custom metadata. */
+    private Duration defaultTtl = Duration.ofMinutes(5);
+
+    /** How long before expiry a cached secret is reloaded in the background. */
+    private Duration refreshAhead = Duration.ofMinutes(1);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+      return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+      this.maxSize = maxSize;
+    }
+
+    public Duration getDefaultTtl() {
+      return defaultTtl;
+    }
+
+    public void setDefaultTtl(Duration defaultTtl) {
+      this.defaultTtl = defaultTtl;
+    }
+
+    public Duration getRefreshAhead() {
+      return refreshAhead;
+    }
+
+    public void setRefreshAhead(Duration refreshAhead) {
+      this.refreshAhead = refreshAhead;
+    }
+  }
+
+  /** Settings of the concurrent bulk secret fetch behind {@code vault-bulk:} imports. */
+  public static class BulkFetch {
+
+    /** Maximum number of secret reads in flight. */
+    private int maxConcurrency = 16;
+
+    /** How long a single secret read may take once started. */
+    private Duration pathTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Whether imported secrets are kept current: only paths whose KV v2 version changed, or whose
+     * lease ran out, are read again, and only beans bound to changed keys are rebound.
+     */
+    private boolean refresh = false;
+
+    /** How often the KV v2 metadata of imported paths is checked. */
+    private Duration refreshInterval = Duration.ofMinutes(1);
+
+    public int getMaxConcurrency() {
+      return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+      this.maxConcurrency = maxConcurrency;
+    }
+
+    public Duration getPathTimeout() {
+      return pathTimeout;
+    }
+
+    public void setPathTimeout(Duration pathTimeout) {
+      this.pathTimeout = pathTimeout;
+    }
+
+    public boolean isRefresh() {
+      return refresh;
+    }
+
+    public void setRefresh(boolean refresh) {
+      this.refresh = refresh;
+    }
+
+    public Duration getRefreshInterval() {
+      return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+      this.refreshInterval = refreshInterval;
+    }
+  }
+
+  /** Secrets of {@code vault-lazy:} imports, read on first access of one of their keys. */
+  public static class LazyImport {
+
+    /** How long read secrets are served before the next access reads them again. */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    public Duration getTtl() {
+      return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+      this.ttl = ttl;
+    }
+  }
+
+  /**
+   * Background renewal of the leases of dynamic secrets read through the {@code
+   * LeaseRenewalScheduler} bean.
+   */
+  public static class Leases {
+
+    /** Whether the scheduler is started. */
+    private boolean enabled = false;
+
+    /** Granularity of the renewal timer; leases due within one tick are renewed as one batch. */
+    private Duration tick = Duration.ofSeconds(1);
+
+    /** Number of ticks in the timer wheel. */
+    private int wheelSize = 512;
+
+    /** Largest share of the renewal delay a lease is brought forward by, spreading renewals. */
+    private double jitter = 0.1;
+
+    /** Maximum number of renewals in flight. */
+    private int maxConcurrency = 8;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Duration getTick() {
+      return tick;
+    }
+
+    public void setTick(Duration tick) {
+      this.tick = tick;
+    }
+
+    public int getWheelSize() {
+      return wheelSize;
+    }
+
+    public void setWheelSize(int wheelSize) {
+      this.wheelSize = wheelSize;
+    }
+
+    public double getJitter() {
+      return jitter;
+    }
+
+    public void setJitter(double jitter) {
+      this.jitter = jitter;
+    }
+
+    public int getMaxConcurrency() {
+      return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+      this.maxConcurrency = maxConcurrency;
+    }
+  }
+
+  /**
+   * Node-local sharing of one Vault token between JVMs running under the same managed identity: a
+   * server process logs in and serves its token over a Unix domain socket, clients read it from
+   * there.
+   */
+  public static class Broker {
+
+    /** Role of this process in token sharing. */
+    public enum Mode {
+      /** Every process logs in on its own. */
+      OFF,
+      /** Logs in and serves its token to the clients on this host. */
+      SERVER,
+      /** Takes the token from the server, logging in itself only when it is unavailable. */
+      CLIENT
+    }
+
+    private Mode mode = Mode.OFF;
+
+    /** Unix domain socket of the broker; at most about 100 characters long on Linux. */
+    private String socket = System.getProperty("user.home") + "/.vault-uami/broker.sock";
+
+    /** How long a client waits for the broker before logging in itself. */
+    private Duration timeout = Duration.ofSeconds(1);
+
+    /** Remaining TTL below which the server renews the served token for the next request. */
+    private Duration refreshAhead = Duration.ofMinutes(5);
+
+    /** Minimum remaining TTL of a brokered token; a client logs in itself below it. */
+    private Duration minTtl = Duration.ofMinutes(1);
+
+    public Mode getMode() {
+      return mode;
+    }
+
+    public void setMode(Mode mode) {
+      this.mode = mode;
+    }
+
+    public String getSocket() {
+      return socket;
+    }
+
+    public void setSocket(String socket) {
+      this.socket = socket;
+    }
+
+    public Duration getTimeout() {
+      return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+      this.timeout = timeout;
+    }
+
+    public Duration getRefreshAhead() {
+      return refreshAhead;
+    }
+
+    public void setRefreshAhead(Duration refreshAhead) {
+      this.refreshAhead = refreshAhead;
+    }
+
+    public Duration getMinTtl() {
+      return minTtl;
+    }
+
+    public void setMinTtl(Duration minTtl) {
+      this.minTtl = minTtl;
+    }
+  }
+
+  /**
+   * Read routing across the active Vault node ({@code vault.uami.uri}) and its performance standbys
+   * or replicas. Disabled while no replica is configured.
+   */
+  public static class Routing {
+
+    /** Performance standby or replica addresses that may serve reads. */
+    private List<String> replicas = new ArrayList<>();
+
+    /** Delay between two rounds of {@code sys/health} probes. */
+    private Duration probeInterval = Duration.ofSeconds(10);
+
+    /** Consecutive failed probes after which a node stops receiving reads. */
+    private int failureThreshold = 3;
+
+    public List<String> getReplicas() {
+      return replicas;
+    }
+
+    public void setReplicas(List<String> replicas) {
+      this.replicas = replicas;
+    }
+
+    public Duration getProbeInterval() {
+      return probeInterval;
+    }
+
+    public void setProbeInterval(Duration probeInterval) {
+      this.probeInterval = probeInterval;
+    }
+
+    public int getFailureThreshold() {
+      return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+      this.failureThreshold = failureThreshold;
+    }
+  }
+
+  /** The {@code vaultUami} health indicator, reporting from in-memory session state. */
+  public static class Health {
+
+    /** Whether the {@code vaultUamiHealthIndicator} bean is registered. */
+    private boolean enabled = true;
+
+    /** How often the reported state is rebuilt in the background. */
+    private Duration refreshInterval = Duration.ofSeconds(10);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Duration getRefreshInterval() {
+      return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+      this.refreshInterval = refreshInterval;
+    }
+  }
+
+  /**
+   * A named Vault identity: a Vault namespace and role logged in with a managed identity. Unset
+   * fields fall back to the top-level settings.
+   */
+  public static class Identity {
+
+    /** Vault address. */
+    private String uri;
+
+    /** Vault Enterprise namespace. */
+    private String namespace;
+
+    /** Vault Azure auth role. */
+    private String role;
+
+    /** Entra ID resource the access token is requested for. */
+    private String resource;
+
+    /** Client id of the user assigned managed identity. */
+    private String clientId;
+
+    public String getUri() {
+      return uri;
+    }
+
+    public void setUri(String uri) {
+      this.uri = uri;
+    }
+
+    public String getNamespace() {
+      return namespace;
+    }
+
+    public void setNamespace(String namespace) {
+      this.namespace = namespace;
+    }
+
+    public String getRole() {
+      return role;
+    }
+
+    public void setRole(String role) {
+      this.role = role;
+    }
+
+    public String getResource() {
+      return resource;
+    }
+
+    public void setResource(String resource) {
+      this.resource = resource;
+    }
+
+    public String getClientId() {
+      return clientId;
+    }
+
+    public void setClientId(String clientId) {
+      this.clientId = clientId;
+    }
+  }
 }
@@ -1,27 +1,63 @@
 package com.example.vault.configuration;
 
+import com.example.vault.broker.TokenBrokerAuthentication;
+import com.example.vault.broker.TokenBrokerServer;
 import com.example.vault.delegate.VaultUamiAuthentication;
+import com.example.vault.delegate.VaultUamiTokenManager;
+import com.example.vault.diagnostics.StartupTimeline;
+import com.example.vault.service.AuthResilience;
+import com.example.vault.service.BulkSecretFetcher;
+import com.example.vault.service.LeaseRenewalScheduler;
+import com.example.vault.service.ManagedIdentityTokenCache;
+import com.example.vault.service.PersistentTokenStore;
+import com.example.vault.service.SecretCache;
+import com.example.vault.service.UamiAuthMetrics;
 import com.example.vault.service.UamiAuthService;
-import java.io.InputStream;
+import com.example.vault.service.VaultEndpointRouter;
+import com.example.vault.transport.HttpTransport;
+import com.example.vault.transport.TlsContexts;
+import io.micrometer.core.instrument.Metrics;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
-import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
-import org.apache.hc.client5.http.ssl.TrustSelfSignedStrategy;
-import org.apache.hc.core5.ssl.SSLContexts;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.net.ssl.SSLContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.DefaultSingletonBeanRegistry;
+import org.springframework.boot.BootstrapContext;
+import org.springframework.boot.BootstrapContextClosedEvent;
 import org.springframework.boot.BootstrapRegistry;
 import org.springframework.boot.BootstrapRegistry.InstanceSupplier;
 import org.springframework.boot.BootstrapRegistryInitializer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.ResourceUtils;
 import org.springframework.vault.authentication.ClientAuthentication;
+import org.springframework.vault.authentication.LifecycleAwareSessionManager;
+import org.springframework.vault.authentication.SessionManager;
 import org.springframework.vault.client.RestTemplateBuilder;
+import org.springframework.vault.client.SimpleVaultEndpointProvider;
 import org.springframework.vault.client.VaultEndpoint;
 import org.springframework.vault.config.AbstractVaultConfiguration.ClientFactoryWrapper;
-import org.yaml.snakeyaml.Yaml;
+import org.springframework.vault.core.VaultTemplate;
 
 /** Registers UAMI Vault authentication and HTTP client configuration. */
 @Configuration
@@ -30,81 +66,592 @@ public class VaultUamiAuthenticationConfiguration implements BootstrapRegistryIn
   private static final Logger logger =
       LoggerFactory.getLogger(VaultUamiAuthenticationConfiguration.class);
 
+  /** Runs the optional pre-connect off the bootstrap thread. */
+  private static final Executor BOOTSTRAP_EXECUTOR =
+      task -> Thread.ofVirtual().name("vault-uami-bootstrap").start(task);
+
+  /** TLS context and transport whose connections were opened during bootstrap. */
+  private record PreConnected(SSLContext sslContext, HttpTransport transport) {}
+
+  /** The renewing UAMI session used when Spring Cloud Vault registers none. */
+  private record FallbackSession(
+      LifecycleAwareSessionManager sessionManager, ThreadPoolTaskScheduler scheduler) {
+
+    /** Revokes the token and stops renewing it. */
+    void close() {
+      try {
+        sessionManager.destroy();
+      } catch (Exception e) {
+        logger.warn("Failed to close vault UAMI session: {}", e.getMessage());
+      }
+      scheduler.shutdown();
+    }
+  }
+
   /** Registers beans for Vault UAMI authentication. */
   @Override
   public void initialize(BootstrapRegistry registry) {
-    String profile = System.getenv("SPRING_PROFILES_ACTIVE");
-    profile = (profile == null) ? System.getProperty("spring.profiles.active", "") : profile;
-
-    String finalProfile = profile;
+    StartupTimeline.get().start();
+    AtomicReference<CompletableFuture<PreConnected>> preConnected =
+        new AtomicReference<>(CompletableFuture.completedFuture(null));
+    registry.register(
+        VaultUamiAuthProperties.class,
+        context -> {
+          VaultUamiAuthProperties props = bindProperties(context);
+          if (props.getHttp().isPreConnect()) {
+            preConnected.set(
+                CompletableFuture.supplyAsync(() -> preConnect(props), BOOTSTRAP_EXECUTOR));
+          }
+          return props;
+        });
+    registry.register(SSLContext.class, getSslContext(preConnected));
     registry.register(
-        VaultUamiAuthProperties.class, context -> getVaultUamiAuthProperties(finalProfile));
-    registry.register(ClientFactoryWrapper.class, getClientFactoryWrapper());
+        UamiAuthMetrics.class, context -> new UamiAuthMetrics(Metrics.globalRegistry));
+    AtomicReference<HttpTransport> sessionTransport = new AtomicReference<>();
+    registry.register(ClientFactoryWrapper.class, getClientFactoryWrapper(sessionTransport));
+    AtomicReference<FallbackSession> fallbackSession = new AtomicReference<>();
+    registry.register(FallbackSession.class, getFallbackSession(fallbackSession));
     registry.register(RestTemplateBuilder.class, getRestTemplateBuilder());
+    registry.register(HttpTransport.class, getHttpTransport(preConnected));
+    registry.register(ManagedIdentityTokenCache.class, getManagedIdentityTokenCache());
     registry.register(
-        ClientAuthentication.class,
-        ctx ->
-            new VaultUamiAuthentication(
-                new UamiAuthService(
-                    ctx.get(VaultUamiAuthProperties.class).getUri(),
-                    ctx.get(VaultUamiAuthProperties.class).getNamespace(),
-                    ctx.get(VaultUamiAuthProperties.class).getRole(),
-                    ctx.get(VaultUamiAuthProperties.class).getResource(),
-                    ctx.get(VaultUamiAuthProperties.class).getClientId())));
-    logger.info(
-        "In profile - {} : VaultUamiAuthentication registered in BootstrapRegistry", finalProfile);
-  }
-
-  /** Supplies VaultUamiAuthProperties after parsing and binding profile-specific Yml */
-  private VaultUamiAuthProperties getVaultUamiAuthProperties(String finalProfile) {
-    String appYmlWithProfile = "application-" + finalProfile + ".yml";
-    ClassPathResource resource = new ClassPathResource(appYmlWithProfile);
-    try (InputStream in = resource.getInputStream()) {
-      Yaml yaml = new Yaml();
-      Map<String, Object> yamlMap = yaml.load(in);
-      Map<String, Object> vaultMap = (Map<String, Object>) yamlMap.get("vault");
-      if (vaultMap == null || !(vaultMap.get("uami") instanceof Map)) {
-        throw new IllegalStateException("Missing 'vault.uami' section in " + appYmlWithProfile);
+        AuthResilience.class,
+        context -> VaultUamiResilience.create(context.get(VaultUamiAuthProperties.class)));
+    registry.register(UamiAuthService.class, getUamiAuthService());
+    registry.register(ClientAuthentication.class, getClientAuthentication());
+    registry.register(VaultUamiTokenManager.class, getVaultUamiTokenManager());
+    registry.register(SecretCache.class, getSecretCache());
+    registry.register(BulkSecretFetcher.class, getBulkSecretFetcher());
+    registry.register(VaultBulkImports.class, context -> new VaultBulkImports());
+    registry.register(VaultEndpointRouter.class, getVaultEndpointRouter());
+    registry.register(LeaseRenewalScheduler.class, getLeaseRenewalScheduler());
+    if (ReactiveVaultUamiRegistrar.isReactivePresent(getClass().getClassLoader())) {
+      ReactiveVaultUamiRegistrar.register(registry);
+    }
+    registry.addCloseListener(
+        event -> onBootstrapContextClosed(event, sessionTransport.get(), fallbackSession));
+    logger.info("VaultUamiAuthentication registered in BootstrapRegistry");
+  }
+
+  /**
+   * Binds {@code vault.uami.*} with relaxed names through the Binder Spring Boot registers while it
+   * loads the application configuration, so it sees {@code application.yml}, profile documents,
+   * environment variables and system properties. Outside of config data loading, only environment
+   * variables and system properties are bound.
+   */
+  private static VaultUamiAuthProperties bindProperties(BootstrapContext context) {
+    try (StartupTimeline.Span phase = StartupTimeline.get().phase("bind-properties")) {
+      Binder binder =
+          context.isRegistered(Binder.class)
+              ? context.get(Binder.class)
+              : Binder.get(new StandardEnvironment());
+      VaultUamiAuthProperties props =
+          binder
+              .bind("vault.uami", VaultUamiAuthProperties.class)
+              .orElseGet(VaultUamiAuthProperties::new);
+      if (props.getUri() == null || props.getUri().isBlank()) {
+        throw new IllegalStateException("Missing 'vault.uami.uri' property");
       }
-      Map<String, Object> uamiMap = (Map<String, Object>) vaultMap.get("uami");
-      VaultUamiAuthProperties props = new VaultUamiAuthProperties();
-      props.setUri(uamiMap.get("uri").toString());
-      props.setNamespace(uamiMap.get("namespace").toString());
-      props.setClientId(uamiMap.get("client-id").toString());
-      props.setResource(uamiMap.get("resource").toString());
-      props.setRole(uamiMap.get("role").toString());
       return props;
-    } catch (Exception e) {
-      throw new RuntimeException(e);
     }
   }
 
-  /** Supplies a RestTemplateBuilder with Vault endpoint and namespace. */
-  private InstanceSupplier<RestTemplateBuilder> getRestTemplateBuilder() {
-    return context ->
-        RestTemplateBuilder.builder()
-            .requestFactory(context.get(ClientFactoryWrapper.class).getClientHttpRequestFactory())
-            .endpointProvider(() -> VaultEndpoint.from("vault.uami.uri"))
-            .defaultHeader("X-Vault-Namespace", "vault.uami.namespace");
+  /**
+   * Builds the TLS context and the transport and opens connections to Vault and IMDS. Started in
+   * the background as soon as the properties are bound, so the handshakes overlap the rest of the
+   * bootstrap and the IMDS call of the first login.
+   */
+  private PreConnected preConnect(VaultUamiAuthProperties props) {
+    long start = System.nanoTime();
+    SSLContext sslContext = createSslContext(props.getTls());
+    HttpTransport transport =
+        VaultUamiHttpTransports.create(props.getHttp(), sslContext, Metrics.globalRegistry);
+    try (StartupTimeline.Span phase = StartupTimeline.get().phase("pre-connect")) {
+      VaultUamiPreConnect.warmUp(transport, props.getUri(), System.getenv("IDENTITY_ENDPOINT"));
+    }
+    logger.info(
+        "Pre-connected to Vault and IMDS in {}ms.",
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    return new PreConnected(sslContext, transport);
   }
 
-  /** Supplies a ClientFactoryWrapper with custom SSL configuration. */
-  private InstanceSupplier<ClientFactoryWrapper> getClientFactoryWrapper() {
-    DefaultClientTlsStrategy tlsStrategy;
+  /** Supplies the single TLS context of the login and session transports, built on first use. */
+  private InstanceSupplier<SSLContext> getSslContext(
+      AtomicReference<CompletableFuture<PreConnected>> preConnected) {
+    return context -> {
+      VaultUamiAuthProperties props = context.get(VaultUamiAuthProperties.class);
+      PreConnected connected = join(preConnected.get());
+      return connected != null ? connected.sslContext() : createSslContext(props.getTls());
+    };
+  }
+
+  private static SSLContext createSslContext(VaultUamiAuthProperties.Tls tls) {
+    URL trustStore;
     try {
-      tlsStrategy =
-          new DefaultClientTlsStrategy(
-              SSLContexts.custom().loadTrustMaterial(TrustSelfSignedStrategy.INSTANCE).build());
+      trustStore = tls.getTrustStore() == null ? null : ResourceUtils.getURL(tls.getTrustStore());
     } catch (Exception e) {
-      logger.error("Failed to create TLS strategy: {}", e.getMessage());
-      throw new RuntimeException(e);
-    }
-    var connectionManager =
-        PoolingHttpClientConnectionManagerBuilder.create()
-            .setTlsSocketStrategy(tlsStrategy)
-            .build();
-    var httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
-    return context ->
-        new ClientFactoryWrapper(new HttpComponentsClientHttpRequestFactory(httpClient));
+      throw new IllegalStateException("Trust store not found: " + tls.getTrustStore(), e);
+    }
+    try (StartupTimeline.Span phase = StartupTimeline.get().phase("tls-context")) {
+      return TlsContexts.create(
+          trustStore,
+          tls.getTrustStoreType(),
+          tls.getTrustStorePassword() == null ? null : tls.getTrustStorePassword().toCharArray(),
+          tls.isTrustSelfSigned());
+    }
+  }
+
+  /** Supplies the HTTP transport shared by every identity, pre-connected if enabled. */
+  private InstanceSupplier<HttpTransport> getHttpTransport(
+      AtomicReference<CompletableFuture<PreConnected>> preConnected) {
+    return context -> {
+      VaultUamiAuthProperties props = context.get(VaultUamiAuthProperties.class);
+      PreConnected connected = join(preConnected.get());
+      return connected != null
+          ? connected.transport()
+          : VaultUamiHttpTransports.create(
+              props.getHttp(), context.get(SSLContext.class), Metrics.globalRegistry);
+    };
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /** Supplies the managed identity access token cache shared by all logins. */
+  private InstanceSupplier<ManagedIdentityTokenCache> getManagedIdentityTokenCache() {
+    return context -> {
+      ManagedIdentityTokenCache cache =
+          new ManagedIdentityTokenCache(
+              context.get(VaultUamiAuthProperties.class).getTokenCache().getRefreshAhead());
+      context.get(UamiAuthMetrics.class).bindTokenCache(cache);
+      return cache;
+    };
+  }
+
+  /**
+   * Supplies the UamiAuthService backed by an HTTP transport shared across logins. With replicas
+   * configured, it logs in to the active node of the endpoint router.
+   */
+  private InstanceSupplier<UamiAuthService> getUamiAuthService() {
+    return context -> {
+      VaultUamiAuthProperties props = context.get(VaultUamiAuthProperties.class);
+      return new UamiAuthService(
+          props.getRouting().getReplicas().isEmpty()
+              ? SimpleVaultEndpointProvider.of(VaultEndpoint.from(URI.create(props.getUri())))
+              : context.get(VaultEndpointRouter.class),
+          props.getNamespace(),
+          props.getRole(),
+          props.getResource(),
+          props.getClientId(),
+          context.get(HttpTransport.class),
+          props.getTokenCache().isEnabled()
+              ? context.get(ManagedIdentityTokenCache.class)
+              : null,
+          context.get(UamiAuthMetrics.class),
+          context.get(AuthResilience.class));
+    };
+  }
+
+  /**
+   * Supplies the UAMI ClientAuthentication, with the persistent token store when enabled. In broker
+   * client mode the token is taken from the broker, with the UAMI login as the fallback.
+   */
+  private InstanceSupplier<ClientAuthentication> getClientAuthentication() {
+    return context -> {
+      VaultUamiAuthProperties props = context.get(VaultUamiAuthProperties.class);
+      VaultUamiAuthProperties.Broker broker = props.getBroker();
+      ClientAuthentication authentication = createUamiAuthentication(context, props);
+      if (broker.getMode() != VaultUamiAuthProperties.Broker.Mode.CLIENT) {
+        return authentication;
+      }
+      return new TokenBrokerAuthentication(
+          Path.of(broker.getSocket()), broker.getTimeout(), broker.getMinTtl(), authentication);
+    };
+  }
+
+  private static VaultUamiAuthentication createUamiAuthentication(
+      BootstrapContext context, VaultUamiAuthProperties props) {
+    VaultUamiAuthProperties.TokenStore tokenStore = props.getTokenStore();
+    UamiAuthMetrics metrics = context.get(UamiAuthMetrics.class);
+    if (!tokenStore.isEnabled()) {
+      return new VaultUamiAuthentication(
+          context.get(UamiAuthService.class), null, Duration.ZERO, metrics);
+    }
+    return new VaultUamiAuthentication(
+        context.get(UamiAuthService.class),
+        new PersistentTokenStore(
+            Path.of(tokenStore.getPath()),
+            props.getClientId(),
+            props.getResource(),
+            props.getRole(),
+            props.getUri()),
+        tokenStore.getMinTtl(),
+        metrics);
+  }
+
+  /** Supplies the token manager of the named 'vault.uami.identities'. */
+  private InstanceSupplier<VaultUamiTokenManager> getVaultUamiTokenManager() {
+    return context -> {
+      VaultUamiAuthProperties props = context.get(VaultUamiAuthProperties.class);
+      return new VaultUamiTokenManager(
+          props,
+          context.get(HttpTransport.class),
+          props.getTokenCache().isEnabled()
+              ? context.get(ManagedIdentityTokenCache.class)
+              : null,
+          Metrics.globalRegistry);
+    };
+  }
+
+  /** Supplies the cache of Vault secret reads exposed as the {@code vaultUamiSecretCache} bean. */
+  private InstanceSupplier<SecretCache> getSecretCache() {
+    return context -> {
+      VaultUamiAuthProperties.SecretCache settings =
+          context.get(VaultUamiAuthProperties.class).getSecretCache();
+      SecretCache cache =
+          new SecretCache(
+              settings.getMaxSize(), settings.getDefaultTtl(), settings.getRefreshAhead());
+      context.get(UamiAuthMetrics.class).bindSecretCache(cache);
+      return cache;
+    };
+  }
+
+  /**
+   * Supplies the bulk secret fetcher used by {@code vault-bulk:} imports. Its reads share the Vault
+   * session of Spring Cloud Vault when one is already registered, else one logged in with the UAMI
+   * ClientAuthentication, so a bulk fetch costs at most one login.
+   */
+  private InstanceSupplier<BulkSecretFetcher> getBulkSecretFetcher() {
+    return context -> {
+      VaultUamiAuthProperties props = context.get(VaultUamiAuthProperties.class);
+      return new BulkSecretFetcher(
+          new VaultTemplate(
+              vaultRestTemplateBuilder(context, context.get(HttpTransport.class).requestFactory()),
+              sessionManager(context)),
+          props.getBulkFetch().getMaxConcurrency(),
+          props.getBulkFetch().getPathTimeout());
+    };
+  }
+
+  /**
+   * Supplies the renewal scheduler of dynamic secret leases. Its renewals and reissues share the
+   * Vault session of the bulk secret fetcher.
+   */
+  private InstanceSupplier<LeaseRenewalScheduler> getLeaseRenewalScheduler() {
+    return context -> {
+      VaultUamiAuthProperties.Leases leases =
+          context.get(VaultUamiAuthProperties.class).getLeases();
+      LeaseRenewalScheduler scheduler =
+          new LeaseRenewalScheduler(
+              context.get(BulkSecretFetcher.class).getOperations(),
+              leases.getTick(),
+              leases.getWheelSize(),
+              leases.getJitter(),
+              leases.getMaxConcurrency());
+      context.get(UamiAuthMetrics.class).bindLeaseScheduler(scheduler);
+      return scheduler;
+    };
+  }
+
+  /**
+   * The Vault session of Spring Cloud Vault when one is registered, else one renewing session
+   * logged in with the UAMI ClientAuthentication.
+   */
+  private static SessionManager sessionManager(BootstrapContext context) {
+    return context.isRegistered(SessionManager.class)
+        ? context.get(SessionManager.class)
+        : context.get(FallbackSession.class).sessionManager();
+  }
+
+  /**
+   * Supplies the fallback session, renewing its token on its own scheduler over the session
+   * transport. Kept in {@code created} so that it is closed only if it was ever used.
+   */
+  private InstanceSupplier<FallbackSession> getFallbackSession(
+      AtomicReference<FallbackSession> created) {
+    return context -> {
+      ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+      scheduler.setPoolSize(1);
+      scheduler.setDaemon(true);
+      scheduler.setThreadNamePrefix("vault-uami-session-");
+      scheduler.initialize();
+      FallbackSession session =
+          new FallbackSession(
+              new LifecycleAwareSessionManager(
+                  context.get(ClientAuthentication.class),
+                  scheduler,
+                  context.get(RestTemplateBuilder.class).build()),
+              scheduler);
+      created.set(session);
+      return session;
+    };
+  }
+
+  /**
+   * Supplies the router of reads across the active node and {@code routing.replicas}, probing from
+   * the moment it is first requested.
+   */
+  private InstanceSupplier<VaultEndpointRouter> getVaultEndpointRouter() {
+    return context -> {
+      VaultUamiAuthProperties props = context.get(VaultUamiAuthProperties.class);
+      List<String> endpoints = new ArrayList<>();
+      endpoints.add(props.getUri());
+      endpoints.addAll(props.getRouting().getReplicas());
+      VaultEndpointRouter router =
+          new VaultEndpointRouter(
+              endpoints,
+              context.get(HttpTransport.class).requestFactory(),
+              props.getRouting().getProbeInterval(),
+              props.getRouting().getFailureThreshold());
+      context.get(UamiAuthMetrics.class).bindEndpointRouter(router);
+      return router.start();
+    };
+  }
+
+  /**
+   * A RestTemplateBuilder for the configured Vault address and namespace. With replicas configured,
+   * the active node is followed across failovers and reads go to the fastest healthy node.
+   */
+  private static RestTemplateBuilder vaultRestTemplateBuilder(
+      BootstrapContext context, ClientHttpRequestFactory requestFactory) {
+    VaultUamiAuthProperties props = context.get(VaultUamiAuthProperties.class);
+    RestTemplateBuilder builder = RestTemplateBuilder.builder().requestFactory(requestFactory);
+    if (props.getRouting().getReplicas().isEmpty()) {
+      builder = builder.endpoint(VaultEndpoint.from(URI.create(props.getUri())));
+    } else {
+      VaultEndpointRouter router = context.get(VaultEndpointRouter.class);
+      builder =
+          builder
+              .endpointProvider(router)
+              .customizers(
+                  restTemplate ->
+                      restTemplate.getInterceptors().add(new ReadRoutingInterceptor(router)));
+    }
+    if (props.getNamespace() != null && !props.getNamespace().isBlank()) {
+      builder = builder.defaultHeader("X-Vault-Namespace", props.getNamespace());
+    }
+    return builder;
+  }
+
+  /**
+   * Exposes the bootstrap services as application beans and closes them, newest first, when the
+   * application context closes. Logs the startup timeline once the application is ready.
+   */
+  private void onBootstrapContextClosed(
+      BootstrapContextClosedEvent event,
+      HttpTransport sessionTransport,
+      AtomicReference<FallbackSession> fallbackSession) {
+    BootstrapContext context = event.getBootstrapContext();
+    ConfigurableApplicationContext applicationContext = event.getApplicationContext();
+    Deque<Runnable> closeHooks = new ArrayDeque<>();
+    registerSessionTransport(applicationContext, sessionTransport);
+    registerSecretCache(context, applicationContext, closeHooks);
+    closeHooks.push(context.get(ManagedIdentityTokenCache.class)::close);
+    // Kept for session renewals; everything below stops while its login pool is still open.
+    closeHooks.push(context.get(UamiAuthService.class)::close);
+    // The fallback session outlives the broker, lease scheduler and bulk refresh below.
+    closeHooks.push(
+        () -> {
+          FallbackSession session = fallbackSession.get();
+          if (session != null) {
+            session.close();
+          }
+        });
+    registerTokenManager(context, applicationContext, closeHooks);
+    registerHealthIndicator(context, applicationContext, closeHooks);
+    registerEndpointRouter(context, applicationContext, closeHooks);
+    startBrokerServer(context, closeHooks);
+    registerLeaseScheduler(context, applicationContext, closeHooks);
+    registerBulkRefresh(context, applicationContext, closeHooks);
+    applicationContext.addApplicationListener(
+        applicationEvent -> {
+          if (applicationEvent instanceof ApplicationReadyEvent ready
+              && ready.getApplicationContext() == applicationContext) {
+            logger.info(StartupTimeline.get().report());
+          }
+          if (applicationEvent instanceof ContextClosedEvent closed
+              && closed.getApplicationContext() == applicationContext) {
+            closeHooks.forEach(Runnable::run);
+          }
+        });
+  }
+
+  /**
+   * Closes the session transport with the beans rather than on ContextClosedEvent: the session
+   * manager, created after this registration and so destroyed before it, revokes its token through
+   * this transport.
+   */
+  private static void registerSessionTransport(
+      ConfigurableApplicationContext applicationContext, HttpTransport sessionTransport) {
+    if (sessionTransport != null
+        && applicationContext.getBeanFactory() instanceof DefaultSingletonBeanRegistry beans) {
+      beans.registerDisposableBean("vaultUamiSessionTransport", sessionTransport::close);
+    }
+  }
+
+  /** Exposes the secret cache, when enabled, as the {@code vaultUamiSecretCache} bean. */
+  private static void registerSecretCache(
+      BootstrapContext context,
+      ConfigurableApplicationContext applicationContext,
+      Deque<Runnable> closeHooks) {
+    if (!context.get(VaultUamiAuthProperties.class).getSecretCache().isEnabled()) {
+      return;
+    }
+    SecretCache secretCache = context.get(SecretCache.class);
+    applicationContext.getBeanFactory().registerSingleton("vaultUamiSecretCache", secretCache);
+    closeHooks.push(secretCache::close);
+  }
+
+  /** Exposes the token manager of named identities as the {@code vaultUamiTokenManager} bean. */
+  private static void registerTokenManager(
+      BootstrapContext context,
+      ConfigurableApplicationContext applicationContext,
+      Deque<Runnable> closeHooks) {
+    if (context.get(VaultUamiAuthProperties.class).getIdentities().isEmpty()) {
+      return;
+    }
+    VaultUamiTokenManager tokenManager = context.get(VaultUamiTokenManager.class);
+    applicationContext.getBeanFactory().registerSingleton("vaultUamiTokenManager", tokenManager);
+    closeHooks.push(tokenManager::close);
+  }
+
+  /** Starts the in-memory health indicator as the {@code vaultUamiHealthIndicator} bean. */
+  private static void registerHealthIndicator(
+      BootstrapContext context,
+      ConfigurableApplicationContext applicationContext,
+      Deque<Runnable> closeHooks) {
+    VaultUamiAuthProperties.Health health = context.get(VaultUamiAuthProperties.class).getHealth();
+    if (!health.isEnabled()) {
+      return;
+    }
+    VaultUamiHealthIndicator healthIndicator =
+        new VaultUamiHealthIndicator(
+                context.get(UamiAuthMetrics.class),
+                context.get(AuthResilience.class),
+                context.get(HttpTransport.class))
+            .start(health.getRefreshInterval());
+    applicationContext
+        .getBeanFactory()
+        .registerSingleton("vaultUamiHealthIndicator", healthIndicator);
+    closeHooks.push(healthIndicator::close);
+  }
+
+  /** Exposes the endpoint router, with replicas configured, as a bean. */
+  private static void registerEndpointRouter(
+      BootstrapContext context,
+      ConfigurableApplicationContext applicationContext,
+      Deque<Runnable> closeHooks) {
+    if (context.get(VaultUamiAuthProperties.class).getRouting().getReplicas().isEmpty()) {
+      return;
+    }
+    VaultEndpointRouter router = context.get(VaultEndpointRouter.class);
+    applicationContext.getBeanFactory().registerSingleton("vaultUamiEndpointRouter", router);
+    closeHooks.push(router::close);
+  }
+
+  /** Starts the token broker in broker server mode. */
+  private static void startBrokerServer(BootstrapContext context, Deque<Runnable> closeHooks) {
+    VaultUamiAuthProperties.Broker broker = context.get(VaultUamiAuthProperties.class).getBroker();
+    if (broker.getMode() != VaultUamiAuthProperties.Broker.Mode.SERVER) {
+      return;
+    }
+    TokenBrokerServer brokerServer =
+        new TokenBrokerServer(
+                Path.of(broker.getSocket()),
+                sessionManager(context),
+                context.get(RestTemplateBuilder.class).build(),
+                broker.getRefreshAhead())
+            .start();
+    closeHooks.push(brokerServer::close);
+  }
+
+  /** Starts the lease renewal scheduler as the {@code vaultUamiLeaseRenewalScheduler} bean. */
+  private static void registerLeaseScheduler(
+      BootstrapContext context,
+      ConfigurableApplicationContext applicationContext,
+      Deque<Runnable> closeHooks) {
+    if (!context.get(VaultUamiAuthProperties.class).getLeases().isEnabled()) {
+      return;
+    }
+    LeaseRenewalScheduler leaseScheduler = context.get(LeaseRenewalScheduler.class).start();
+    applicationContext
+        .getBeanFactory()
+        .registerSingleton("vaultUamiLeaseRenewalScheduler", leaseScheduler);
+    closeHooks.push(leaseScheduler::close);
+  }
+
+  /** With {@code bulk-fetch.refresh}, refreshes the {@code vault-bulk:} imports periodically. */
+  private static void registerBulkRefresh(
+      BootstrapContext context,
+      ConfigurableApplicationContext applicationContext,
+      Deque<Runnable> closeHooks) {
+    VaultUamiAuthProperties.BulkFetch bulkFetch =
+        context.get(VaultUamiAuthProperties.class).getBulkFetch();
+    Map<String, BulkSecretFetcher.Result> imports = context.get(VaultBulkImports.class).getAll();
+    if (!bulkFetch.isRefresh() || imports.isEmpty()) {
+      return;
+    }
+    VaultBulkRefresh bulkRefresh =
+        new VaultBulkRefresh(applicationContext, context.get(BulkSecretFetcher.class), imports);
+    applicationContext.addApplicationListener(
+        applicationEvent -> {
+          if (applicationEvent instanceof ContextRefreshedEvent refreshed
+              && refreshed.getApplicationContext() == applicationContext) {
+            bulkRefresh.start(bulkFetch.getRefreshInterval());
+          }
+        });
+    closeHooks.push(bulkRefresh::close);
+  }
+
+  /**
+   * Supplies a RestTemplateBuilder with Vault endpoint and namespace that counts token renewals.
+   * With the persistent token store enabled, or in either broker mode, token revocation on shutdown
+   * is skipped so the stored or shared token stays valid.
+   */
+  private InstanceSupplier<RestTemplateBuilder> getRestTemplateBuilder() {
+    return context -> {
+      UamiAuthMetrics metrics = context.get(UamiAuthMetrics.class);
+      RestTemplateBuilder builder =
+          vaultRestTemplateBuilder(
+                  context, context.get(ClientFactoryWrapper.class).getClientHttpRequestFactory())
+              .customizers(
+                  restTemplate ->
+                      restTemplate.getInterceptors().add(new RenewalMetricsInterceptor(metrics)));
+      VaultUamiAuthProperties props = context.get(VaultUamiAuthProperties.class);
+      if (props.getTokenStore().isEnabled()
+          || props.getBroker().getMode() != VaultUamiAuthProperties.Broker.Mode.OFF) {
+        builder =
+            builder.customizers(
+                restTemplate ->
+                    restTemplate.getInterceptors().add(new SkipTokenRevocationInterceptor()));
+      }
+      return builder;
+    };
+  }
+
+  /**
+   * Supplies a ClientFactoryWrapper on the configured transport, created when first requested. It
+   * has its own connection pool, so that session renewal and token revocation still work while the
+   * login transport is being closed on shutdown, but shares the TLS context and its session cache.
+   */
+  private InstanceSupplier<ClientFactoryWrapper> getClientFactoryWrapper(
+      AtomicReference<HttpTransport> sessionTransport) {
+    return context -> {
+      HttpTransport transport =
+          VaultUamiHttpTransports.create(
+              context.get(VaultUamiAuthProperties.class).getHttp(),
+              context.get(SSLContext.class),
+              null);
+      sessionTransport.set(transport);
+      return new ClientFactoryWrapper(transport.requestFactory());
+    };
   }
 }
@@ -0,0 +1,133 @@
+package com.example.vault.configuration;
+
+import com.example.vault.service.AuthResilience;
+import com.example.vault.service.CircuitBreaker;
+import com.example.vault.service.UamiAuthMetrics;
+import com.example.vault.transport.HttpTransport;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Vault health from in-memory session state, replacing the stock indicator that calls Vault on
+ * every probe. A background task rebuilds the {@link Health} every {@code refreshInterval} from the
+ * login and renewal outcomes recorded in {@link UamiAuthMetrics}, the circuit breakers and the
+ * connection pool; {@link #health()} only returns the last snapshot.
+ *
+ * <p>The status is {@code UP} while the current token has TTL left, {@code DOWN} once it has
+ * expired or the only login so far failed, and {@code UNKNOWN} before the first login. Open
+ * circuit breakers do not change the status on their own: a valid token still serves requests.
+ */
+public class VaultUamiHealthIndicator implements HealthIndicator, AutoCloseable {
+
+  private final UamiAuthMetrics metrics;
+  private final AuthResilience resilience;
+  private final HttpTransport transport;
+  private final Clock clock;
+  private volatile Health snapshot = Health.unknown().build();
+  private ScheduledExecutorService scheduler;
+
+  public VaultUamiHealthIndicator(
+      UamiAuthMetrics metrics, AuthResilience resilience, HttpTransport transport) {
+    this(metrics, resilience, transport, Clock.systemUTC());
+  }
+
+  VaultUamiHealthIndicator(
+      UamiAuthMetrics metrics, AuthResilience resilience, HttpTransport transport, Clock clock) {
+    this.metrics = metrics;
+    this.resilience = resilience;
+    this.transport = transport;
+    this.clock = clock;
+  }
+
+  /** Builds the first snapshot, then rebuilds it every {@code refreshInterval} in the background. */
+  public VaultUamiHealthIndicator start(Duration refreshInterval) {
+    refresh();
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("vault-uami-health").factory());
+    scheduler.scheduleAtFixedRate(
+        this::refresh,
+        refreshInterval.toMillis(),
+        refreshInterval.toMillis(),
+        TimeUnit.MILLISECONDS);
+    return this;
+  }
+
+  @Override
+  public Health health() {
+    return snapshot;
+  }
+
+  /** Rebuilds the snapshot from in-memory state. */
+  void refresh() {
+    try {
+      snapshot = build(clock.instant());
+    } catch (RuntimeException e) {
+      // Keep the scheduled refresh alive.
+      snapshot = Health.unknown().withException(e).build();
+    }
+  }
+
+  private Health build(Instant now) {
+    Optional<Instant> expiresAt = metrics.getTokenExpiresAt();
+    Optional<UamiAuthMetrics.Outcome> lastLogin = metrics.getLastLogin();
+    Health.Builder builder =
+        expiresAt.isPresent()
+            ? (expiresAt.get().isAfter(now) ? Health.up() : Health.down())
+                .withDetail("tokenTtl", Duration.between(now, expiresAt.get()).toSeconds())
+            : lastLogin.isPresent() && !lastLogin.get().success()
+                ? Health.down()
+                : Health.unknown();
+    lastLogin.ifPresent(outcome -> builder.withDetail("lastLogin", details(outcome)));
+    metrics
+        .getLastRenewal()
+        .ifPresent(outcome -> builder.withDetail("lastRenewal", details(outcome)));
+    builder.withDetail(
+        "circuitBreakers",
+        Map.of(
+            "imds", details(resilience.imdsCircuitBreaker()),
+            "vault", details(resilience.vaultCircuitBreaker())));
+    transport
+        .poolStatus()
+        .ifPresent(
+            pool ->
+                builder.withDetail(
+                    "connectionPool",
+                    Map.of(
+                        "leased", pool.leased(),
+                        "pending", pool.pending(),
+                        "available", pool.available(),
+                        "max", pool.max())));
+    return builder.withDetail("checkedAt", now.toString()).build();
+  }
+
+  private static Map<String, Object> details(UamiAuthMetrics.Outcome outcome) {
+    Map<String, Object> details = new LinkedHashMap<>();
+    details.put("outcome", outcome.success() ? "SUCCESS" : "FAILURE");
+    details.put("at", outcome.at().toString());
+    return details;
+  }
+
+  private static Map<String, Object> details(CircuitBreaker breaker) {
+    return Map.of(
+        "state", breaker.getState().name(),
+        "consecutiveFailures", breaker.getConsecutiveFailures());
+  }
+
+  /** Stops the background refresh. */
+  @Override
+  public void close() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+}
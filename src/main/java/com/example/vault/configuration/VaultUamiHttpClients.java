@@ -0,0 +1,85 @@
+package com.example.vault.configuration;
+
+import com.example.vault.transport.TlsContexts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.time.Duration;
+import javax.net.ssl.SSLContext;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/** Builds the pooled Apache HttpClient shared by all UAMI logins. */
+public final class VaultUamiHttpClients {
+
+  private VaultUamiHttpClients() {}
+
+  /**
+   * Creates a pooled HttpClient from the {@code vault.uami.http.*} settings. The caller owns the
+   * client and must close it on shutdown.
+   */
+  public static CloseableHttpClient create(VaultUamiAuthProperties.Http http) {
+    return create(http, null);
+  }
+
+  /**
+   * Creates a pooled HttpClient as above and, if a registry is given, exposes its pool statistics
+   * (leased, available and pending connections) as {@code httpcomponents.httpclient.pool.*} gauges
+   * tagged {@code httpclient=vault-uami}.
+   */
+  public static CloseableHttpClient create(
+      VaultUamiAuthProperties.Http http, MeterRegistry meterRegistry) {
+    return create(http, TlsContexts.trustSelfSigned(), meterRegistry);
+  }
+
+  /** Creates a pooled HttpClient as above on the given TLS context. */
+  public static CloseableHttpClient create(
+      VaultUamiAuthProperties.Http http, SSLContext sslContext, MeterRegistry meterRegistry) {
+    return build(http, connectionManager(http, sslContext, meterRegistry));
+  }
+
+  static PoolingHttpClientConnectionManager connectionManager(
+      VaultUamiAuthProperties.Http http, SSLContext sslContext, MeterRegistry meterRegistry) {
+    var connectionManager =
+        PoolingHttpClientConnectionManagerBuilder.create()
+            .setTlsSocketStrategy(new DefaultClientTlsStrategy(sslContext))
+            .setMaxConnTotal(http.getMaxTotal())
+            .setMaxConnPerRoute(http.getMaxPerRoute())
+            .setDefaultConnectionConfig(
+                ConnectionConfig.custom()
+                    .setConnectTimeout(timeout(http.getConnectTimeout()))
+                    .setSocketTimeout(timeout(http.getResponseTimeout()))
+                    .build())
+            .build();
+    if (meterRegistry != null) {
+      new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "vault-uami")
+          .bindTo(meterRegistry);
+    }
+    return connectionManager;
+  }
+
+  static CloseableHttpClient build(
+      VaultUamiAuthProperties.Http http, PoolingHttpClientConnectionManager connectionManager) {
+    TimeValue keepAlive = TimeValue.ofMilliseconds(http.getKeepAlive().toMillis());
+    return HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(
+            RequestConfig.custom().setResponseTimeout(timeout(http.getResponseTimeout())).build())
+        .setKeepAliveStrategy((response, context) -> keepAlive)
+        // Retries are owned by RetryPolicy, which knows the login deadline.
+        .disableAutomaticRetries()
+        .evictExpiredConnections()
+        .evictIdleConnections(TimeValue.ofMilliseconds(http.getIdleEviction().toMillis()))
+        .build();
+  }
+
+  private static Timeout timeout(Duration duration) {
+    return Timeout.ofMilliseconds(duration.toMillis());
+  }
+}
@@ -0,0 +1,125 @@
+package com.example.vault.configuration;
+
+import com.example.vault.transport.AsyncHttpTransport;
+import com.example.vault.transport.ClassicHttpTransport;
+import com.example.vault.transport.HttpTransport;
+import com.example.vault.transport.JdkHttpTransport;
+import com.example.vault.transport.TlsContexts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.net.ssl.SSLContext;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Builds the {@link HttpTransport} selected by {@code vault.uami.http.transport}. */
+public final class VaultUamiHttpTransports {
+
+  private static final Logger logger = LoggerFactory.getLogger(VaultUamiHttpTransports.class);
+
+  private VaultUamiHttpTransports() {}
+
+  /**
+   * Creates the configured transport. The caller owns it and must close it on shutdown.
+   *
+   * @param meterRegistry registry for connection pool gauges, or {@code null} for none
+   */
+  public static HttpTransport create(
+      VaultUamiAuthProperties.Http http, MeterRegistry meterRegistry) {
+    return create(http, TlsContexts.trustSelfSigned(), meterRegistry);
+  }
+
+  /** Creates the configured transport as above on the given TLS context. */
+  public static HttpTransport create(
+      VaultUamiAuthProperties.Http http, SSLContext sslContext, MeterRegistry meterRegistry) {
+    return switch (http.getTransport()) {
+      case CLASSIC -> createClassic(http, sslContext, meterRegistry);
+      case ASYNC -> createAsync(http, sslContext, meterRegistry);
+      case JDK -> createJdk(http, sslContext);
+    };
+  }
+
+  private static HttpTransport createClassic(
+      VaultUamiAuthProperties.Http http, SSLContext sslContext, MeterRegistry meterRegistry) {
+    var connectionManager =
+        VaultUamiHttpClients.connectionManager(http, sslContext, meterRegistry);
+    return new ClassicHttpTransport(
+        VaultUamiHttpClients.build(http, connectionManager), connectionManager);
+  }
+
+  private static HttpTransport createAsync(
+      VaultUamiAuthProperties.Http http, SSLContext sslContext, MeterRegistry meterRegistry) {
+    var connectionManager =
+        PoolingAsyncClientConnectionManagerBuilder.create()
+            .setTlsStrategy(new DefaultClientTlsStrategy(sslContext))
+            .setMaxConnTotal(http.getMaxTotal())
+            .setMaxConnPerRoute(http.getMaxPerRoute())
+            .setDefaultConnectionConfig(
+                ConnectionConfig.custom()
+                    .setConnectTimeout(timeout(http.getConnectTimeout()))
+                    .setSocketTimeout(timeout(http.getResponseTimeout()))
+                    .build())
+            // HTTP/2 where the server offers it via ALPN, HTTP/1.1 otherwise.
+            .setDefaultTlsConfig(
+                TlsConfig.custom().setVersionPolicy(HttpVersionPolicy.NEGOTIATE).build())
+            .build();
+    if (meterRegistry != null) {
+      new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "vault-uami")
+          .bindTo(meterRegistry);
+    }
+    TimeValue keepAlive = TimeValue.ofMilliseconds(http.getKeepAlive().toMillis());
+    CloseableHttpAsyncClient client =
+        HttpAsyncClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(
+                RequestConfig.custom()
+                    .setResponseTimeout(timeout(http.getResponseTimeout()))
+                    .build())
+            .setKeepAliveStrategy((response, context) -> keepAlive)
+            .disableAutomaticRetries()
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofMilliseconds(http.getIdleEviction().toMillis()))
+            .build();
+    client.start();
+    return new AsyncHttpTransport(
+        client, http.getConnectTimeout().plus(http.getResponseTimeout()), connectionManager);
+  }
+
+  private static HttpTransport createJdk(VaultUamiAuthProperties.Http http, SSLContext sslContext) {
+    VaultUamiAuthProperties.Http defaults = new VaultUamiAuthProperties.Http();
+    if (http.getMaxTotal() != defaults.getMaxTotal()
+        || http.getMaxPerRoute() != defaults.getMaxPerRoute()
+        || !http.getKeepAlive().equals(defaults.getKeepAlive())
+        || !http.getIdleEviction().equals(defaults.getIdleEviction())) {
+      logger.warn(
+          "vault.uami.http max-total, max-per-route, keep-alive and idle-eviction are ignored by"
+              + " the jdk transport, which manages its own connections.");
+    }
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    HttpClient client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(http.getConnectTimeout())
+            .sslContext(sslContext)
+            .executor(executor)
+            .build();
+    return new JdkHttpTransport(client, executor, http.getResponseTimeout());
+  }
+
+  private static Timeout timeout(Duration duration) {
+    return Timeout.ofMilliseconds(duration.toMillis());
+  }
+}
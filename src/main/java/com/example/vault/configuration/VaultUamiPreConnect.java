@@ -0,0 +1,54 @@
+package com.example.vault.configuration;
+
+import com.example.vault.transport.HttpTransport;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+
+/** Opens connections to Vault and IMDS before the first login needs them. */
+public final class VaultUamiPreConnect {
+  private static final Logger logger = LoggerFactory.getLogger(VaultUamiPreConnect.class);
+
+  private VaultUamiPreConnect() {}
+
+  /**
+   * Sends a GET to Vault's unauthenticated {@code sys/health} endpoint and to the IMDS endpoint in
+   * parallel and waits for both. Their connections, and TLS sessions, stay in the transport's pool
+   * for the first login. Failures are logged and otherwise ignored.
+   *
+   * @param identityEndpoint IMDS endpoint, or {@code null} to connect to Vault only
+   */
+  public static void warmUp(HttpTransport transport, String vaultUri, String identityEndpoint) {
+    List<URI> targets = new ArrayList<>();
+    targets.add(URI.create(vaultUri.replaceAll("/+$", "") + "/v1/sys/health"));
+    if (identityEndpoint != null && !identityEndpoint.isBlank()) {
+      targets.add(URI.create(identityEndpoint));
+    }
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      targets.forEach(target -> executor.execute(() -> connect(transport, target)));
+    }
+  }
+
+  private static void connect(HttpTransport transport, URI target) {
+    long start = System.nanoTime();
+    try (ClientHttpResponse response =
+        transport.requestFactory().createRequest(target, HttpMethod.GET).execute()) {
+      // Drain the body so the connection goes back to the pool.
+      response.getBody().transferTo(OutputStream.nullOutputStream());
+      logger.debug(
+          "Pre-connected to {} in {}ms.",
+          target.getHost(),
+          (System.nanoTime() - start) / 1_000_000);
+    } catch (IOException | RuntimeException e) {
+      logger.debug("Pre-connect to {} failed: {}", target.getHost(), e.getMessage());
+    }
+  }
+}
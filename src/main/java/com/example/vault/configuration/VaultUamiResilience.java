@@ -0,0 +1,36 @@
+package com.example.vault.configuration;
+
+import com.example.vault.service.AuthResilience;
+import com.example.vault.service.CircuitBreaker;
+import com.example.vault.service.RetryPolicy;
+
+/** Builds the retry policy and circuit breakers of one UAMI identity. */
+public final class VaultUamiResilience {
+
+  private VaultUamiResilience() {}
+
+  /**
+   * Creates an AuthResilience from the {@code vault.uami.retry.*} and {@code
+   * vault.uami.circuit-breaker.*} settings, with fresh breakers for the IMDS and Vault endpoints.
+   */
+  public static AuthResilience create(VaultUamiAuthProperties properties) {
+    VaultUamiAuthProperties.Retry retry = properties.getRetry();
+    RetryPolicy retryPolicy =
+        retry.isEnabled()
+            ? new RetryPolicy(
+                retry.getMaxAttempts(),
+                retry.getInitialBackoff(),
+                retry.getMaxBackoff(),
+                retry.getDeadline())
+            : RetryPolicy.NONE;
+    VaultUamiAuthProperties.CircuitBreaker breaker = properties.getCircuitBreaker();
+    if (!breaker.isEnabled()) {
+      return new AuthResilience(
+          retryPolicy, CircuitBreaker.disabled("imds"), CircuitBreaker.disabled("vault"));
+    }
+    return new AuthResilience(
+        retryPolicy,
+        new CircuitBreaker("imds", breaker.getFailureThreshold(), breaker.getOpenDuration()),
+        new CircuitBreaker("vault", breaker.getFailureThreshold(), breaker.getOpenDuration()));
+  }
+}
@@ -1,27 +1,154 @@
 package com.example.vault.delegate;
 
+import com.example.vault.diagnostics.FlightRecording;
+import com.example.vault.diagnostics.LoginEvent;
+import com.example.vault.service.PersistentTokenStore;
+import com.example.vault.service.PersistentTokenStore.StoredToken;
+import com.example.vault.service.SingleFlight;
+import com.example.vault.service.UamiAuthMetrics;
 import com.example.vault.service.UamiAuthService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.vault.authentication.ClientAuthentication;
-import org.springframework.vault.support.VaultToken;
+import org.springframework.vault.authentication.LoginToken;
 
-/** Vault ClientAuthentication implementation using UAMI. */
+/**
+ * Vault ClientAuthentication implementation using UAMI. Concurrent logins are coalesced, so callers
+ * racing on an expired token share a single IMDS call and Vault login.
+ *
+ * <p>With a {@link PersistentTokenStore}, the first login after a restart reuses the stored token
+ * if a single {@code lookup-self} confirms it still has at least the minimum TTL left. Every login
+ * is recorded as a {@link LoginEvent} for JDK Flight Recorder.
+ */
 public class VaultUamiAuthentication implements ClientAuthentication {
+  private static final Logger logger = LoggerFactory.getLogger(VaultUamiAuthentication.class);
+
   private final UamiAuthService authService;
+  private final PersistentTokenStore tokenStore;
+  private final Duration minTtl;
+  private final UamiAuthMetrics metrics;
+  private final SingleFlight<LoginToken> singleFlight = new SingleFlight<>();
+  private final AtomicBoolean warmStartAttempted = new AtomicBoolean();
 
   /**
    * @param authService UAMI authentication service
    */
   public VaultUamiAuthentication(UamiAuthService authService) {
+    this(authService, null, Duration.ZERO);
+  }
+
+  /**
+   * @param authService UAMI authentication service
+   * @param tokenStore store of the last login token, or {@code null} to always log in
+   * @param minTtl minimum remaining TTL for a stored token to be reused
+   */
+  public VaultUamiAuthentication(
+      UamiAuthService authService, PersistentTokenStore tokenStore, Duration minTtl) {
+    this(authService, tokenStore, minTtl, UamiAuthMetrics.NOOP);
+  }
+
+  /**
+   * @param authService UAMI authentication service
+   * @param tokenStore store of the last login token, or {@code null} to always log in
+   * @param minTtl minimum remaining TTL for a stored token to be reused
+   * @param metrics metrics for logins, coalesced logins and token expiry
+   */
+  public VaultUamiAuthentication(
+      UamiAuthService authService,
+      PersistentTokenStore tokenStore,
+      Duration minTtl,
+      UamiAuthMetrics metrics) {
     this.authService = authService;
+    this.tokenStore = tokenStore;
+    this.minTtl = minTtl;
+    this.metrics = metrics;
+    metrics.bindCoalescedLogins(singleFlight);
   }
 
   /**
-   * Performs login to Vault using UAMI.
+   * Performs login to Vault using UAMI, or joins a login already in flight. The returned LoginToken
+   * carries the token TTL and renewability, which lets {@code LifecycleAwareSessionManager} renew
+   * the token ahead of expiry instead of logging in again.
    *
-   * @return VaultToken
+   * @return LoginToken
    */
   @Override
-  public VaultToken login() {
-    return authService.authenticate();
+  public LoginToken login() {
+    return singleFlight.execute(this::doLogin);
+  }
+
+  /** Number of logins that joined an in-flight login instead of authenticating themselves. */
+  public long getCoalescedLoginCount() {
+    return singleFlight.getJoinCount();
+  }
+
+  private LoginToken doLogin() {
+    LoginEvent event = FlightRecording.isActive() ? new LoginEvent() : null;
+    if (event != null) {
+      event.begin();
+    }
+    try {
+      if (tokenStore == null) {
+        return loggedIn(event, authService.authenticate(), false);
+      }
+      if (warmStartAttempted.compareAndSet(false, true)) {
+        Optional<LoginToken> stored = loadStoredToken();
+        if (stored.isPresent()) {
+          logger.info(
+              "Reusing stored vault token ({}s left).",
+              stored.get().getLeaseDuration().toSeconds());
+          return loggedIn(event, stored.get(), true);
+        }
+      }
+      LoginToken token = authService.authenticate();
+      tokenStore.save(token);
+      return loggedIn(event, token, false);
+    } catch (RuntimeException e) {
+      if (event != null && event.shouldCommit()) {
+        event.source = "vault";
+        event.commit();
+      }
+      throw e;
+    }
+  }
+
+  private LoginToken loggedIn(LoginEvent event, LoginToken token, boolean stored) {
+    metrics.recordLogin(token, stored);
+    if (event != null && event.shouldCommit()) {
+      event.source = stored ? "stored" : "vault";
+      event.ttl = token.getLeaseDuration().toSeconds();
+      event.success = true;
+      event.commit();
+    }
+    return token;
+  }
+
+  private Optional<LoginToken> loadStoredToken() {
+    Optional<StoredToken> stored = tokenStore.load();
+    if (stored.isEmpty()) {
+      return Optional.empty();
+    }
+    // Renewals are not written back, so only a non-renewable token can be ruled out locally.
+    if (!stored.get().renewable()
+        && Instant.now().plus(minTtl).isAfter(stored.get().expiresAt())) {
+      return Optional.empty();
+    }
+    try {
+      Optional<LoginToken> token =
+          authService
+              .lookupSelf(stored.get().token())
+              .filter(candidate -> candidate.getLeaseDuration().compareTo(minTtl) >= 0);
+      if (token.isEmpty()) {
+        tokenStore.delete();
+      }
+      return token;
+    } catch (RuntimeException e) {
+      logger.warn("Could not validate stored vault token, logging in: {}", e.getMessage());
+      return Optional.empty();
+    }
   }
 }
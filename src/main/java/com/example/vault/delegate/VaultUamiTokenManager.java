@@ -0,0 +1,162 @@
+package com.example.vault.delegate;
+
+import com.example.vault.configuration.RenewalMetricsInterceptor;
+import com.example.vault.configuration.VaultUamiAuthProperties;
+import com.example.vault.configuration.VaultUamiAuthProperties.Identity;
+import com.example.vault.configuration.VaultUamiResilience;
+import com.example.vault.service.ManagedIdentityTokenCache;
+import com.example.vault.service.UamiAuthMetrics;
+import com.example.vault.service.UamiAuthService;
+import com.example.vault.transport.HttpTransport;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.vault.authentication.ClientAuthentication;
+import org.springframework.vault.authentication.LifecycleAwareSessionManager;
+import org.springframework.vault.client.RestTemplateBuilder;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.core.VaultTemplate;
+
+/**
+ * Hands out a ClientAuthentication and a VaultTemplate per {@code vault.uami.identities} entry.
+ *
+ * <p>Each identity logs in, caches and renews its token independently: it has its own login
+ * coalescing and its own session manager, and its access token is cached under its own resource
+ * and client id. All identities share one HTTP transport, and so one connection pool and TLS
+ * context, plus one renewal scheduler. The transport stays owned by the caller.
+ */
+public class VaultUamiTokenManager implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(VaultUamiTokenManager.class);
+
+  private record Entry(
+      VaultUamiAuthentication authentication,
+      LifecycleAwareSessionManager sessionManager,
+      VaultTemplate vaultTemplate) {}
+
+  private final VaultUamiAuthProperties properties;
+  private final HttpTransport transport;
+  private final ClientHttpRequestFactory requestFactory;
+  private final ManagedIdentityTokenCache accessTokenCache;
+  private final MeterRegistry meterRegistry;
+  private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * @param properties settings holding the {@code identities} map
+   * @param transport HTTP transport shared by all identities; not closed by this manager
+   * @param accessTokenCache access token cache, or {@code null} to fetch one on every login
+   * @param meterRegistry registry for per-identity metrics
+   */
+  public VaultUamiTokenManager(
+      VaultUamiAuthProperties properties,
+      HttpTransport transport,
+      ManagedIdentityTokenCache accessTokenCache,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.transport = transport;
+    this.requestFactory = transport.requestFactory();
+    this.accessTokenCache = accessTokenCache;
+    this.meterRegistry = meterRegistry;
+    scheduler.setPoolSize(1);
+    scheduler.setDaemon(true);
+    scheduler.setThreadNamePrefix("vault-uami-session-");
+    scheduler.initialize();
+  }
+
+  /** Names of the configured identities. */
+  public Set<String> getIdentityNames() {
+    return properties.getIdentities().keySet();
+  }
+
+  /**
+   * Returns the ClientAuthentication of the named identity.
+   *
+   * @throws IllegalArgumentException if no identity with that name is configured
+   */
+  public ClientAuthentication getClientAuthentication(String name) {
+    return entry(name).authentication();
+  }
+
+  /**
+   * Returns a VaultTemplate bound to the named identity's Vault address and namespace, whose
+   * session manager renews that identity's token.
+   *
+   * @throws IllegalArgumentException if no identity with that name is configured
+   */
+  public VaultTemplate getVaultTemplate(String name) {
+    return entry(name).vaultTemplate();
+  }
+
+  private Entry entry(String name) {
+    Entry entry = entries.get(name);
+    if (entry != null) {
+      return entry;
+    }
+    Identity identity = properties.resolveIdentity(name);
+    return entries.computeIfAbsent(name, key -> createEntry(key, identity));
+  }
+
+  private Entry createEntry(String name, Identity identity) {
+    UamiAuthMetrics metrics = new UamiAuthMetrics(meterRegistry, name);
+    VaultUamiAuthentication authentication =
+        new VaultUamiAuthentication(
+            createAuthService(identity, metrics), null, Duration.ZERO, metrics);
+    RestTemplateBuilder restTemplateBuilder =
+        RestTemplateBuilder.builder()
+            .requestFactory(requestFactory)
+            .endpoint(VaultEndpoint.from(URI.create(identity.getUri())))
+            .defaultHeader("X-Vault-Namespace", identity.getNamespace())
+            .customizers(
+                restTemplate ->
+                    restTemplate.getInterceptors().add(new RenewalMetricsInterceptor(metrics)));
+    LifecycleAwareSessionManager sessionManager =
+        new LifecycleAwareSessionManager(authentication, scheduler, restTemplateBuilder.build());
+    logger.info(
+        "Registered vault UAMI identity '{}' (namespace {}, role {}).",
+        name,
+        identity.getNamespace(),
+        identity.getRole());
+    return new Entry(
+        authentication, sessionManager, new VaultTemplate(restTemplateBuilder, sessionManager));
+  }
+
+  /**
+   * Creates the UamiAuthService of one identity on the shared transport, with its own circuit
+   * breakers. The service is never closed on its own, as that would close the shared transport.
+   * Overridable for testing.
+   */
+  protected UamiAuthService createAuthService(Identity identity, UamiAuthMetrics metrics) {
+    return new UamiAuthService(
+        identity.getUri(),
+        identity.getNamespace(),
+        identity.getRole(),
+        identity.getResource(),
+        identity.getClientId(),
+        transport,
+        accessTokenCache,
+        metrics,
+        VaultUamiResilience.create(properties));
+  }
+
+  /** Revokes the identities' tokens and stops renewing them. */
+  @Override
+  public void close() {
+    entries.forEach(
+        (name, entry) -> {
+          try {
+            entry.sessionManager().destroy();
+          } catch (Exception e) {
+            logger.warn("Failed to close vault session of identity '{}': {}", name, e.getMessage());
+          }
+        });
+    entries.clear();
+    scheduler.shutdown();
+  }
+}
@@ -0,0 +1,34 @@
+package com.example.vault.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One UAMI authentication, from the IMDS token to the Vault login token. */
+@Name("com.example.vault.uami.Authenticate")
+@Label("Vault UAMI Authenticate")
+@Category({"Vault", "UAMI"})
+@Description("One UAMI authentication to Vault, including retries")
+@StackTrace(false)
+public class AuthenticateEvent extends Event {
+
+  @Label("Vault Endpoint")
+  public String endpoint;
+
+  @Label("Role")
+  public String role;
+
+  @Label("Retries")
+  @Description("Retried IMDS and Vault login attempts")
+  public int retries;
+
+  @Label("Access Token Cached")
+  @Description("Whether the IMDS access token came from the cache")
+  public boolean accessTokenCached;
+
+  @Label("Success")
+  public boolean success;
+}
@@ -0,0 +1,20 @@
+package com.example.vault.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One phase of the bootstrap, e.g. property binding, TLS setup or a config import. */
+@Name("com.example.vault.uami.BootstrapPhase")
+@Label("Vault UAMI Bootstrap Phase")
+@Category({"Vault", "UAMI"})
+@Description("One phase of the Vault UAMI bootstrap")
+@StackTrace(false)
+public class BootstrapPhaseEvent extends Event {
+
+  @Label("Phase")
+  public String phase;
+}
@@ -0,0 +1,19 @@
+package com.example.vault.diagnostics;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Guards the creation of the JFR events of this package. Loading the first event class initializes
+ * JFR, which costs hundreds of milliseconds, so events are only created once JFR is initialized,
+ * by {@code -XX:StartFlightRecording} or a later {@code jcmd JFR.start}. Until then, an
+ * instrumented call site costs one static check.
+ */
+public final class FlightRecording {
+
+  private FlightRecording() {}
+
+  /** Whether JFR is initialized, so events may be created. */
+  public static boolean isActive() {
+    return FlightRecorder.isInitialized();
+  }
+}
@@ -0,0 +1,42 @@
+package com.example.vault.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One attempt of an IMDS token request or Vault login. Carries no token material. */
+@Name("com.example.vault.uami.HttpExchange")
+@Label("Vault UAMI HTTP Exchange")
+@Category({"Vault", "UAMI"})
+@Description("One attempt of an IMDS token request or Vault login")
+@StackTrace(false)
+public class HttpExchangeEvent extends Event {
+
+  @Label("Operation")
+  @Description("Timer name of the exchange, e.g. vault.uami.imds.fetch")
+  public String operation;
+
+  @Label("Endpoint")
+  @Description("Scheme, host, port and path; the query is left out")
+  public String endpoint;
+
+  @Label("HTTP Status")
+  @Description("Response status, or 0 if no response was received")
+  public int status;
+
+  @Label("Response Bytes")
+  @Description("Content-Length of the response, or -1 if unknown")
+  @DataAmount
+  public long bytes;
+
+  @Label("Attempt")
+  @Description("1 for the first attempt, 2 for the first retry, and so on")
+  public int attempt;
+
+  @Label("Success")
+  public boolean success;
+}
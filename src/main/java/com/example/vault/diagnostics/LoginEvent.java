@@ -0,0 +1,29 @@
+package com.example.vault.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** One login of the Vault session, which may reuse a stored token instead of authenticating. */
+@Name("com.example.vault.uami.Login")
+@Label("Vault UAMI Login")
+@Category({"Vault", "UAMI"})
+@Description("One ClientAuthentication login of the Vault session")
+@StackTrace(false)
+public class LoginEvent extends Event {
+
+  @Label("Source")
+  @Description("vault for a new login, stored for a reused stored token")
+  public String source;
+
+  @Label("Token TTL")
+  @Timespan(Timespan.SECONDS)
+  public long ttl;
+
+  @Label("Success")
+  public boolean success;
+}
@@ -0,0 +1,144 @@
+package com.example.vault.diagnostics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Breaks the time from the bootstrap initializer to the ready application down by phase: property
+ * binding, TLS setup, pre-connect, IMDS token, Vault login and {@code vault-bulk:} imports.
+ *
+ * <p>Phases are recorded from {@link #start()} until {@link #report()}, so logins after startup add
+ * nothing. Phases may overlap, e.g. the background pre-connect; time not covered by any phase, such
+ * as reading {@code application.yml} or other config imports, is reported as one remainder.
+ */
+public final class StartupTimeline {
+
+  /** Bounds the timeline of an application that never becomes ready. */
+  private static final int MAX_PHASES = 256;
+
+  private static final StartupTimeline INSTANCE = new StartupTimeline();
+
+  /**
+   * One recorded phase.
+   *
+   * @param name phase name
+   * @param startNanos {@link System#nanoTime()} at the start of the phase
+   * @param durationNanos duration of the phase
+   */
+  public record Phase(String name, long startNanos, long durationNanos) {
+
+    long endNanos() {
+      return startNanos + durationNanos;
+    }
+  }
+
+  private final Queue<Phase> phases = new ConcurrentLinkedQueue<>();
+  private volatile long originNanos;
+  private volatile boolean recording;
+
+  StartupTimeline() {}
+
+  /** The timeline of this JVM's application. */
+  public static StartupTimeline get() {
+    return INSTANCE;
+  }
+
+  /** Starts a new timeline at the current time, dropping any previous phases. */
+  public void start() {
+    phases.clear();
+    originNanos = System.nanoTime();
+    recording = true;
+  }
+
+  /**
+   * Times a phase until the returned span is closed, and emits it as a {@link BootstrapPhaseEvent}
+   * too.
+   */
+  public Span phase(String name) {
+    return new Span(name);
+  }
+
+  /** Records a phase that started at {@code startNanos} and ends now, if still recording. */
+  public void record(String name, long startNanos) {
+    if (recording && phases.size() < MAX_PHASES) {
+      phases.add(new Phase(name, startNanos, System.nanoTime() - startNanos));
+    }
+  }
+
+  /** The phases recorded so far, by start time. */
+  public List<Phase> phases() {
+    return phases.stream().sorted(Comparator.comparingLong(Phase::startNanos)).toList();
+  }
+
+  /** Stops recording and renders the phases relative to {@link #start()}, up to now. */
+  public String report() {
+    recording = false;
+    long origin = originNanos;
+    long end = System.nanoTime();
+    List<Phase> sorted = phases();
+    StringBuilder report =
+        new StringBuilder("Vault UAMI startup timeline, ")
+            .append(millis(end - origin))
+            .append("ms from bootstrap to ready:");
+    for (Phase phase : sorted) {
+      report.append(
+          String.format(
+              "%n  %+8dms %7dms  %s",
+              millis(phase.startNanos() - origin),
+              millis(phase.durationNanos()),
+              phase.name()));
+    }
+    return report
+        .append(
+            String.format(
+                "%n  %18dms  outside these phases",
+                millis(end - origin - covered(sorted, origin, end))))
+        .toString();
+  }
+
+  /** Nanoseconds of {@code [origin, end]} covered by at least one phase. */
+  private static long covered(List<Phase> sorted, long origin, long end) {
+    long covered = 0;
+    long reach = origin;
+    for (Phase phase : sorted) {
+      long from = Math.max(phase.startNanos(), reach);
+      long to = Math.min(phase.endNanos(), end);
+      if (to > from) {
+        covered += to - from;
+        reach = to;
+      }
+    }
+    return covered;
+  }
+
+  private static long millis(long nanos) {
+    return TimeUnit.NANOSECONDS.toMillis(nanos);
+  }
+
+  /** A running phase; closing it records the phase. */
+  public final class Span implements AutoCloseable {
+    private final String name;
+    private final long startNanos = System.nanoTime();
+    private final BootstrapPhaseEvent event =
+        FlightRecording.isActive() ? new BootstrapPhaseEvent() : null;
+
+    private Span(String name) {
+      this.name = name;
+      if (event != null) {
+        event.begin();
+      }
+    }
+
+    @Override
+    public void close() {
+      if (event != null && event.shouldCommit()) {
+        event.phase = name;
+        event.commit();
+      }
+      record(name, startNanos);
+    }
+  }
+}
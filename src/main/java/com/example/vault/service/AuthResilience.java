@@ -0,0 +1,20 @@
+package com.example.vault.service;
+
+/**
+ * Retry policy and per-endpoint circuit breakers applied to the IMDS fetch and the Vault login.
+ *
+ * @param retryPolicy retries of 429, 5xx and I/O failures, bounded by the login deadline
+ * @param imdsCircuitBreaker breaker of the managed identity token endpoint
+ * @param vaultCircuitBreaker breaker of Vault's Azure login endpoint
+ */
+public record AuthResilience(
+    RetryPolicy retryPolicy,
+    CircuitBreaker imdsCircuitBreaker,
+    CircuitBreaker vaultCircuitBreaker) {
+
+  /** No retries; breakers that never open. */
+  public static AuthResilience none() {
+    return new AuthResilience(
+        RetryPolicy.NONE, CircuitBreaker.disabled("imds"), CircuitBreaker.disabled("vault"));
+  }
+}
@@ -0,0 +1,172 @@
+package com.example.vault.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.vault.core.VaultOperations;
+import org.springframework.vault.support.JsonMapFlattener;
+import org.springframework.vault.support.VaultResponse;
+
+/**
+ * Reads many Vault secret paths concurrently on virtual threads, so fetching N paths at startup
+ * costs about one round trip instead of N.
+ *
+ * <p>All reads go through one {@link VaultOperations}, and so share its session token. At most
+ * {@code maxConcurrency} reads are in flight; a read that takes longer than {@code pathTimeout}
+ * once started is reported as failed. Results keep the order of the requested paths, so merging is
+ * deterministic: a key in a later path overrides the same key in an earlier one.
+ */
+public class BulkSecretFetcher {
+  private static final Logger logger = LoggerFactory.getLogger(BulkSecretFetcher.class);
+
+  /**
+   * What a read saw of a secret's lifecycle, used to tell later whether it changed.
+   *
+   * @param version KV v2 version, or {@code null} for other secret engines
+   * @param leaseDuration lease of the secret; zero if it has none
+   */
+  public record Revision(Integer version, Duration leaseDuration) {}
+
+  /**
+   * Outcome of a bulk fetch.
+   *
+   * @param secrets secret data by path, in request order; KV v2 data is unwrapped
+   * @param revisions revision by path of every secret read
+   * @param failures failure by path, in request order; a missing secret is a failure too
+   */
+  public record Result(
+      Map<String, Map<String, Object>> secrets,
+      Map<String, Revision> revisions,
+      Map<String, RuntimeException> failures) {
+
+    /** Whether every path was read. */
+    public boolean isComplete() {
+      return failures.isEmpty();
+    }
+
+    /** All secrets flattened into one map; later paths override earlier ones. */
+    public Map<String, Object> merged() {
+      Map<String, Object> merged = new LinkedHashMap<>();
+      secrets.values().forEach(data -> merged.putAll(JsonMapFlattener.flatten(data)));
+      return merged;
+    }
+  }
+
+  private final VaultOperations operations;
+  private final int maxConcurrency;
+  private final Duration pathTimeout;
+
+  /**
+   * @param operations Vault client whose session token is shared by all reads
+   * @param maxConcurrency maximum number of reads in flight
+   * @param pathTimeout how long a single read may take once started
+   */
+  public BulkSecretFetcher(VaultOperations operations, int maxConcurrency, Duration pathTimeout) {
+    this.operations = operations;
+    this.maxConcurrency = maxConcurrency;
+    this.pathTimeout = pathTimeout;
+  }
+
+  /** The Vault client of the reads. */
+  public VaultOperations getOperations() {
+    return operations;
+  }
+
+  /** Reads the paths concurrently and waits for all of them. Duplicate paths are read once. */
+  public Result fetch(Collection<String> paths) {
+    long start = System.nanoTime();
+    List<String> distinctPaths = new ArrayList<>(new LinkedHashSet<>(paths));
+    Semaphore permits = new Semaphore(maxConcurrency);
+    ExecutorService executor =
+        Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("vault-bulk-fetch-", 0).factory());
+    try {
+      Map<String, CompletableFuture<VaultResponse>> reads = new LinkedHashMap<>();
+      for (String path : distinctPaths) {
+        reads.put(path, read(path, permits, executor));
+      }
+      Map<String, Map<String, Object>> secrets = new LinkedHashMap<>();
+      Map<String, Revision> revisions = new LinkedHashMap<>();
+      Map<String, RuntimeException> failures = new LinkedHashMap<>();
+      reads.forEach(
+          (path, read) -> {
+            try {
+              VaultResponse response = read.join();
+              if (response == null || response.getData() == null) {
+                failures.put(path, new IllegalStateException("No secret at " + path));
+              } else {
+                secrets.put(path, data(response));
+                revisions.put(path, revision(response));
+              }
+            } catch (CompletionException e) {
+              failures.put(path, failure(path, e.getCause()));
+            }
+          });
+      logger.info(
+          "Fetched {} of {} Vault secret paths in {}ms.",
+          secrets.size(),
+          distinctPaths.size(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      failures.forEach(
+          (path, failure) -> logger.warn("Failed to read {}: {}", path, failure.getMessage()));
+      return new Result(
+          Collections.unmodifiableMap(secrets),
+          Collections.unmodifiableMap(revisions),
+          Collections.unmodifiableMap(failures));
+    } finally {
+      // Reads that timed out may still be running; they end with their HTTP response timeout.
+      executor.shutdown();
+    }
+  }
+
+  private CompletableFuture<VaultResponse> read(
+      String path, Semaphore permits, ExecutorService executor) {
+    return CompletableFuture.runAsync(permits::acquireUninterruptibly, executor)
+        .thenCompose(
+            acquired ->
+                CompletableFuture.supplyAsync(() -> operations.read(path), executor)
+                    .whenComplete((response, failure) -> permits.release())
+                    .orTimeout(pathTimeout.toMillis(), TimeUnit.MILLISECONDS));
+  }
+
+  /** The secret data, unwrapped from the {@code data}/{@code metadata} envelope of KV v2. */
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> data(VaultResponse response) {
+    Map<String, Object> data = response.getData();
+    if (data.get("data") instanceof Map<?, ?> inner && data.get("metadata") instanceof Map<?, ?>) {
+      return (Map<String, Object>) inner;
+    }
+    return data;
+  }
+
+  private static Revision revision(VaultResponse response) {
+    Duration lease = Duration.ofSeconds(response.getLeaseDuration());
+    if (response.getData().get("metadata") instanceof Map<?, ?> metadata
+        && response.getData().get("data") instanceof Map<?, ?>
+        && metadata.get("version") instanceof Number version) {
+      return new Revision(version.intValue(), lease);
+    }
+    return new Revision(null, lease);
+  }
+
+  private RuntimeException failure(String path, Throwable cause) {
+    if (cause instanceof TimeoutException) {
+      return new IllegalStateException("Reading " + path + " took longer than " + pathTimeout);
+    }
+    return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+  }
+}
@@ -0,0 +1,122 @@
+package com.example.vault.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Consecutive-failure circuit breaker for one endpoint (IMDS or Vault login).
+ *
+ * <p>After {@code failureThreshold} failures in a row the breaker opens and calls fail fast with
+ * {@link OpenException} for {@code openDuration}. It then lets a single trial call through: success
+ * closes it, failure opens it again. Only failures that indicate an unavailable endpoint (see
+ * {@link RetryPolicy#isRetryable}) should be reported.
+ */
+public class CircuitBreaker {
+  private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+  /** Breaker state. */
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  /** Thrown instead of calling the endpoint while the breaker is open. */
+  public static class OpenException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    OpenException(String name, Duration retryIn) {
+      super("Circuit breaker '" + name + "' is open, retry in " + retryIn.toSeconds() + "s");
+    }
+  }
+
+  private final String name;
+  private final int failureThreshold;
+  private final Duration openDuration;
+  private final Clock clock;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private Instant openedAt;
+  private boolean trialInFlight;
+
+  /**
+   * @param name endpoint name used in messages
+   * @param failureThreshold consecutive failures that open the breaker
+   * @param openDuration how long the breaker stays open before a trial call
+   */
+  public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+    this(name, failureThreshold, openDuration, Clock.systemUTC());
+  }
+
+  CircuitBreaker(String name, int failureThreshold, Duration openDuration, Clock clock) {
+    this.name = name;
+    this.failureThreshold = failureThreshold;
+    this.openDuration = openDuration;
+    this.clock = clock;
+  }
+
+  /** A breaker that never opens. */
+  public static CircuitBreaker disabled(String name) {
+    return new CircuitBreaker(name, Integer.MAX_VALUE, Duration.ZERO);
+  }
+
+  /**
+   * Permits a call or fails fast.
+   *
+   * @throws OpenException while the breaker is open or a trial call is in flight
+   */
+  public synchronized void acquirePermission() {
+    if (state == State.OPEN) {
+      Duration elapsed = Duration.between(openedAt, clock.instant());
+      if (elapsed.compareTo(openDuration) < 0) {
+        throw new OpenException(name, openDuration.minus(elapsed));
+      }
+      state = State.HALF_OPEN;
+      trialInFlight = false;
+    }
+    if (state == State.HALF_OPEN) {
+      if (trialInFlight) {
+        throw new OpenException(name, Duration.ZERO);
+      }
+      trialInFlight = true;
+    }
+  }
+
+  /** Records a call that reached the endpoint. */
+  public synchronized void onSuccess() {
+    if (state != State.CLOSED) {
+      logger.info("Circuit breaker '{}' closed.", name);
+    }
+    state = State.CLOSED;
+    consecutiveFailures = 0;
+    trialInFlight = false;
+  }
+
+  /** Records a call that failed because the endpoint was unavailable. */
+  public synchronized void onFailure() {
+    consecutiveFailures++;
+    trialInFlight = false;
+    if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+      if (state != State.OPEN) {
+        logger.warn(
+            "Circuit breaker '{}' opened after {} consecutive failures.",
+            name,
+            consecutiveFailures);
+      }
+      state = State.OPEN;
+      openedAt = clock.instant();
+    }
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  public synchronized int getConsecutiveFailures() {
+    return consecutiveFailures;
+  }
+}
@@ -0,0 +1,84 @@
+package com.example.vault.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timer wheel: a ring of buckets, one per tick, where a timeout lands in the bucket of its
+ * deadline tick modulo the ring size. Scheduling is O(1), and expiring visits only the buckets of
+ * the ticks that passed, so many thousands of timeouts cost one thread and no sorting. Timeouts are
+ * only as precise as the tick; all timeouts of one tick expire together.
+ *
+ * @param <T> item type
+ */
+final class HashedTimerWheel<T> {
+
+  /**
+   * An expired timeout.
+   *
+   * @param item the scheduled item
+   * @param deadlineNanos {@link System#nanoTime()} the item was scheduled for
+   * @param deadlineTick tick of the deadline
+   */
+  record Timeout<T>(T item, long deadlineNanos, long deadlineTick) {}
+
+  private final long tickNanos;
+  private final long originNanos;
+  private final List<List<Timeout<T>>> buckets;
+  private long expiredTick;
+  private int size;
+
+  /**
+   * @param tick duration of one tick
+   * @param wheelSize number of buckets; timeouts further out than {@code tick * wheelSize} share a
+   *     bucket with nearer ones and are skipped until their round comes
+   * @param originNanos {@link System#nanoTime()} of tick 0
+   */
+  HashedTimerWheel(Duration tick, int wheelSize, long originNanos) {
+    this.tickNanos = tick.toNanos();
+    this.originNanos = originNanos;
+    this.buckets = new ArrayList<>(wheelSize);
+    for (int i = 0; i < wheelSize; i++) {
+      buckets.add(new ArrayList<>());
+    }
+  }
+
+  /** Schedules the item at {@code deadlineNanos}, or at the next tick if that passed. */
+  synchronized void schedule(T item, long deadlineNanos) {
+    long tick = Math.max(Math.ceilDiv(deadlineNanos - originNanos, tickNanos), expiredTick + 1);
+    buckets.get(bucket(tick)).add(new Timeout<>(item, deadlineNanos, tick));
+    size++;
+  }
+
+  /** Removes and returns the timeouts whose tick passed by {@code nowNanos}. */
+  synchronized List<Timeout<T>> expire(long nowNanos) {
+    long nowTick = Math.floorDiv(nowNanos - originNanos, tickNanos);
+    List<Timeout<T>> expired = new ArrayList<>();
+    // Far behind, every bucket is visited once rather than once per missed tick.
+    long last = Math.min(nowTick, expiredTick + buckets.size());
+    for (long tick = expiredTick + 1; tick <= last; tick++) {
+      Iterator<Timeout<T>> timeouts = buckets.get(bucket(tick)).iterator();
+      while (timeouts.hasNext()) {
+        Timeout<T> timeout = timeouts.next();
+        if (timeout.deadlineTick() <= nowTick) {
+          timeouts.remove();
+          expired.add(timeout);
+        }
+      }
+    }
+    expiredTick = Math.max(expiredTick, nowTick);
+    size -= expired.size();
+    return expired;
+  }
+
+  /** Number of scheduled timeouts. */
+  synchronized int size() {
+    return size;
+  }
+
+  private int bucket(long tick) {
+    return (int) Math.floorMod(tick, (long) buckets.size());
+  }
+}
@@ -0,0 +1,223 @@
+package com.example.vault.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.vault.core.VaultOperations;
+import org.springframework.vault.support.JsonMapFlattener;
+import org.springframework.vault.support.VaultResponse;
+
+/**
+ * Keeps the secrets of a bulk fetch current by re-reading only the paths that changed.
+ *
+ * <p>Each round reads the KV v2 metadata ({@code current_version}) of every versioned path, and
+ * treats other paths as changed once their lease has run out. Only changed paths are fetched
+ * again, so a round in which nothing changed costs one metadata read per KV v2 path. The new
+ * secrets are merged in path order, as at startup, and diffed key by key against the previous
+ * merge; the listener is notified only if a merged key was added, changed or removed. A path
+ * that cannot be read keeps its previous values and is tried again in the next round.
+ */
+public class IncrementalSecretRefresher implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(IncrementalSecretRefresher.class);
+
+  /**
+   * A detected change.
+   *
+   * @param keys flattened keys whose merged value was added, changed or removed
+   * @param merged all secrets flattened and merged after the change
+   */
+  public record Change(Set<String> keys, Map<String, Object> merged) {}
+
+  private record PathState(
+      Map<String, Object> secrets, BulkSecretFetcher.Revision revision, Instant fetchedAt) {}
+
+  private final VaultOperations operations;
+  private final BulkSecretFetcher fetcher;
+  private final Consumer<Change> listener;
+  private final Clock clock;
+  private final Map<String, PathState> paths = new LinkedHashMap<>();
+  private final LongAdder metadataReads = new LongAdder();
+  private final LongAdder secretReads = new LongAdder();
+  private Map<String, Object> merged;
+  private ScheduledExecutorService scheduler;
+
+  /**
+   * @param fetcher bulk fetcher re-reading the changed paths; its client reads the metadata too
+   * @param initial the startup fetch whose paths are kept current
+   * @param listener notified of every change, on the refresh thread
+   */
+  public IncrementalSecretRefresher(
+      BulkSecretFetcher fetcher, BulkSecretFetcher.Result initial, Consumer<Change> listener) {
+    this(fetcher, initial, listener, Clock.systemUTC());
+  }
+
+  IncrementalSecretRefresher(
+      BulkSecretFetcher fetcher,
+      BulkSecretFetcher.Result initial,
+      Consumer<Change> listener,
+      Clock clock) {
+    this.operations = fetcher.getOperations();
+    this.fetcher = fetcher;
+    this.listener = listener;
+    this.clock = clock;
+    Instant now = clock.instant();
+    initial
+        .secrets()
+        .forEach(
+            (path, secrets) ->
+                paths.put(path, new PathState(secrets, initial.revisions().get(path), now)));
+    this.merged = merge();
+  }
+
+  /** Runs a refresh round every {@code interval} on a virtual thread. */
+  public IncrementalSecretRefresher start(Duration interval) {
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("vault-uami-secret-refresh").factory());
+    scheduler.scheduleWithFixedDelay(
+        () -> {
+          try {
+            refresh();
+          } catch (RuntimeException e) {
+            logger.warn("Vault secret refresh failed: {}", e.getMessage());
+          }
+        },
+        interval.toMillis(),
+        interval.toMillis(),
+        TimeUnit.MILLISECONDS);
+    return this;
+  }
+
+  /**
+   * Runs one refresh round and notifies the listener if any merged key changed.
+   *
+   * @return the change, or empty if no key changed
+   */
+  public synchronized Optional<Change> refresh() {
+    List<String> changed = changedPaths();
+    if (changed.isEmpty()) {
+      return Optional.empty();
+    }
+    secretReads.add(changed.size());
+    BulkSecretFetcher.Result result = fetcher.fetch(changed);
+    Instant now = clock.instant();
+    result
+        .secrets()
+        .forEach(
+            (path, secrets) ->
+                paths.put(path, new PathState(secrets, result.revisions().get(path), now)));
+    Map<String, Object> before = merged;
+    merged = merge();
+    Set<String> keys = diff(before, merged);
+    if (keys.isEmpty()) {
+      return Optional.empty();
+    }
+    logger.info("Vault secrets changed in {}: {} keys.", result.secrets().keySet(), keys.size());
+    Change change = new Change(Collections.unmodifiableSet(keys), merged);
+    listener.accept(change);
+    return Optional.of(change);
+  }
+
+  /** Number of KV v2 metadata reads so far. */
+  public long getMetadataReadCount() {
+    return metadataReads.sum();
+  }
+
+  /** Number of secret re-reads so far. */
+  public long getSecretReadCount() {
+    return secretReads.sum();
+  }
+
+  private List<String> changedPaths() {
+    Instant now = clock.instant();
+    Map<String, Future<Boolean>> checks = new LinkedHashMap<>();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      paths.forEach(
+          (path, state) -> {
+            BulkSecretFetcher.Revision revision = state.revision();
+            if (revision != null && revision.version() != null) {
+              checks.put(path, executor.submit(() -> isNewVersion(path, revision.version())));
+            } else if (revision != null
+                && !revision.leaseDuration().isZero()
+                && !now.isBefore(state.fetchedAt().plus(revision.leaseDuration()))) {
+              checks.put(path, executor.submit(() -> true));
+            }
+          });
+    }
+    List<String> changed = new ArrayList<>();
+    checks.forEach(
+        (path, check) -> {
+          if (check.resultNow()) {
+            changed.add(path);
+          }
+        });
+    return changed;
+  }
+
+  private boolean isNewVersion(String path, int version) {
+    metadataReads.increment();
+    try {
+      VaultResponse metadata = operations.read(metadataPath(path));
+      if (metadata == null || metadata.getData() == null) {
+        return true;
+      }
+      return !(metadata.getData().get("current_version") instanceof Number current)
+          || current.intValue() != version;
+    } catch (RuntimeException e) {
+      logger.warn("Failed to read metadata of {}: {}", path, e.getMessage());
+      return false;
+    }
+  }
+
+  /** KV v2 metadata path of a data path: {@code secret/data/app} to {@code secret/metadata/app}. */
+  static String metadataPath(String path) {
+    int data = path.indexOf("/data/");
+    return data < 0
+        ? path
+        : path.substring(0, data) + "/metadata/" + path.substring(data + "/data/".length());
+  }
+
+  private Map<String, Object> merge() {
+    Map<String, Object> result = new LinkedHashMap<>();
+    paths.values().forEach(state -> result.putAll(JsonMapFlattener.flatten(state.secrets())));
+    return Collections.unmodifiableMap(result);
+  }
+
+  private static Set<String> diff(Map<String, Object> before, Map<String, Object> after) {
+    Set<String> keys = new TreeSet<>();
+    before.forEach(
+        (key, value) -> {
+          if (!Objects.equals(value, after.get(key))) {
+            keys.add(key);
+          }
+        });
+    after.keySet().stream().filter(key -> !before.containsKey(key)).forEach(keys::add);
+    return keys;
+  }
+
+  /** Stops the scheduled rounds. */
+  @Override
+  public void close() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,272 @@
+package com.example.vault.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.vault.core.VaultOperations;
+import org.springframework.vault.support.VaultResponse;
+
+/**
+ * Keeps the leases of dynamic secrets, e.g. database credentials, alive from one timer thread.
+ *
+ * <p>All leases sit in one {@link HashedTimerWheel}. A lease is renewed after about two thirds of
+ * its duration, brought forward by a random share of up to {@code jitter}, so leases obtained
+ * together do not come due together. Leases due in the same tick are renewed as one batch on
+ * virtual threads, at most {@code maxConcurrency} at a time. Once Vault grants less than the
+ * requested increment, the lease has hit its max TTL, and the secret is read again instead: the
+ * listener receives the new secret, whose lease then takes the old one's place.
+ */
+public class LeaseRenewalScheduler implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(LeaseRenewalScheduler.class);
+
+  /** Delay before a failed renewal or reissue is tried again. */
+  static final Duration RETRY_DELAY = Duration.ofSeconds(10);
+
+  /** A leased secret and what to do when it is next due. */
+  private static final class Lease {
+    private final String path;
+    private final Consumer<VaultResponse> listener;
+    private volatile String leaseId;
+    private volatile Duration increment;
+    private volatile Duration duration;
+    private volatile boolean reissue;
+    private volatile boolean cancelled;
+
+    private Lease(String path, Consumer<VaultResponse> listener, VaultResponse response) {
+      this.path = path;
+      this.listener = listener;
+      update(response);
+    }
+
+    private void update(VaultResponse response) {
+      leaseId = response.getLeaseId();
+      duration = Duration.ofSeconds(response.getLeaseDuration());
+      increment = duration;
+      reissue = !response.isRenewable();
+    }
+  }
+
+  private final VaultOperations operations;
+  private final HashedTimerWheel<Lease> wheel;
+  private final Duration tick;
+  private final double jitter;
+  private final Semaphore permits;
+  private final ExecutorService executor =
+      Executors.newThreadPerTaskExecutor(
+          Thread.ofVirtual().name("vault-lease-renewal-", 0).factory());
+  private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+  private final AtomicInteger queueDepth = new AtomicInteger();
+  private final LongAdder renewals = new LongAdder();
+  private final LongAdder reissues = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private volatile long lagNanos;
+  private ScheduledExecutorService ticker;
+
+  /**
+   * @param operations Vault client of the renewals and reissues
+   * @param tick granularity of the timer wheel; leases due within one tick form one batch
+   * @param wheelSize number of ticks in the wheel
+   * @param jitter largest share of the renewal delay a lease is brought forward by, e.g. 0.1
+   * @param maxConcurrency maximum number of renewals in flight
+   */
+  public LeaseRenewalScheduler(
+      VaultOperations operations,
+      Duration tick,
+      int wheelSize,
+      double jitter,
+      int maxConcurrency) {
+    this.operations = operations;
+    this.wheel = new HashedTimerWheel<>(tick, wheelSize, System.nanoTime());
+    this.tick = tick;
+    this.jitter = jitter;
+    this.permits = new Semaphore(maxConcurrency);
+  }
+
+  /** Starts the timer thread, which expires the wheel every tick. */
+  public LeaseRenewalScheduler start() {
+    ticker =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("vault-lease-timer").factory());
+    ticker.scheduleAtFixedRate(
+        () -> runDue(System.nanoTime()), tick.toNanos(), tick.toNanos(), TimeUnit.NANOSECONDS);
+    return this;
+  }
+
+  /**
+   * Reads a leased secret and keeps its lease alive.
+   *
+   * @param listener receives the secret read again after the lease hit its max TTL
+   * @throws IllegalStateException if there is no secret at the path
+   */
+  public VaultResponse read(String path, Consumer<VaultResponse> listener) {
+    VaultResponse response = operations.read(path);
+    if (response == null) {
+      throw new IllegalStateException("No secret at " + path);
+    }
+    register(path, response, listener);
+    return response;
+  }
+
+  /**
+   * Keeps the lease of a secret read elsewhere alive, replacing any lease registered for the same
+   * path. Secrets without a lease are ignored.
+   */
+  public void register(String path, VaultResponse response, Consumer<VaultResponse> listener) {
+    if (response.getLeaseId() == null
+        || response.getLeaseId().isEmpty()
+        || response.getLeaseDuration() <= 0) {
+      return;
+    }
+    Lease lease = new Lease(path, listener, response);
+    Lease previous = leases.put(path, lease);
+    if (previous != null) {
+      previous.cancelled = true;
+    }
+    schedule(lease, System.nanoTime());
+  }
+
+  /** Stops renewing the lease of the path; it then runs out. */
+  public void cancel(String path) {
+    Lease lease = leases.remove(path);
+    if (lease != null) {
+      lease.cancelled = true;
+    }
+  }
+
+  /**
+   * Starts the renewals due by {@code nowNanos} as one batch.
+   *
+   * @return number of leases in the batch
+   */
+  int runDue(long nowNanos) {
+    List<HashedTimerWheel.Timeout<Lease>> due = wheel.expire(nowNanos);
+    long lag = 0;
+    for (HashedTimerWheel.Timeout<Lease> timeout : due) {
+      lag = Math.max(lag, nowNanos - timeout.deadlineNanos());
+      Lease lease = timeout.item();
+      if (lease.cancelled) {
+        continue;
+      }
+      queueDepth.incrementAndGet();
+      executor.execute(
+          () -> {
+            permits.acquireUninterruptibly();
+            try {
+              process(lease);
+            } finally {
+              permits.release();
+              queueDepth.decrementAndGet();
+            }
+          });
+    }
+    if (!due.isEmpty()) {
+      lagNanos = lag;
+      logger.debug("Renewing {} Vault leases, {}ms late.", due.size(), lag / 1_000_000);
+    }
+    return due.size();
+  }
+
+  private void process(Lease lease) {
+    try {
+      if (lease.reissue) {
+        reissue(lease);
+      } else {
+        renew(lease);
+      }
+    } catch (RuntimeException e) {
+      failures.increment();
+      logger.warn(
+          "Failed to {} the lease of {}: {}",
+          lease.reissue ? "reissue" : "renew",
+          lease.path,
+          e.getMessage());
+      // A lease that cannot be renewed may be gone already; a new secret is the way out.
+      lease.reissue = true;
+      wheel.schedule(lease, System.nanoTime() + RETRY_DELAY.toNanos());
+    }
+  }
+
+  private void renew(Lease lease) {
+    VaultResponse response =
+        operations.write(
+            "sys/leases/renew",
+            Map.of("lease_id", lease.leaseId, "increment", lease.increment.toSeconds()));
+    if (response == null) {
+      throw new IllegalStateException("No response to the renewal of " + lease.path);
+    }
+    renewals.increment();
+    Duration granted = Duration.ofSeconds(response.getLeaseDuration());
+    lease.duration = granted;
+    // Vault caps a renewal at the max TTL, so a short grant means the lease is nearly used up.
+    lease.reissue = !response.isRenewable() || granted.compareTo(lease.increment) < 0;
+    schedule(lease, System.nanoTime());
+  }
+
+  private void reissue(Lease lease) {
+    VaultResponse response = operations.read(lease.path);
+    if (response == null) {
+      throw new IllegalStateException("No secret at " + lease.path);
+    }
+    reissues.increment();
+    lease.update(response);
+    logger.info(
+        "Reissued the Vault secret of {} (lease {}s).", lease.path, response.getLeaseDuration());
+    if (!lease.cancelled) {
+      lease.listener.accept(response);
+      schedule(lease, System.nanoTime());
+    }
+  }
+
+  private void schedule(Lease lease, long nowNanos) {
+    double share = 2.0 / 3 * (1 - ThreadLocalRandom.current().nextDouble() * jitter);
+    wheel.schedule(lease, nowNanos + (long) (lease.duration.toNanos() * share));
+  }
+
+  /** Number of leases waiting in the wheel. */
+  public int getScheduledCount() {
+    return wheel.size();
+  }
+
+  /** Number of due renewals not finished yet, waiting for a permit or in flight. */
+  public int getQueueDepth() {
+    return queueDepth.get();
+  }
+
+  /** How late the last batch started relative to its earliest deadline. */
+  public Duration getLag() {
+    return Duration.ofNanos(lagNanos);
+  }
+
+  public long getRenewalCount() {
+    return renewals.sum();
+  }
+
+  public long getReissueCount() {
+    return reissues.sum();
+  }
+
+  public long getFailureCount() {
+    return failures.sum();
+  }
+
+  /** Stops the timer and the renewals in flight. Leases then run out on their own. */
+  @Override
+  public void close() {
+    if (ticker != null) {
+      ticker.shutdownNow();
+    }
+    executor.shutdownNow();
+  }
+}
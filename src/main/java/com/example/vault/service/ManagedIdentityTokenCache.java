@@ -0,0 +1,147 @@
+package com.example.vault.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory cache of Entra ID managed identity access tokens keyed by resource and client id.
+ *
+ * <p>A cached token is served until it is about to expire. Once it enters the refresh-ahead window
+ * a single background refresh is started; if that refresh fails the cached token keeps being served
+ * until it actually expires.
+ */
+public class ManagedIdentityTokenCache implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(ManagedIdentityTokenCache.class);
+
+  /** Tokens closer than this to their expiry are never handed out. */
+  private static final Duration MIN_VALIDITY = Duration.ofSeconds(30);
+
+  /** An access token and the instant it expires. */
+  public record AccessToken(String token, Instant expiresAt) {}
+
+  private record Key(String resource, String clientId) {}
+
+  private final ConcurrentHashMap<Key, AccessToken> tokens = new ConcurrentHashMap<>();
+  private final Set<Key> refreshing = ConcurrentHashMap.newKeySet();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final Duration refreshAhead;
+  private final Clock clock;
+  private final ExecutorService refreshExecutor =
+      Executors.newThreadPerTaskExecutor(
+          Thread.ofVirtual().name("uami-token-refresh-", 0).factory());
+
+  /**
+   * @param refreshAhead how long before expiry a background refresh is started
+   */
+  public ManagedIdentityTokenCache(Duration refreshAhead) {
+    this(refreshAhead, Clock.systemUTC());
+  }
+
+  ManagedIdentityTokenCache(Duration refreshAhead, Clock clock) {
+    this.refreshAhead = refreshAhead;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns a valid access token for the resource and client id, calling the loader synchronously
+   * only when no usable token is cached. The same loader runs background refreshes.
+   */
+  public String getToken(String resource, String clientId, Supplier<AccessToken> loader) {
+    return getToken(resource, clientId, loader, loader);
+  }
+
+  /**
+   * Returns a valid access token for the resource and client id, calling the loader synchronously
+   * only when no usable token is cached. A token in the refresh-ahead window is still served while
+   * the refresher runs in the background, after the caller has returned, so it must not share the
+   * caller's request state.
+   */
+  public String getToken(
+      String resource,
+      String clientId,
+      Supplier<AccessToken> loader,
+      Supplier<AccessToken> refresher) {
+    Key key = new Key(resource, clientId);
+    Instant now = clock.instant();
+    AccessToken cached = tokens.get(key);
+    if (cached != null && isUsable(cached, now)) {
+      if (!now.isBefore(cached.expiresAt().minus(refreshAhead))) {
+        refreshInBackground(key, refresher);
+      }
+      hits.increment();
+      return cached.token();
+    }
+    misses.increment();
+    AccessToken loaded = loader.get();
+    tokens.put(key, loaded);
+    return loaded.token();
+  }
+
+  /** Number of lookups served from the cache. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** Number of lookups that had to call the loader. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /** Earliest expiry among the cached tokens, or {@code null} if none is cached. */
+  Instant earliestExpiry() {
+    return tokens.values().stream()
+        .map(AccessToken::expiresAt)
+        .min(Instant::compareTo)
+        .orElse(null);
+  }
+
+  /** Drops all cached tokens. */
+  public void clear() {
+    tokens.clear();
+  }
+
+  private boolean isUsable(AccessToken token, Instant now) {
+    return now.isBefore(token.expiresAt().minus(MIN_VALIDITY));
+  }
+
+  private void refreshInBackground(Key key, Supplier<AccessToken> loader) {
+    if (!refreshing.add(key)) {
+      return;
+    }
+    try {
+      refreshExecutor.execute(
+          () -> {
+            try {
+              tokens.put(key, loader.get());
+              logger.debug("Refreshed managed identity access token for {}", key.resource());
+            } catch (RuntimeException e) {
+              logger.warn(
+                  "Background refresh of managed identity access token failed, serving cached"
+                      + " token until it expires: {}",
+                  e.getMessage());
+            } finally {
+              refreshing.remove(key);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      // Closed: the cached token is served until it expires, then loaded synchronously.
+      refreshing.remove(key);
+    }
+  }
+
+  @Override
+  public void close() {
+    refreshExecutor.shutdownNow();
+  }
+}
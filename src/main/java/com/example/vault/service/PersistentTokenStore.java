@@ -0,0 +1,220 @@
+package com.example.vault.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.vault.authentication.LoginToken;
+
+/**
+ * On-disk store of the last Vault login token, used to skip the login round trips on restart.
+ *
+ * <p>The file is readable only by its owner, guarded by a lock file while it is read or replaced,
+ * and encrypted with AES-GCM. The key is derived from a random secret in an owner-only key file
+ * next to it ({@code <path>.key}), the managed identity (client id, resource, role and Vault URI)
+ * and a per-write salt. The token file alone, e.g. in a copy or a backup without the key file,
+ * cannot be decrypted, and a file written for another identity is not accepted. The file
+ * permissions are still the only protection against whoever can read both files as their owner.
+ */
+public class PersistentTokenStore {
+  private static final Logger logger = LoggerFactory.getLogger(PersistentTokenStore.class);
+
+  private static final byte[] MAGIC = {'V', 'U', 'T', '1'};
+  private static final int SALT_LENGTH = 16;
+  private static final int IV_LENGTH = 12;
+  private static final int SECRET_LENGTH = 32;
+  private static final int TAG_BITS = 128;
+
+  /** A stored token and the instant its lease ended when it was written. */
+  public record StoredToken(String token, Instant expiresAt, boolean renewable, String accessor) {}
+
+  private final Path path;
+  private final Path lockPath;
+  private final Path keyPath;
+  private final byte[] identity;
+  private final SecureRandom random = new SecureRandom();
+  private final ObjectMapper objectMapper = TokenResponses.OBJECT_MAPPER;
+
+  /**
+   * @param path token file location
+   * @param identity managed identity parts the encryption key is derived from
+   */
+  public PersistentTokenStore(Path path, String... identity) {
+    this.path = path.toAbsolutePath();
+    this.lockPath = this.path.resolveSibling(this.path.getFileName() + ".lock");
+    this.keyPath = this.path.resolveSibling(this.path.getFileName() + ".key");
+    this.identity = String.join("|", identity).getBytes(StandardCharsets.UTF_8);
+  }
+
+  /** Returns the stored token, or empty if there is none or it cannot be read. */
+  public Optional<StoredToken> load() {
+    if (!Files.exists(path)) {
+      return Optional.empty();
+    }
+    try (FileChannel lockChannel = openLockChannel();
+        FileLock ignored = lockChannel.lock(0, Long.MAX_VALUE, true)) {
+      return Optional.of(decrypt(Files.readAllBytes(path), secret(false)));
+    } catch (IOException | GeneralSecurityException e) {
+      logger.warn("Ignoring unreadable vault token store {}: {}", path, e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  /** Replaces the stored token. Failures are logged and otherwise ignored. */
+  public void save(LoginToken token) {
+    StoredToken stored =
+        new StoredToken(
+            token.getToken(),
+            Instant.now().plus(token.getLeaseDuration()),
+            token.isRenewable(),
+            token.getAccessor());
+    try {
+      Files.createDirectories(path.getParent(), ownerOnly("rwx------"));
+      try (FileChannel lockChannel = openLockChannel();
+          FileLock ignored = lockChannel.lock()) {
+        byte[] data = encrypt(stored, secret(true));
+        Path tmp = Files.createTempFile(path.getParent(), ".vault-token", ".tmp", ownerOnly());
+        Files.write(tmp, data);
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException | GeneralSecurityException e) {
+      logger.warn("Failed to write vault token store {}: {}", path, e.getMessage());
+    }
+  }
+
+  /** Removes the stored token. */
+  public void delete() {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      logger.warn("Failed to delete vault token store {}: {}", path, e.getMessage());
+    }
+  }
+
+  private FileChannel openLockChannel() throws IOException {
+    return FileChannel.open(
+        lockPath,
+        Set.of(StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE),
+        ownerOnly());
+  }
+
+  /**
+   * Reads the secret of the key file, creating it on the first save.
+   *
+   * @throws IOException if the key file is missing and {@code create} is not set, or unreadable
+   */
+  private byte[] secret(boolean create) throws IOException {
+    if (!Files.exists(keyPath)) {
+      if (!create) {
+        throw new IOException("Missing token store key " + keyPath);
+      }
+      Path tmp = Files.createTempFile(path.getParent(), ".vault-token", ".key", ownerOnly());
+      Files.write(tmp, randomBytes(SECRET_LENGTH));
+      Files.move(tmp, keyPath, StandardCopyOption.ATOMIC_MOVE);
+    }
+    byte[] secret = Files.readAllBytes(keyPath);
+    if (secret.length != SECRET_LENGTH) {
+      throw new IOException("Unrecognized token store key " + keyPath);
+    }
+    return secret;
+  }
+
+  private byte[] encrypt(StoredToken stored, byte[] secret)
+      throws IOException, GeneralSecurityException {
+    ObjectNode json = objectMapper.createObjectNode();
+    json.put("token", stored.token());
+    json.put("expires_at", stored.expiresAt().getEpochSecond());
+    json.put("renewable", stored.renewable());
+    json.put("accessor", stored.accessor());
+
+    byte[] salt = randomBytes(SALT_LENGTH);
+    byte[] iv = randomBytes(IV_LENGTH);
+    Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+    cipher.init(
+        Cipher.ENCRYPT_MODE, deriveKey(secret, salt), new GCMParameterSpec(TAG_BITS, iv));
+    cipher.updateAAD(MAGIC);
+    byte[] ciphertext = cipher.doFinal(objectMapper.writeValueAsBytes(json));
+    return ByteBuffer.allocate(MAGIC.length + SALT_LENGTH + IV_LENGTH + ciphertext.length)
+        .put(MAGIC)
+        .put(salt)
+        .put(iv)
+        .put(ciphertext)
+        .array();
+  }
+
+  private StoredToken decrypt(byte[] data, byte[] secret)
+      throws IOException, GeneralSecurityException {
+    if (data.length <= MAGIC.length + SALT_LENGTH + IV_LENGTH
+        || !Arrays.equals(Arrays.copyOf(data, MAGIC.length), MAGIC)) {
+      throw new IOException("Unrecognized token store format");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(data, MAGIC.length, data.length - MAGIC.length);
+    byte[] salt = new byte[SALT_LENGTH];
+    byte[] iv = new byte[IV_LENGTH];
+    buffer.get(salt).get(iv);
+    byte[] ciphertext = new byte[buffer.remaining()];
+    buffer.get(ciphertext);
+
+    Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+    cipher.init(
+        Cipher.DECRYPT_MODE, deriveKey(secret, salt), new GCMParameterSpec(TAG_BITS, iv));
+    cipher.updateAAD(MAGIC);
+    JsonNode json = objectMapper.readTree(cipher.doFinal(ciphertext));
+    return new StoredToken(
+        json.path("token").asText(),
+        Instant.ofEpochSecond(json.path("expires_at").asLong()),
+        json.path("renewable").asBoolean(),
+        json.hasNonNull("accessor") ? json.get("accessor").asText() : null);
+  }
+
+  private SecretKeySpec deriveKey(byte[] secret, byte[] salt) throws GeneralSecurityException {
+    Mac mac = Mac.getInstance("HmacSHA256");
+    mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+    mac.update(identity);
+    mac.update(salt);
+    return new SecretKeySpec(
+        mac.doFinal("vault-uami-token-store".getBytes(StandardCharsets.UTF_8)), "AES");
+  }
+
+  private byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+
+  private static FileAttribute<?>[] ownerOnly() {
+    return ownerOnly("rw-------");
+  }
+
+  private static FileAttribute<?>[] ownerOnly(String permissions) {
+    if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      return new FileAttribute<?>[0];
+    }
+    return new FileAttribute<?>[] {
+      PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(permissions))
+    };
+  }
+}
@@ -0,0 +1,175 @@
+package com.example.vault.service;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.ssl.ApplicationProtocolConfig;
+import io.netty.handler.ssl.ClientAuth;
+import io.netty.handler.ssl.IdentityCipherSuiteFilter;
+import io.netty.handler.ssl.JdkSslContext;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import javax.net.ssl.SSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.vault.authentication.AuthenticationSteps;
+import org.springframework.vault.authentication.AuthenticationSteps.HttpRequestBuilder;
+import org.springframework.vault.authentication.AuthenticationStepsOperator;
+import org.springframework.vault.authentication.VaultTokenSupplier;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultToken;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Non-blocking variant of {@link UamiAuthService} for {@code ReactiveVaultTemplate}. The managed
+ * identity token fetch and the Vault Azure login run as one {@link AuthenticationSteps} pipeline on
+ * a {@link WebClient}, so no event-loop thread blocks during login.
+ */
+public class ReactiveUamiAuthService implements VaultTokenSupplier {
+  private static final Logger logger = LoggerFactory.getLogger(ReactiveUamiAuthService.class);
+
+  private final String vaultUri, vaultNamespace, vaultRole, vaultResourceId, vaultClientId;
+  private final WebClient webClient;
+  private final Duration loginTimeout;
+
+  /**
+   * Constructs the service with Vault and Azure identity parameters and a Reactor Netty client.
+   *
+   * @param sslContext TLS context of the client, the one of the blocking logins; {@code null} for
+   *     Reactor Netty's default trust
+   */
+  public ReactiveUamiAuthService(
+      String vaultUri,
+      String vaultNamespace,
+      String vaultRole,
+      String vaultResourceId,
+      String vaultClientId,
+      SSLContext sslContext,
+      Duration connectTimeout,
+      Duration responseTimeout,
+      Duration loginTimeout) {
+    this(
+        vaultUri,
+        vaultNamespace,
+        vaultRole,
+        vaultResourceId,
+        vaultClientId,
+        WebClient.builder()
+            .clientConnector(
+                new ReactorClientHttpConnector(
+                    createHttpClient(sslContext, connectTimeout, responseTimeout)))
+            .build(),
+        loginTimeout);
+  }
+
+  /** Constructs the service with Vault and Azure identity parameters and the given WebClient. */
+  public ReactiveUamiAuthService(
+      String vaultUri,
+      String vaultNamespace,
+      String vaultRole,
+      String vaultResourceId,
+      String vaultClientId,
+      WebClient webClient,
+      Duration loginTimeout) {
+    this.vaultUri = vaultUri;
+    this.vaultNamespace = vaultNamespace;
+    this.vaultRole = vaultRole;
+    this.vaultResourceId = vaultResourceId;
+    this.vaultClientId = vaultClientId;
+    this.webClient = webClient;
+    this.loginTimeout = loginTimeout;
+  }
+
+  private static HttpClient createHttpClient(
+      SSLContext sslContext, Duration connectTimeout, Duration responseTimeout) {
+    HttpClient httpClient =
+        HttpClient.create()
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+            .responseTimeout(responseTimeout);
+    if (sslContext == null) {
+      return httpClient;
+    }
+    // Default ciphers and protocols of the SSLContext, HTTP/1.1 without ALPN.
+    JdkSslContext nettySslContext =
+        new JdkSslContext(
+            sslContext,
+            true,
+            null,
+            IdentityCipherSuiteFilter.INSTANCE,
+            ApplicationProtocolConfig.DISABLED,
+            ClientAuth.NONE,
+            null,
+            false);
+    return httpClient.secure(spec -> spec.sslContext(nettySslContext));
+  }
+
+  /**
+   * Authenticates to Vault without blocking and emits a lease-aware LoginToken.
+   *
+   * @return Mono emitting the token, or an error on failure or timeout
+   */
+  @Override
+  public Mono<VaultToken> getVaultToken() {
+    return Mono.defer(
+            () ->
+                new AuthenticationStepsOperator(createAuthenticationSteps(), webClient)
+                    .getVaultToken())
+        .timeout(loginTimeout)
+        .doOnSuccess(token -> logger.info("Successfully authenticated to vault (reactive)."))
+        .onErrorMap(
+            e -> new RuntimeException("Vault authentication failed: " + e.getMessage(), e));
+  }
+
+  /** Describes the IMDS token fetch followed by the Vault Azure login. */
+  AuthenticationSteps createAuthenticationSteps() {
+    String identityEndpoint = getEnv("IDENTITY_ENDPOINT");
+    String identityHeader = getEnv("IDENTITY_HEADER");
+    if (identityEndpoint == null
+        || identityEndpoint.isEmpty()
+        || identityHeader == null
+        || identityHeader.isEmpty()) {
+      throw new RuntimeException(
+          "IDENTITY_ENDPOINT or IDENTITY_HEADER environment variable is missing");
+    }
+    HttpHeaders identityHeaders = new HttpHeaders();
+    identityHeaders.set("secret", identityHeader);
+
+    HttpHeaders vaultHeaders = new HttpHeaders();
+    vaultHeaders.add("X-Vault-Namespace", vaultNamespace);
+    vaultHeaders.setContentType(MediaType.APPLICATION_JSON);
+
+    return AuthenticationSteps.fromHttpRequest(
+            HttpRequestBuilder.get(
+                    identityEndpoint + "?resource={resource}&api-version=2017-09-01&clientId={id}",
+                    vaultResourceId,
+                    vaultClientId)
+                .with(identityHeaders)
+                .as(Map.class))
+        .map(
+            response -> {
+              Object accessToken = response.get("access_token");
+              if (accessToken == null) {
+                throw new IllegalStateException(
+                    "Access token response did not contain an access token");
+              }
+              // Like the blocking login, an unset role is sent as null rather than failing.
+              Map<String, Object> body = new HashMap<>();
+              body.put("role", vaultRole);
+              body.put("jwt", accessToken);
+              return body;
+            })
+        .login(
+            HttpRequestBuilder.post(vaultUri + "/v1/auth/azure/login")
+                .with(vaultHeaders)
+                .as(VaultResponse.class));
+  }
+
+  /** Returns the value of an environment variable. Overridable for testing. */
+  protected String getEnv(String key) {
+    return System.getenv(key);
+  }
+}
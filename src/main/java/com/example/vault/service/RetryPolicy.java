@@ -0,0 +1,142 @@
+package com.example.vault.service;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Retries calls to IMDS and Vault that failed with 429, 5xx or an I/O error.
+ *
+ * <p>Backoff uses decorrelated jitter, {@code min(maxBackoff, random(initialBackoff, previous *
+ * 3))}, so a fleet of clients spreads out instead of retrying in lockstep. A {@code Retry-After}
+ * header replaces the computed backoff. A retry is never started if its delay would pass the
+ * caller's deadline.
+ */
+public class RetryPolicy {
+  private static final Logger logger = LoggerFactory.getLogger(RetryPolicy.class);
+
+  /** Calls once, without retries. */
+  public static final RetryPolicy NONE =
+      new RetryPolicy(1, Duration.ZERO, Duration.ZERO, Duration.ofDays(1));
+
+  private final int maxAttempts;
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+  private final Duration deadline;
+
+  /**
+   * @param maxAttempts attempts per call, including the first
+   * @param initialBackoff lower bound of the backoff
+   * @param maxBackoff upper bound of the backoff
+   * @param deadline overall time budget of one authentication, across all calls and retries
+   */
+  public RetryPolicy(
+      int maxAttempts, Duration initialBackoff, Duration maxBackoff, Duration deadline) {
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffMillis = initialBackoff.toMillis();
+    this.maxBackoffMillis = maxBackoff.toMillis();
+    this.deadline = deadline;
+  }
+
+  /** {@link System#nanoTime()} value at which an authentication starting now must give up. */
+  public long deadlineFromNow() {
+    return System.nanoTime() + deadline.toNanos();
+  }
+
+  /**
+   * Runs the call through the circuit breaker, retrying retryable failures until it succeeds, the
+   * attempts are used up or the next retry would pass {@code deadlineNanos}.
+   *
+   * @throws RuntimeException the last failure, or {@link CircuitBreaker.OpenException}
+   */
+  public <T> T execute(CircuitBreaker circuitBreaker, long deadlineNanos, Supplier<T> call) {
+    long backoffMillis = initialBackoffMillis;
+    for (int attempt = 1; ; attempt++) {
+      circuitBreaker.acquirePermission();
+      try {
+        T result = call.get();
+        circuitBreaker.onSuccess();
+        return result;
+      } catch (RuntimeException e) {
+        if (!isRetryable(e)) {
+          circuitBreaker.onSuccess();
+          throw e;
+        }
+        circuitBreaker.onFailure();
+        if (attempt >= maxAttempts) {
+          throw e;
+        }
+        backoffMillis = nextBackoffMillis(backoffMillis);
+        Duration retryAfter = retryAfter(e);
+        long delayMillis = retryAfter != null ? retryAfter.toMillis() : backoffMillis;
+        if (System.nanoTime() + Duration.ofMillis(delayMillis).toNanos() > deadlineNanos) {
+          throw e;
+        }
+        logger.warn(
+            "Attempt {} failed ({}), retrying in {}ms.", attempt, e.getMessage(), delayMillis);
+        sleep(delayMillis, e);
+      }
+    }
+  }
+
+  /** Decorrelated jitter: a random delay between the initial backoff and three times the last. */
+  long nextBackoffMillis(long previousMillis) {
+    long upper = Math.max(initialBackoffMillis, previousMillis * 3);
+    long next =
+        upper > initialBackoffMillis
+            ? ThreadLocalRandom.current().nextLong(initialBackoffMillis, upper + 1)
+            : initialBackoffMillis;
+    return Math.min(maxBackoffMillis, next);
+  }
+
+  /** Whether the failure means the endpoint is unavailable (429, 5xx or I/O) and may recover. */
+  public static boolean isRetryable(Throwable failure) {
+    if (failure instanceof HttpStatusCodeException e) {
+      return e.getStatusCode().value() == 429 || e.getStatusCode().is5xxServerError();
+    }
+    return failure instanceof ResourceAccessException;
+  }
+
+  /** The {@code Retry-After} delay of a failed response, in seconds or as an HTTP date. */
+  static Duration retryAfter(Throwable failure) {
+    if (!(failure instanceof HttpStatusCodeException e) || e.getResponseHeaders() == null) {
+      return null;
+    }
+    String value = e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    try {
+      return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+    } catch (NumberFormatException ignored) {
+      // an HTTP date rather than seconds
+    }
+    try {
+      Duration delay =
+          Duration.between(
+              ZonedDateTime.now(),
+              ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+      return delay.isNegative() ? Duration.ZERO : delay;
+    } catch (DateTimeParseException ignored) {
+      return null;
+    }
+  }
+
+  private static void sleep(long millis, RuntimeException failure) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure.addSuppressed(e);
+      throw failure;
+    }
+  }
+}
@@ -0,0 +1,310 @@
+package com.example.vault.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.vault.core.VaultOperations;
+import org.springframework.vault.support.VaultResponse;
+
+/**
+ * Bounded in-memory cache of Vault secret reads keyed by namespace, path and KV version.
+ *
+ * <p>An entry lives for the secret's lease duration, or for KV v2 secrets until the {@code
+ * deletion_time} or a {@code ttl} custom metadata value, falling back to the default TTL. Past its
+ * refresh point (the TTL minus the refresh-ahead window, but no earlier than half the TTL) a single
+ * background reload is started while the cached response keeps being served. Concurrent misses for
+ * the same key share one Vault read. When the cache is full, the least recently read entries are
+ * dropped.
+ */
+public class SecretCache implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(SecretCache.class);
+
+  /** A cache key; {@code version} is {@code null} for the latest version. */
+  public record Key(String namespace, String path, Integer version) {}
+
+  private static final class Entry {
+    private final VaultResponse response;
+    private final Instant refreshAt;
+    private final Instant expiresAt;
+
+    Entry(VaultResponse response, Instant refreshAt, Instant expiresAt) {
+      this.response = response;
+      this.refreshAt = refreshAt;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * The keys of {@link #entries}, least recently read first. Writes to either map happen under
+   * {@link #lock}; a hit only reorders the key when the lock is free, so reads never wait.
+   */
+  private final LinkedHashMap<Key, Boolean> recency = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final ConcurrentHashMap<Key, SingleFlight<Entry>> loads = new ConcurrentHashMap<>();
+  private final Set<Key> refreshing = ConcurrentHashMap.newKeySet();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final int maxSize;
+  private final Duration defaultTtl;
+  private final Duration refreshAhead;
+  private final Clock clock;
+  private final ExecutorService refreshExecutor =
+      Executors.newThreadPerTaskExecutor(
+          Thread.ofVirtual().name("vault-secret-refresh-", 0).factory());
+
+  /**
+   * @param maxSize maximum number of cached secrets
+   * @param defaultTtl lifetime of secrets that carry neither a lease nor KV metadata TTL
+   * @param refreshAhead how long before expiry a background reload is started
+   */
+  public SecretCache(int maxSize, Duration defaultTtl, Duration refreshAhead) {
+    this(maxSize, defaultTtl, refreshAhead, Clock.systemUTC());
+  }
+
+  SecretCache(int maxSize, Duration defaultTtl, Duration refreshAhead, Clock clock) {
+    this.maxSize = maxSize;
+    this.defaultTtl = defaultTtl;
+    this.refreshAhead = refreshAhead;
+    this.clock = clock;
+  }
+
+  /** Reads the latest version of a secret through the cache with {@link VaultOperations#read}. */
+  public VaultResponse read(VaultOperations operations, String namespace, String path) {
+    return get(new Key(namespace, path, null), () -> operations.read(path));
+  }
+
+  /**
+   * Returns the cached response for the key, calling the loader only on a miss. The loader result
+   * may be {@code null} (secret not found), which is not cached.
+   */
+  public VaultResponse get(Key key, Supplier<VaultResponse> loader) {
+    Instant now = clock.instant();
+    Entry cached = entries.get(key);
+    if (cached != null) {
+      if (now.isBefore(cached.expiresAt)) {
+        touch(key);
+        if (!now.isBefore(cached.refreshAt)) {
+          refreshInBackground(key, loader);
+        }
+        hits.increment();
+        return cached.response;
+      }
+      if (remove(key, cached)) {
+        evictions.increment();
+      }
+    }
+    misses.increment();
+    SingleFlight<Entry> flight = loads.computeIfAbsent(key, k -> new SingleFlight<>());
+    Entry loaded =
+        flight.execute(
+                () -> {
+                  // A load that finished just before this one started already has the answer.
+                  Entry current = entries.get(key);
+                  return current != null && now.isBefore(current.expiresAt)
+                      ? current
+                      : load(key, loader);
+                });
+    if (loaded == null) {
+      // Nothing was cached, so keep no load state for a key that may never be read again.
+      loads.remove(key, flight);
+      return null;
+    }
+    return loaded.response;
+  }
+
+  /** Drops one secret, e.g. after writing it. */
+  public void invalidate(Key key) {
+    remove(key, null);
+    loads.remove(key);
+  }
+
+  /** Drops all cached secrets. */
+  public void clear() {
+    lock.lock();
+    try {
+      entries.clear();
+      recency.clear();
+    } finally {
+      lock.unlock();
+    }
+    loads.clear();
+  }
+
+  /** Number of reads served from the cache. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** Number of reads that went to Vault. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /** Number of entries dropped because they expired or the cache was full. */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /** Number of cached secrets. */
+  public int size() {
+    return entries.size();
+  }
+
+  private Entry load(Key key, Supplier<VaultResponse> loader) {
+    VaultResponse response = loader.get();
+    if (response == null) {
+      remove(key, null);
+      return null;
+    }
+    Entry entry = newEntry(response);
+    lock.lock();
+    try {
+      entries.put(key, entry);
+      recency.put(key, Boolean.TRUE);
+      evict();
+    } finally {
+      lock.unlock();
+    }
+    return entry;
+  }
+
+  /** Moves the key to the most recently read end, unless another thread holds the lock. */
+  private void touch(Key key) {
+    if (lock.tryLock()) {
+      try {
+        recency.get(key);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /** Removes the key if it maps to {@code expected}, or to anything when that is {@code null}. */
+  private boolean remove(Key key, Entry expected) {
+    lock.lock();
+    try {
+      boolean removed =
+          expected == null ? entries.remove(key) != null : entries.remove(key, expected);
+      if (removed) {
+        recency.remove(key);
+      }
+      return removed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Entry newEntry(VaultResponse response) {
+    Instant now = clock.instant();
+    Instant expiresAt = now.plus(ttl(response));
+    Instant deletionTime = deletionTime(response);
+    if (deletionTime != null && deletionTime.isBefore(expiresAt)) {
+      expiresAt = deletionTime;
+    }
+    Duration lifetime = Duration.between(now, expiresAt);
+    Duration beforeRefresh = lifetime.minus(refreshAhead);
+    if (beforeRefresh.compareTo(lifetime.dividedBy(2)) < 0) {
+      beforeRefresh = lifetime.dividedBy(2);
+    }
+    return new Entry(response, now.plus(beforeRefresh), expiresAt);
+  }
+
+  /** Lease duration, else the KV v2 {@code ttl} custom metadata, else the default TTL. */
+  private Duration ttl(VaultResponse response) {
+    if (response.getLeaseDuration() > 0) {
+      return Duration.ofSeconds(response.getLeaseDuration());
+    }
+    Map<?, ?> metadata = kvMetadata(response);
+    Object customTtl =
+        metadata != null && metadata.get("custom_metadata") instanceof Map<?, ?> custom
+            ? custom.get("ttl")
+            : null;
+    if (customTtl != null) {
+      try {
+        return DurationStyle.detectAndParse(customTtl.toString());
+      } catch (IllegalArgumentException e) {
+        logger.warn("Ignoring invalid ttl custom metadata '{}'.", customTtl);
+      }
+    }
+    return defaultTtl;
+  }
+
+  private static Instant deletionTime(VaultResponse response) {
+    Map<?, ?> metadata = kvMetadata(response);
+    if (metadata == null
+        || !(metadata.get("deletion_time") instanceof String value)
+        || value.isEmpty()) {
+      return null;
+    }
+    try {
+      return Instant.parse(value);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  /** The {@code data.metadata} map of a KV v2 read, or {@code null} for other secrets. */
+  private static Map<?, ?> kvMetadata(VaultResponse response) {
+    if (response.getData() != null
+        && response.getData().get("metadata") instanceof Map<?, ?> metadata
+        && response.getData().get("data") instanceof Map<?, ?>) {
+      return metadata;
+    }
+    return null;
+  }
+
+  /** Drops the least recently read entries until the cache fits again; called under the lock. */
+  private void evict() {
+    Iterator<Key> eldest = recency.keySet().iterator();
+    while (entries.size() > maxSize && eldest.hasNext()) {
+      Key key = eldest.next();
+      eldest.remove();
+      entries.remove(key);
+      loads.remove(key);
+      evictions.increment();
+    }
+  }
+
+  private void refreshInBackground(Key key, Supplier<VaultResponse> loader) {
+    if (!refreshing.add(key)) {
+      return;
+    }
+    refreshExecutor.execute(
+        () -> {
+          try {
+            load(key, loader);
+            logger.debug("Refreshed cached secret {}", key.path());
+          } catch (RuntimeException e) {
+            logger.warn(
+                "Background refresh of secret {} failed, serving cached value until it expires: {}",
+                key.path(),
+                e.getMessage());
+          } finally {
+            refreshing.remove(key);
+          }
+        });
+  }
+
+  @Override
+  public void close() {
+    refreshExecutor.shutdownNow();
+  }
+}
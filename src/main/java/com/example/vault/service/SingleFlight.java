@@ -0,0 +1,63 @@
+package com.example.vault.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls: while one call is in flight, further callers wait for it and share
+ * its result or failure instead of starting their own. No monitor is held while the call runs; the
+ * in-flight call is published through a compare-and-set.
+ *
+ * @param <T> result type
+ */
+public class SingleFlight<T> {
+
+  private final AtomicReference<CompletableFuture<T>> inFlight = new AtomicReference<>();
+  private final LongAdder joins = new LongAdder();
+
+  /**
+   * Runs the call, or joins the call already in flight.
+   *
+   * @return the result of the call this caller ran or joined
+   */
+  public T execute(Supplier<T> call) {
+    CompletableFuture<T> own = new CompletableFuture<>();
+    CompletableFuture<T> current = inFlight.compareAndExchange(null, own);
+    if (current != null) {
+      joins.increment();
+      return join(current);
+    }
+    try {
+      T result = call.get();
+      own.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      own.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.compareAndSet(own, null);
+    }
+  }
+
+  /** Number of calls that joined an in-flight call instead of running their own. */
+  public long getJoinCount() {
+    return joins.sum();
+  }
+
+  private T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package com.example.vault.service;
+
+import com.example.vault.service.ManagedIdentityTokenCache.AccessToken;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.Locale;
+import org.springframework.vault.authentication.LoginToken;
+
+/**
+ * Streaming extraction of the few fields the login path needs from identity endpoint and Vault
+ * responses. Fields are read with a {@link JsonParser} straight from the response stream; the body
+ * is never buffered as a String or parsed into a tree, and unknown fields are skipped.
+ *
+ * <p>Malformed JSON surfaces as an {@link IOException}; a well-formed response without the
+ * expected fields as an {@link IllegalStateException}.
+ */
+public final class TokenResponses {
+
+  /**
+   * Shared, pre-configured mapper for the login path. Thread-safe once configured; it leaves
+   * streams open so request bodies can be written into the HTTP client's stream, and so a response
+   * can still be read to its end and its connection reused once the fields are found.
+   */
+  public static final ObjectMapper OBJECT_MAPPER =
+      JsonMapper.builder()
+          .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+          .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+          .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+          .build();
+
+  private static final JsonFactory JSON_FACTORY = OBJECT_MAPPER.getFactory();
+
+  /** {@code expires_on} format of the App Service identity endpoint (api-version 2017-09-01). */
+  private static final DateTimeFormatter APP_SERVICE_EXPIRES_ON =
+      DateTimeFormatter.ofPattern("M/d/yyyy h:mm:ss a xxx", Locale.US)
+          .withResolverStyle(ResolverStyle.LENIENT);
+
+  private TokenResponses() {}
+
+  /**
+   * Reads {@code access_token} and its expiry from an identity endpoint response. An unknown
+   * expiry yields {@code now}, so the token is not reused.
+   */
+  public static AccessToken readAccessToken(InputStream body, Instant now) throws IOException {
+    String accessToken = null, expiresIn = null, expiresOn = null;
+    try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+      startObject(parser);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        parser.nextToken();
+        switch (field) {
+          case "access_token" -> accessToken = parser.getValueAsString();
+          case "expires_in" -> expiresIn = parser.getValueAsString();
+          case "expires_on" -> expiresOn = parser.getValueAsString();
+          default -> parser.skipChildren();
+        }
+      }
+    }
+    if (accessToken == null || accessToken.isEmpty()) {
+      throw new IllegalStateException("Access token response did not contain an access token");
+    }
+    return new AccessToken(accessToken, parseExpiry(expiresIn, expiresOn, now));
+  }
+
+  /** Reads the lease-aware login token from the {@code auth} block of a Vault login response. */
+  public static LoginToken readLoginToken(InputStream body) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+      startObject(parser);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        if (parser.nextToken() == JsonToken.START_OBJECT && "auth".equals(field)) {
+          return readToken(parser, null, "client_token", "lease_duration");
+        }
+        parser.skipChildren();
+      }
+    }
+    throw new IllegalStateException("Vault login response did not contain a client token");
+  }
+
+  /** Reads the remaining TTL of {@code token} from the {@code data} block of a lookup-self. */
+  public static LoginToken readLookupSelf(InputStream body, String token) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+      startObject(parser);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        if (parser.nextToken() == JsonToken.START_OBJECT && "data".equals(field)) {
+          return readToken(parser, token, null, "ttl");
+        }
+        parser.skipChildren();
+      }
+    }
+    throw new IllegalStateException("Vault lookup-self response did not contain token data");
+  }
+
+  private static LoginToken readToken(
+      JsonParser parser, String token, String tokenField, String ttlField) throws IOException {
+    String accessor = null;
+    long ttl = 0;
+    boolean renewable = false;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      if (field.equals(tokenField)) {
+        token = parser.getValueAsString();
+      } else if (field.equals(ttlField)) {
+        ttl = parser.getValueAsLong();
+      } else if (field.equals("renewable")) {
+        renewable = parser.getValueAsBoolean();
+      } else if (field.equals("accessor")) {
+        accessor = parser.getValueAsString();
+      } else {
+        parser.skipChildren();
+      }
+    }
+    if (token == null || token.isEmpty()) {
+      throw new IllegalStateException("Vault login response did not contain a client token");
+    }
+    var builder =
+        LoginToken.builder()
+            .token(token)
+            .leaseDuration(Duration.ofSeconds(ttl))
+            .renewable(renewable);
+    if (accessor != null && !accessor.isEmpty()) {
+      builder.accessor(accessor);
+    }
+    return builder.build();
+  }
+
+  private static void startObject(JsonParser parser) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new IOException("Expected a JSON object response");
+    }
+  }
+
+  private static Instant parseExpiry(String expiresIn, String expiresOn, Instant now) {
+    if (expiresIn != null && !expiresIn.isEmpty()) {
+      try {
+        return now.plusSeconds(Long.parseLong(expiresIn));
+      } catch (NumberFormatException ignored) {
+        // fall through to expires_on
+      }
+    }
+    if (expiresOn != null && !expiresOn.isEmpty()) {
+      try {
+        return Instant.ofEpochSecond(Long.parseLong(expiresOn));
+      } catch (NumberFormatException ignored) {
+        // fall through to the App Service date format
+      }
+      try {
+        return OffsetDateTime.parse(expiresOn, APP_SERVICE_EXPIRES_ON).toInstant();
+      } catch (DateTimeParseException ignored) {
+        // unknown format, do not reuse the token
+      }
+    }
+    return now;
+  }
+}
@@ -0,0 +1,273 @@
+package com.example.vault.service;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.vault.authentication.LoginToken;
+
+/**
+ * Micrometer meters for the UAMI authentication pipeline.
+ *
+ * <p>Counters and gauges are registered once; timers are cached per tag combination, so recording
+ * on the login path is a map lookup and an increment. The components are created during bootstrap,
+ * before any {@code MeterRegistry} bean exists, so the application wires this to {@code
+ * Metrics.globalRegistry}, which Spring Boot links to its registry once the context is up.
+ *
+ * <p>Every meter carries an {@code identity} tag: {@code default} for the {@code vault.uami.*}
+ * identity, or the name of the {@code vault.uami.identities} entry.
+ */
+public class UamiAuthMetrics {
+
+  public static final String IMDS_FETCH = "vault.uami.imds.fetch";
+  public static final String VAULT_LOGIN = "vault.uami.vault.login";
+  public static final String AUTHENTICATE = "vault.uami.authenticate";
+  public static final String LOGINS = "vault.uami.logins";
+  public static final String RENEWALS = "vault.uami.renewals";
+  public static final String COALESCED_LOGINS = "vault.uami.logins.coalesced";
+  public static final String TOKEN_CACHE = "vault.uami.token.cache";
+  public static final String TIME_TO_EXPIRY = "vault.uami.token.time.to.expiry";
+  public static final String SECRET_CACHE = "vault.uami.secret.cache";
+  public static final String SECRET_CACHE_EVICTIONS = "vault.uami.secret.cache.evictions";
+  public static final String SECRET_CACHE_SIZE = "vault.uami.secret.cache.size";
+  public static final String ENDPOINT_LATENCY = "vault.uami.endpoint.latency";
+  public static final String LEASE_RENEWALS = "vault.uami.lease.renewals";
+  public static final String LEASE_SCHEDULED = "vault.uami.lease.scheduled";
+  public static final String LEASE_QUEUE_DEPTH = "vault.uami.lease.queue.depth";
+  public static final String LEASE_LAG = "vault.uami.lease.lag";
+
+  /** Discards everything; used when no registry is configured. */
+  public static final UamiAuthMetrics NOOP = new UamiAuthMetrics(new CompositeMeterRegistry());
+
+  private record TimerKey(String name, boolean success, int status) {}
+
+  /** Outcome and wall-clock time of the last login or renewal. */
+  public record Outcome(boolean success, Instant at) {}
+
+  private final MeterRegistry registry;
+  private final Tags tags;
+  private final Clock clock;
+  private final ConcurrentHashMap<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+  private final Counter vaultLogins;
+  private final Counter storedTokenLogins;
+  private final Counter renewals;
+  private final Counter failedRenewals;
+  private volatile Instant vaultTokenExpiresAt;
+  private volatile Outcome lastLogin;
+  private volatile Outcome lastRenewal;
+
+  public UamiAuthMetrics(MeterRegistry registry) {
+    this(registry, "default");
+  }
+
+  public UamiAuthMetrics(MeterRegistry registry, String identity) {
+    this.registry = registry;
+    this.tags = Tags.of("identity", identity);
+    this.clock = registry.config().clock();
+    this.vaultLogins =
+        Counter.builder(LOGINS)
+            .description("Vault logins, by where the token came from")
+            .tags(tags)
+            .tag("source", "vault")
+            .register(registry);
+    this.storedTokenLogins =
+        Counter.builder(LOGINS)
+            .description("Vault logins, by where the token came from")
+            .tags(tags)
+            .tag("source", "token-store")
+            .register(registry);
+    this.renewals =
+        Counter.builder(RENEWALS).tags(tags).tag("outcome", "SUCCESS").register(registry);
+    this.failedRenewals =
+        Counter.builder(RENEWALS).tags(tags).tag("outcome", "FAILURE").register(registry);
+    Gauge.builder(TIME_TO_EXPIRY, this, metrics -> secondsUntil(metrics.vaultTokenExpiresAt))
+        .description("Seconds until the current token expires")
+        .tags(tags)
+        .tag("token", "vault")
+        .baseUnit("seconds")
+        .register(registry);
+  }
+
+  /** Start time for {@link #recordExchange} and {@link #recordAuthenticate}. */
+  public long start() {
+    return clock.monotonicTime();
+  }
+
+  /**
+   * Records one HTTP exchange under {@link #IMDS_FETCH} or {@link #VAULT_LOGIN}.
+   *
+   * @param status HTTP status, or 0 if no response was received
+   */
+  public void recordExchange(String name, long start, boolean success, int status) {
+    timer(name, success, status).record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+  }
+
+  /** Records an end-to-end {@code authenticate()}. */
+  public void recordAuthenticate(long start, boolean success) {
+    timer(AUTHENTICATE, success, -1).record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+    lastLogin = new Outcome(success, now());
+  }
+
+  /** Counts a completed login and tracks the expiry of the token it produced. */
+  public void recordLogin(LoginToken token, boolean fromTokenStore) {
+    (fromTokenStore ? storedTokenLogins : vaultLogins).increment();
+    vaultTokenExpiresAt = expiry(token);
+    lastLogin = new Outcome(true, now());
+  }
+
+  /**
+   * Counts a token renewal.
+   *
+   * @param token the renewed token, or {@code null} if the renewal failed or its TTL is unknown
+   */
+  public void recordRenewal(boolean success, LoginToken token) {
+    (success ? renewals : failedRenewals).increment();
+    if (token != null) {
+      vaultTokenExpiresAt = expiry(token);
+    }
+    lastRenewal = new Outcome(success, now());
+  }
+
+  /** When the current Vault token expires, if a login has completed. */
+  public Optional<Instant> getTokenExpiresAt() {
+    return Optional.ofNullable(vaultTokenExpiresAt);
+  }
+
+  /** The last login, including reuse of a token from the token store. */
+  public Optional<Outcome> getLastLogin() {
+    return Optional.ofNullable(lastLogin);
+  }
+
+  public Optional<Outcome> getLastRenewal() {
+    return Optional.ofNullable(lastRenewal);
+  }
+
+  /** Exposes cache hits, misses and the earliest access token expiry. */
+  public void bindTokenCache(ManagedIdentityTokenCache cache) {
+    FunctionCounter.builder(TOKEN_CACHE, cache, ManagedIdentityTokenCache::getHitCount)
+        .tags(tags)
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder(TOKEN_CACHE, cache, ManagedIdentityTokenCache::getMissCount)
+        .tags(tags)
+        .tag("result", "miss")
+        .register(registry);
+    Gauge.builder(TIME_TO_EXPIRY, cache, c -> secondsUntil(c.earliestExpiry()))
+        .description("Seconds until the current token expires")
+        .tags(tags)
+        .tag("token", "access")
+        .baseUnit("seconds")
+        .register(registry);
+  }
+
+  /** Exposes secret cache hits, misses, evictions and size. */
+  public void bindSecretCache(SecretCache cache) {
+    FunctionCounter.builder(SECRET_CACHE, cache, SecretCache::getHitCount)
+        .tags(tags)
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder(SECRET_CACHE, cache, SecretCache::getMissCount)
+        .tags(tags)
+        .tag("result", "miss")
+        .register(registry);
+    FunctionCounter.builder(SECRET_CACHE_EVICTIONS, cache, SecretCache::getEvictionCount)
+        .description("Cached secrets dropped because they expired or the cache was full")
+        .tags(tags)
+        .register(registry);
+    Gauge.builder(SECRET_CACHE_SIZE, cache, SecretCache::size)
+        .description("Number of cached secrets")
+        .tags(tags)
+        .register(registry);
+  }
+
+  /** Exposes the average health probe latency per Vault node; NaN while unknown or ejected. */
+  public void bindEndpointRouter(VaultEndpointRouter router) {
+    for (String endpoint : router.endpoints()) {
+      Gauge.builder(
+              ENDPOINT_LATENCY,
+              router,
+              r -> r.latency(endpoint).map(latency -> latency.toNanos() / 1e9).orElse(Double.NaN))
+          .description("Average sys/health latency of a Vault node")
+          .tags(tags)
+          .tag("endpoint", endpoint)
+          .baseUnit("seconds")
+          .register(registry);
+    }
+  }
+
+  /** Exposes how many logins joined one already in flight. */
+  public void bindCoalescedLogins(SingleFlight<?> singleFlight) {
+    FunctionCounter.builder(COALESCED_LOGINS, singleFlight, flight -> flight.getJoinCount())
+        .description("Logins that joined an in-flight login")
+        .tags(tags)
+        .register(registry);
+  }
+
+  /** Exposes lease renewals, reissues and failures, the leases waiting and how late they run. */
+  public void bindLeaseScheduler(LeaseRenewalScheduler scheduler) {
+    FunctionCounter.builder(LEASE_RENEWALS, scheduler, LeaseRenewalScheduler::getRenewalCount)
+        .tags(tags)
+        .tag("result", "renewed")
+        .register(registry);
+    FunctionCounter.builder(LEASE_RENEWALS, scheduler, LeaseRenewalScheduler::getReissueCount)
+        .tags(tags)
+        .tag("result", "reissued")
+        .register(registry);
+    FunctionCounter.builder(LEASE_RENEWALS, scheduler, LeaseRenewalScheduler::getFailureCount)
+        .tags(tags)
+        .tag("result", "failed")
+        .register(registry);
+    Gauge.builder(LEASE_SCHEDULED, scheduler, LeaseRenewalScheduler::getScheduledCount)
+        .description("Number of leases waiting for their renewal")
+        .tags(tags)
+        .register(registry);
+    Gauge.builder(LEASE_QUEUE_DEPTH, scheduler, LeaseRenewalScheduler::getQueueDepth)
+        .description("Number of due lease renewals not finished yet")
+        .tags(tags)
+        .register(registry);
+    Gauge.builder(LEASE_LAG, scheduler, s -> s.getLag().toNanos() / 1e9)
+        .description("How late the last batch of lease renewals started")
+        .tags(tags)
+        .baseUnit("seconds")
+        .register(registry);
+  }
+
+  private Timer timer(String name, boolean success, int status) {
+    return timers.computeIfAbsent(
+        new TimerKey(name, success, status),
+        key -> {
+          Timer.Builder builder =
+              Timer.builder(key.name())
+                  .tags(tags)
+                  .tag("outcome", key.success() ? "SUCCESS" : "FAILURE");
+          if (key.status() >= 0) {
+            builder.tag("status", key.status() == 0 ? "NONE" : String.valueOf(key.status()));
+          }
+          return builder.register(registry);
+        });
+  }
+
+  private Instant expiry(LoginToken token) {
+    return now().plus(token.getLeaseDuration());
+  }
+
+  private Instant now() {
+    return Instant.ofEpochMilli(clock.wallTime());
+  }
+
+  private double secondsUntil(Instant expiresAt) {
+    if (expiresAt == null) {
+      return Double.NaN;
+    }
+    return Duration.between(Instant.ofEpochMilli(clock.wallTime()), expiresAt).toMillis() / 1000d;
+  }
+}
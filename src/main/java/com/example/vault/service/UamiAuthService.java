@@ -1,29 +1,57 @@
 package com.example.vault.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.vault.diagnostics.AuthenticateEvent;
+import com.example.vault.diagnostics.FlightRecording;
+import com.example.vault.diagnostics.HttpExchangeEvent;
+import com.example.vault.diagnostics.StartupTimeline;
+import com.example.vault.service.ManagedIdentityTokenCache.AccessToken;
+import com.example.vault.transport.ClassicHttpTransport;
+import com.example.vault.transport.HttpTransport;
+import com.example.vault.transport.TlsContexts;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
-import org.apache.hc.client5.http.ssl.TrustSelfSignedStrategy;
-import org.apache.hc.core5.ssl.SSLContexts;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.*;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
-import org.springframework.vault.support.VaultToken;
+import org.springframework.vault.authentication.LoginToken;
+import org.springframework.vault.client.SimpleVaultEndpointProvider;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.client.VaultEndpointProvider;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
 /**
  * Service for authenticating to Enterprise HashiCorp Vault using UAMI (User Assigned Managed
  * Identity) via Entra ID.
+ *
+ * <p>All logins share one pooled {@link HttpTransport}, so repeated logins reuse connections and
+ * TLS sessions. The transport is released by {@link #close()}.
  */
-public class UamiAuthService {
+public class UamiAuthService implements AutoCloseable {
   private static final Logger logger = LoggerFactory.getLogger(UamiAuthService.class);
 
-  private final String vaultUri, vaultNamespace, vaultRole, vaultResourceId, vaultClientId;
+  private final VaultEndpointProvider vaultEndpoint;
+  private final String vaultNamespace, vaultRole, vaultResourceId, vaultClientId;
+  private final ManagedIdentityTokenCache accessTokenCache;
+  private final UamiAuthMetrics metrics;
+  private final AuthResilience resilience;
+
+  private volatile HttpTransport transport;
+  private volatile RestTemplate restTemplate;
 
   /** Constructs the service with Vault and Azure identity parameters. */
   public UamiAuthService(
@@ -32,35 +60,155 @@ public class UamiAuthService {
       String vaultRole,
       String vaultResourceId,
       String vaultClientId) {
-    this.vaultUri = vaultUri;
+    this(vaultUri, vaultNamespace, vaultRole, vaultResourceId, vaultClientId, null);
+  }
+
+  /**
+   * Constructs the service with Vault and Azure identity parameters and the pooled HTTP client used
+   * for every login. The service takes ownership of the client and closes it in {@link #close()}.
+   */
+  public UamiAuthService(
+      String vaultUri,
+      String vaultNamespace,
+      String vaultRole,
+      String vaultResourceId,
+      String vaultClientId,
+      CloseableHttpClient httpClient) {
+    this(
+        vaultUri,
+        vaultNamespace,
+        vaultRole,
+        vaultResourceId,
+        vaultClientId,
+        httpClient == null ? null : new ClassicHttpTransport(httpClient),
+        null,
+        UamiAuthMetrics.NOOP,
+        AuthResilience.none());
+  }
+
+  /**
+   * Constructs the service on any {@link HttpTransport}, retrying IMDS and Vault login failures and
+   * failing fast while an endpoint's circuit breaker is open. The service takes ownership of the
+   * transport and closes it in {@link #close()}.
+   *
+   * @param transport transport of every login, or {@code null} for a pooled default
+   * @param accessTokenCache managed identity access token cache, or {@code null} to fetch a new
+   *     access token for every login
+   * @param metrics recorder of IMDS, Vault login and end-to-end authentication timings
+   */
+  public UamiAuthService(
+      String vaultUri,
+      String vaultNamespace,
+      String vaultRole,
+      String vaultResourceId,
+      String vaultClientId,
+      HttpTransport transport,
+      ManagedIdentityTokenCache accessTokenCache,
+      UamiAuthMetrics metrics,
+      AuthResilience resilience) {
+    this(
+        SimpleVaultEndpointProvider.of(VaultEndpoint.from(URI.create(vaultUri))),
+        vaultNamespace,
+        vaultRole,
+        vaultResourceId,
+        vaultClientId,
+        transport,
+        accessTokenCache,
+        metrics,
+        resilience);
+  }
+
+  /**
+   * Constructs the service as above, logging in to the Vault node the provider returns at the time
+   * of each login, such as the active node of a {@link VaultEndpointRouter}.
+   */
+  public UamiAuthService(
+      VaultEndpointProvider vaultEndpoint,
+      String vaultNamespace,
+      String vaultRole,
+      String vaultResourceId,
+      String vaultClientId,
+      HttpTransport transport,
+      ManagedIdentityTokenCache accessTokenCache,
+      UamiAuthMetrics metrics,
+      AuthResilience resilience) {
+    this.vaultEndpoint = vaultEndpoint;
     this.vaultNamespace = vaultNamespace;
     this.vaultRole = vaultRole;
     this.vaultResourceId = vaultResourceId;
     this.vaultClientId = vaultClientId;
+    this.transport = transport;
+    this.accessTokenCache = accessTokenCache;
+    this.metrics = metrics;
+    this.resilience = resilience;
   }
 
   /**
-   * Authenticates to Vault and returns a VaultToken.
+   * Authenticates to Vault and returns a LoginToken carrying the lease duration, renewability and
+   * accessor reported by Vault, so session lifecycle management can renew instead of re-login.
    *
-   * @return VaultToken on success
+   * @return LoginToken on success
    * @throws RuntimeException on failure
    */
-  public VaultToken authenticate() {
+  public LoginToken authenticate() {
     logger.info("Authenticating to vault using UAMI via Entra ID...");
+    AuthenticateEvent event = FlightRecording.isActive() ? new AuthenticateEvent() : null;
+    if (event != null) {
+      event.begin();
+    }
+    long start = metrics.start();
+    long deadline = resilience.retryPolicy().deadlineFromNow();
+    AtomicInteger imdsAttempts = new AtomicInteger();
+    AtomicInteger loginAttempts = new AtomicInteger();
+    boolean success = false;
     try {
-      RestTemplate restTemplate = createRestTemplate();
-      String accessToken = fetchAccessToken(restTemplate);
-      String clientToken = fetchVaultToken(restTemplate, accessToken);
-      logger.info("Successfully authenticated to vault.");
-      return VaultToken.of(clientToken);
+      RestTemplate restTemplate = getRestTemplate();
+      String accessToken =
+          accessTokenCache == null
+              ? fetchAccessToken(restTemplate, deadline, imdsAttempts).token()
+              : accessTokenCache.getToken(
+                  vaultResourceId,
+                  vaultClientId,
+                  () -> fetchAccessToken(restTemplate, deadline, imdsAttempts),
+                  // Runs after this login returned, so it gets its own deadline and attempt count.
+                  () ->
+                      fetchAccessToken(
+                          restTemplate,
+                          resilience.retryPolicy().deadlineFromNow(),
+                          new AtomicInteger()));
+      LoginToken loginToken = fetchVaultToken(restTemplate, accessToken, deadline, loginAttempts);
+      logger.info(
+          "Successfully authenticated to vault (lease {}s, renewable {}).",
+          loginToken.getLeaseDuration().toSeconds(),
+          loginToken.isRenewable());
+      metrics.recordAuthenticate(start, true);
+      success = true;
+      return loginToken;
     } catch (Exception e) {
+      metrics.recordAuthenticate(start, false);
       logger.error("Vault authentication failed: {}", e.getMessage(), e);
       throw new RuntimeException("Vault authentication failed: " + e.getMessage(), e);
+    } finally {
+      if (event != null && event.shouldCommit()) {
+        VaultEndpoint endpoint = vaultEndpoint.getVaultEndpoint();
+        event.endpoint =
+            endpoint.getScheme() + "://" + endpoint.getHost() + ":" + endpoint.getPort();
+        event.role = vaultRole;
+        event.retries =
+            Math.max(imdsAttempts.get() - 1, 0) + Math.max(loginAttempts.get() - 1, 0);
+        event.accessTokenCached = imdsAttempts.get() == 0;
+        event.success = success;
+        event.commit();
+      }
     }
   }
 
-  /** Fetches an Azure access token using environment variables. */
-  private String fetchAccessToken(RestTemplate restTemplate) throws Exception {
+  /**
+   * Fetches an Azure access token and its expiry using environment variables, retrying 429, 5xx
+   * and I/O failures until the deadline.
+   */
+  private AccessToken fetchAccessToken(
+      RestTemplate restTemplate, long deadline, AtomicInteger attempts) {
     String identityEndpoint = getEnv("IDENTITY_ENDPOINT");
     String identityHeader = getEnv("IDENTITY_HEADER");
     if (identityEndpoint == null
@@ -77,18 +225,34 @@ public class UamiAuthService {
 
     HttpHeaders headers = new HttpHeaders();
     headers.set("secret", identityHeader);
-    ResponseEntity<String> response =
-        restTemplate.exchange(tokenUrl, HttpMethod.GET, new HttpEntity<>(headers), String.class);
-
-    if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null)
-      throw new RuntimeException("Failed to retrieve access token: " + response.getStatusCode());
-
-    return new ObjectMapper().readTree(response.getBody()).path("access_token").asText();
+    try {
+      return resilience
+          .retryPolicy()
+          .execute(
+              resilience.imdsCircuitBreaker(),
+              deadline,
+              () ->
+                  exchange(
+                      restTemplate,
+                      UamiAuthMetrics.IMDS_FETCH,
+                      attempts.incrementAndGet(),
+                      tokenUrl,
+                      HttpMethod.GET,
+                      requestCallback(headers, null),
+                      response ->
+                          TokenResponses.readAccessToken(response.getBody(), Instant.now())));
+    } catch (HttpStatusCodeException e) {
+      throw new RuntimeException("Failed to retrieve access token: " + e.getStatusCode(), e);
+    }
   }
 
-  /** Exchanges the Azure access token for a Vault client token. */
-  private String fetchVaultToken(RestTemplate restTemplate, String accessToken) throws Exception {
-    String vaultAuthUrl = vaultUri + "/v1/auth/azure/login";
+  /**
+   * Exchanges the Azure access token for a lease-aware Vault login token, retrying 429, 5xx and I/O
+   * failures until the deadline.
+   */
+  private LoginToken fetchVaultToken(
+      RestTemplate restTemplate, String accessToken, long deadline, AtomicInteger attempts) {
+    String vaultAuthUrl = vaultUrl("auth/azure/login");
     Map<String, String> requestBody = new HashMap<>();
     requestBody.put("role", vaultRole);
     requestBody.put("jwt", accessToken);
@@ -98,35 +262,166 @@ public class UamiAuthService {
     headers.setContentType(MediaType.APPLICATION_JSON);
     headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
 
-    ResponseEntity<String> response =
-        restTemplate.exchange(
-            vaultAuthUrl, HttpMethod.POST, new HttpEntity<>(requestBody, headers), String.class);
+    try {
+      return resilience
+          .retryPolicy()
+          .execute(
+              resilience.vaultCircuitBreaker(),
+              deadline,
+              () ->
+                  exchange(
+                      restTemplate,
+                      UamiAuthMetrics.VAULT_LOGIN,
+                      attempts.incrementAndGet(),
+                      vaultAuthUrl,
+                      HttpMethod.POST,
+                      requestCallback(headers, requestBody),
+                      response -> TokenResponses.readLoginToken(response.getBody())));
+    } catch (HttpStatusCodeException e) {
+      throw new RuntimeException("Failed to authenticate to vault: " + e.getStatusCode(), e);
+    }
+  }
 
-    if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null)
-      throw new RuntimeException("Failed to authenticate to vault: " + response.getStatusCode());
+  /**
+   * Validates a previously issued token with {@code lookup-self}.
+   *
+   * @return the token with its remaining TTL, or empty if Vault no longer accepts it
+   * @throws RuntimeException if Vault cannot be reached
+   */
+  public Optional<LoginToken> lookupSelf(String token) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.add("X-Vault-Token", token);
+    headers.add("X-Vault-Namespace", vaultNamespace);
+    headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+    try {
+      return Optional.ofNullable(
+          getRestTemplate()
+              .execute(
+                  vaultUrl("auth/token/lookup-self"),
+                  HttpMethod.GET,
+                  requestCallback(headers, null),
+                  response -> TokenResponses.readLookupSelf(response.getBody(), token)));
+    } catch (HttpClientErrorException e) {
+      logger.info("Stored vault token was rejected: {}", e.getStatusCode());
+      return Optional.empty();
+    }
+  }
 
-    return new ObjectMapper()
-        .readTree(response.getBody())
-        .path("auth")
-        .path("client_token")
-        .asText();
+  /** URL of a Vault API path on the current node. */
+  private String vaultUrl(String path) {
+    return vaultEndpoint.getVaultEndpoint().createUriString(path);
   }
 
-  /** Creates a RestTemplate with SSL configuration. */
-  protected RestTemplate createRestTemplate() {
+  /**
+   * Executes one HTTP exchange, timing it by outcome and response status and recording it as an
+   * {@link HttpExchangeEvent} and a startup timeline phase.
+   */
+  private <T> T exchange(
+      RestTemplate restTemplate,
+      String timer,
+      int attempt,
+      String url,
+      HttpMethod method,
+      RequestCallback requestCallback,
+      ResponseExtractor<T> responseExtractor) {
+    HttpExchangeEvent event = FlightRecording.isActive() ? new HttpExchangeEvent() : null;
+    if (event != null) {
+      event.begin();
+    }
+    long startNanos = System.nanoTime();
+    long start = metrics.start();
+    AtomicInteger status = new AtomicInteger();
+    AtomicLong bytes = new AtomicLong(-1);
+    boolean success = false;
     try {
-      var tlsStrategy =
-          new DefaultClientTlsStrategy(
-              SSLContexts.custom().loadTrustMaterial(TrustSelfSignedStrategy.INSTANCE).build());
-      var connectionManager =
-          PoolingHttpClientConnectionManagerBuilder.create()
-              .setTlsSocketStrategy(tlsStrategy)
-              .build();
-      var httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
-      return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
-    } catch (Exception e) {
-      logger.error("SSL configuration failed: {}", e.getMessage(), e);
-      throw new RuntimeException("Failed to configure RestTemplate with SSL: " + e.getMessage(), e);
+      T result =
+          restTemplate.execute(
+              url,
+              method,
+              requestCallback,
+              response -> {
+                status.set(response.getStatusCode().value());
+                bytes.set(response.getHeaders().getContentLength());
+                try {
+                  return responseExtractor.extractData(response);
+                } catch (IOException e) {
+                  // A malformed body will not parse any better on a retry, so it is not an I/O
+                  // failure for the retry policy or the circuit breaker.
+                  throw new IllegalStateException("Malformed " + timer + " response", e);
+                }
+              });
+      success = true;
+      return result;
+    } catch (HttpStatusCodeException e) {
+      status.set(e.getStatusCode().value());
+      bytes.set(e.getResponseBodyAsByteArray().length);
+      throw e;
+    } finally {
+      metrics.recordExchange(timer, start, success, status.get());
+      StartupTimeline.get().record(timer, startNanos);
+      if (event != null && event.shouldCommit()) {
+        // The query of the IMDS URL names the resource and client; only the endpoint is kept.
+        URI uri = URI.create(url);
+        event.operation = timer;
+        event.endpoint = uri.getScheme() + "://" + uri.getAuthority() + uri.getPath();
+        event.status = status.get();
+        event.bytes = bytes.get();
+        event.attempt = attempt;
+        event.success = success;
+        event.commit();
+      }
+    }
+  }
+
+  /** Writes the headers and, if present, the JSON body with the shared mapper. */
+  private static RequestCallback requestCallback(HttpHeaders headers, Object body) {
+    return request -> {
+      request.getHeaders().putAll(headers);
+      if (body != null) {
+        TokenResponses.OBJECT_MAPPER.writeValue(request.getBody(), body);
+      }
+    };
+  }
+
+  /** Returns the RestTemplate shared by all logins, creating it on first use. */
+  private RestTemplate getRestTemplate() {
+    RestTemplate template = restTemplate;
+    if (template == null) {
+      synchronized (this) {
+        template = restTemplate;
+        if (template == null) {
+          template = createRestTemplate();
+          restTemplate = template;
+        }
+      }
+    }
+    return template;
+  }
+
+  /** Creates the RestTemplate backed by the transport. Called once per service. */
+  protected RestTemplate createRestTemplate() {
+    if (transport == null) {
+      transport = new ClassicHttpTransport(createHttpClient());
+    }
+    return new RestTemplate(transport.requestFactory());
+  }
+
+  /** Creates a default pooled HttpClient on the shared TLS context. */
+  private CloseableHttpClient createHttpClient() {
+    var connectionManager =
+        PoolingHttpClientConnectionManagerBuilder.create()
+            .setTlsSocketStrategy(new DefaultClientTlsStrategy(TlsContexts.trustSelfSigned()))
+            .build();
+    return HttpClients.custom().setConnectionManager(connectionManager).build();
+  }
+
+  /** Closes the transport and its connections. */
+  @Override
+  public void close() {
+    HttpTransport current = transport;
+    if (current != null) {
+      current.close();
+      logger.info("Closed vault UAMI HTTP transport ({}).", current.name());
     }
   }
 
@@ -0,0 +1,193 @@
+package com.example.vault.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.client.VaultEndpointProvider;
+
+/**
+ * Routes Vault traffic across an active node and its performance standbys or regional replicas.
+ *
+ * <p>As a {@link VaultEndpointProvider} it returns the active node, which takes logins and writes.
+ * {@link #readEndpoint()} returns the healthy node with the lowest latency for reads. Every node is
+ * probed periodically with an unauthenticated {@code sys/health} request, and its latency is
+ * tracked as an exponentially weighted moving average. A node failing {@code failureThreshold}
+ * probes in a row is ejected from read routing until a probe succeeds again. A healthy node
+ * reporting {@code standby: false} becomes the active node, so a failover is followed.
+ */
+public class VaultEndpointRouter implements VaultEndpointProvider, AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(VaultEndpointRouter.class);
+
+  /** Weight of the newest sample in the latency average. */
+  private static final double ALPHA = 0.3;
+
+  /** {@code sys/health} statuses of a node able to serve: active, standby, performance standby. */
+  private static final Set<Integer> HEALTHY_STATUSES = Set.of(200, 429, 473);
+
+  private static final class Node {
+    final String uri;
+    final VaultEndpoint endpoint;
+    final URI healthUri;
+    volatile double latencyNanos = Double.NaN;
+    volatile int consecutiveFailures;
+    volatile boolean ejected;
+
+    Node(String uri) {
+      this.uri = uri.replaceAll("/+$", "");
+      this.endpoint = VaultEndpoint.from(URI.create(this.uri));
+      this.healthUri = URI.create(this.uri + "/v1/sys/health?standbyok=true&perfstandbyok=true");
+    }
+
+    boolean isRoutable() {
+      return !ejected && !Double.isNaN(latencyNanos);
+    }
+  }
+
+  private final List<Node> nodes;
+  private final ClientHttpRequestFactory requestFactory;
+  private final Duration probeInterval;
+  private final int failureThreshold;
+  private volatile Node active;
+  private volatile Node fastest;
+  private ScheduledExecutorService scheduler;
+
+  /**
+   * @param uris Vault nodes; the first is taken as the active node until a probe says otherwise
+   * @param requestFactory HTTP client of the health probes
+   * @param probeInterval delay between two probe rounds
+   * @param failureThreshold consecutive failed probes after which a node is ejected
+   */
+  public VaultEndpointRouter(
+      List<String> uris,
+      ClientHttpRequestFactory requestFactory,
+      Duration probeInterval,
+      int failureThreshold) {
+    if (uris.isEmpty()) {
+      throw new IllegalArgumentException("At least one Vault endpoint is required");
+    }
+    this.nodes = uris.stream().map(Node::new).toList();
+    this.requestFactory = requestFactory;
+    this.probeInterval = probeInterval;
+    this.failureThreshold = failureThreshold;
+    this.active = nodes.get(0);
+  }
+
+  /** Starts probing in the background; until the first round completes, reads go to the active. */
+  public VaultEndpointRouter start() {
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("vault-uami-endpoint-probe").factory());
+    scheduler.scheduleWithFixedDelay(
+        this::probe, 0, probeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    return this;
+  }
+
+  /** The active node, for logins and writes. */
+  @Override
+  public VaultEndpoint getVaultEndpoint() {
+    return active.endpoint;
+  }
+
+  /** The healthy node with the lowest average latency, or the active node if none is known. */
+  public VaultEndpoint readEndpoint() {
+    Node node = fastest;
+    return node != null ? node.endpoint : active.endpoint;
+  }
+
+  /** The configured node addresses, active node first. */
+  public List<String> endpoints() {
+    return nodes.stream().map(node -> node.uri).toList();
+  }
+
+  /** Average probe latency of a node, or empty while it is unknown or the node is ejected. */
+  public Optional<Duration> latency(String uri) {
+    return nodes.stream()
+        .filter(node -> node.uri.equals(uri) && node.isRoutable())
+        .findFirst()
+        .map(node -> Duration.ofNanos((long) node.latencyNanos));
+  }
+
+  /** Probes every node once, in parallel, and updates the routing. */
+  public void probe() {
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      nodes.forEach(node -> executor.execute(() -> probe(node)));
+    }
+    Node routable = null;
+    for (Node node : nodes) {
+      if (node.isRoutable()
+          && (routable == null || node.latencyNanos < routable.latencyNanos)) {
+        routable = node;
+      }
+    }
+    fastest = routable;
+  }
+
+  private void probe(Node node) {
+    long start = System.nanoTime();
+    try (ClientHttpResponse response =
+        requestFactory.createRequest(node.healthUri, HttpMethod.GET).execute()) {
+      int status = response.getStatusCode().value();
+      if (!HEALTHY_STATUSES.contains(status)) {
+        failed(node, "status " + status);
+        return;
+      }
+      boolean standby = isStandby(response.getBody());
+      double sample = System.nanoTime() - start;
+      node.latencyNanos =
+          Double.isNaN(node.latencyNanos)
+              ? sample
+              : ALPHA * sample + (1 - ALPHA) * node.latencyNanos;
+      node.consecutiveFailures = 0;
+      if (node.ejected) {
+        node.ejected = false;
+        logger.info("Vault endpoint {} is healthy again.", node.uri);
+      }
+      if (!standby && active != node) {
+        logger.info("Vault endpoint {} is now the active node.", node.uri);
+        active = node;
+      }
+    } catch (IOException | RuntimeException e) {
+      failed(node, e.getMessage());
+    }
+  }
+
+  private void failed(Node node, String reason) {
+    node.consecutiveFailures++;
+    if (!node.ejected && node.consecutiveFailures >= failureThreshold) {
+      node.ejected = true;
+      logger.warn(
+          "Ejecting Vault endpoint {} from read routing after {} failed health checks: {}",
+          node.uri,
+          node.consecutiveFailures,
+          reason);
+    }
+  }
+
+  private static boolean isStandby(InputStream body) throws IOException {
+    JsonNode health = TokenResponses.OBJECT_MAPPER.readTree(body);
+    return health == null || health.path("standby").asBoolean(true);
+  }
+
+  /** Stops probing. */
+  @Override
+  public void close() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package com.example.vault.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * ClientHttpRequestFactory over an HttpClient 5 async client, for RestTemplate. Request and
+ * response bodies are buffered, which suits the small JSON payloads of Vault and IMDS.
+ */
+final class AsyncClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+  private final CloseableHttpAsyncClient httpClient;
+  private final Duration timeout;
+
+  AsyncClientHttpRequestFactory(CloseableHttpAsyncClient httpClient, Duration timeout) {
+    this.httpClient = httpClient;
+    this.timeout = timeout;
+  }
+
+  @Override
+  public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+    return new AsyncRequest(uri, httpMethod);
+  }
+
+  private final class AsyncRequest extends AbstractClientHttpRequest {
+
+    private final URI uri;
+    private final HttpMethod method;
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+    AsyncRequest(URI uri, HttpMethod method) {
+      this.uri = uri;
+      this.method = method;
+    }
+
+    @Override
+    public HttpMethod getMethod() {
+      return method;
+    }
+
+    @Override
+    public URI getURI() {
+      return uri;
+    }
+
+    @Override
+    protected OutputStream getBodyInternal(HttpHeaders headers) {
+      return body;
+    }
+
+    @Override
+    protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+      SimpleRequestBuilder request = SimpleRequestBuilder.create(method.name()).setUri(uri);
+      headers.forEach(
+          (name, values) -> {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)
+                && !HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+              values.forEach(value -> request.addHeader(name, value));
+            }
+          });
+      if (body.size() > 0) {
+        ContentType contentType =
+            headers.getContentType() != null
+                ? ContentType.parse(headers.getContentType().toString())
+                : ContentType.APPLICATION_OCTET_STREAM;
+        request.setBody(body.toByteArray(), contentType);
+      }
+      Future<SimpleHttpResponse> future = httpClient.execute(request.build(), null);
+      try {
+        return new AsyncResponse(future.get(timeout.toMillis(), TimeUnit.MILLISECONDS));
+      } catch (InterruptedException e) {
+        future.cancel(true);
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted waiting for " + uri, e);
+      } catch (TimeoutException e) {
+        future.cancel(true);
+        throw new SocketTimeoutException("No response from " + uri + " within " + timeout);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException io) {
+          throw io;
+        }
+        throw new IOException(e.getCause());
+      }
+    }
+  }
+
+  private static final class AsyncResponse implements ClientHttpResponse {
+
+    private final SimpleHttpResponse response;
+    private final HttpHeaders headers = new HttpHeaders();
+
+    AsyncResponse(SimpleHttpResponse response) {
+      this.response = response;
+      for (Header header : response.getHeaders()) {
+        headers.add(header.getName(), header.getValue());
+      }
+      if (response.getContentType() != null && !headers.containsKey(HttpHeaders.CONTENT_TYPE)) {
+        headers.set(HttpHeaders.CONTENT_TYPE, response.getContentType().toString());
+      }
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() {
+      return HttpStatusCode.valueOf(response.getCode());
+    }
+
+    @Override
+    public String getStatusText() {
+      return response.getReasonPhrase() != null ? response.getReasonPhrase() : "";
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+
+    @Override
+    public InputStream getBody() {
+      byte[] content = response.getBodyBytes();
+      return content != null ? new ByteArrayInputStream(content) : InputStream.nullInputStream();
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,67 @@
+package com.example.vault.transport;
+
+import java.time.Duration;
+import java.util.Optional;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+/**
+ * Apache HttpClient 5 async transport: requests run on the client's non-blocking I/O reactor, so a
+ * few reactor threads serve every connection. Callers of the request factory still block until
+ * the response has been read.
+ */
+public class AsyncHttpTransport implements HttpTransport {
+
+  private final CloseableHttpAsyncClient httpClient;
+  private final ClientHttpRequestFactory requestFactory;
+  private final ConnPoolControl<?> pool;
+
+  /**
+   * @param httpClient started async client; owned and closed by this transport
+   * @param timeout upper bound on waiting for one exchange, including connecting
+   */
+  public AsyncHttpTransport(CloseableHttpAsyncClient httpClient, Duration timeout) {
+    this(httpClient, timeout, null);
+  }
+
+  /**
+   * @param httpClient started async client; owned and closed by this transport
+   * @param timeout upper bound on waiting for one exchange, including connecting
+   * @param pool the client's connection manager, or {@code null} to report no pool status
+   */
+  public AsyncHttpTransport(
+      CloseableHttpAsyncClient httpClient, Duration timeout, ConnPoolControl<?> pool) {
+    this.httpClient = httpClient;
+    this.requestFactory = new AsyncClientHttpRequestFactory(httpClient, timeout);
+    this.pool = pool;
+  }
+
+  @Override
+  public String name() {
+    return "async";
+  }
+
+  @Override
+  public ClientHttpRequestFactory requestFactory() {
+    return requestFactory;
+  }
+
+  @Override
+  public Optional<PoolStatus> poolStatus() {
+    if (pool == null) {
+      return Optional.empty();
+    }
+    PoolStats stats = pool.getTotalStats();
+    return Optional.of(
+        new PoolStatus(
+            stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax()));
+  }
+
+  @Override
+  public void close() {
+    httpClient.close(CloseMode.GRACEFUL);
+  }
+}
@@ -0,0 +1,60 @@
+package com.example.vault.transport;
+
+import java.util.Optional;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/** Apache HttpClient 5 classic (blocking I/O) transport. */
+public class ClassicHttpTransport implements HttpTransport {
+
+  private final CloseableHttpClient httpClient;
+  private final ClientHttpRequestFactory requestFactory;
+  private final ConnPoolControl<?> pool;
+
+  /**
+   * @param httpClient pooled client; owned and closed by this transport
+   */
+  public ClassicHttpTransport(CloseableHttpClient httpClient) {
+    this(httpClient, null);
+  }
+
+  /**
+   * @param httpClient pooled client; owned and closed by this transport
+   * @param pool the client's connection manager, or {@code null} to report no pool status
+   */
+  public ClassicHttpTransport(CloseableHttpClient httpClient, ConnPoolControl<?> pool) {
+    this.httpClient = httpClient;
+    this.requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+    this.pool = pool;
+  }
+
+  @Override
+  public String name() {
+    return "classic";
+  }
+
+  @Override
+  public ClientHttpRequestFactory requestFactory() {
+    return requestFactory;
+  }
+
+  @Override
+  public Optional<PoolStatus> poolStatus() {
+    if (pool == null) {
+      return Optional.empty();
+    }
+    PoolStats stats = pool.getTotalStats();
+    return Optional.of(
+        new PoolStatus(
+            stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax()));
+  }
+
+  @Override
+  public void close() {
+    httpClient.close(CloseMode.GRACEFUL);
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.vault.transport;
+
+import java.util.Optional;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+/**
+ * HTTP stack used for IMDS, Vault login and Vault requests. Implementations own their client and
+ * connection pool and release them in {@link #close()}.
+ */
+public interface HttpTransport extends AutoCloseable {
+
+  /** Name of the implementation, as used by {@code vault.uami.http.transport}. */
+  String name();
+
+  /** Request factory backed by this transport's client; the same instance on every call. */
+  ClientHttpRequestFactory requestFactory();
+
+  /**
+   * Current connection pool totals, read from memory without any I/O. Empty for transports whose
+   * client does not expose its pool.
+   */
+  default Optional<PoolStatus> poolStatus() {
+    return Optional.empty();
+  }
+
+  /**
+   * Connection pool totals across all routes.
+   *
+   * @param leased connections in use by a request
+   * @param pending requests waiting for a connection
+   * @param available idle connections kept for reuse
+   * @param max maximum number of connections
+   */
+  record PoolStatus(int leased, int pending, int available, int max) {}
+
+  /** Closes the client and its connections. */
+  @Override
+  void close();
+}
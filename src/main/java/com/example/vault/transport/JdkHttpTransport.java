@@ -0,0 +1,103 @@
+package com.example.vault.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+/**
+ * {@code java.net.http.HttpClient} transport. With HTTP/2 negotiated, concurrent requests to the
+ * same host are multiplexed over one connection.
+ */
+public class JdkHttpTransport implements HttpTransport {
+
+  private final HttpClient httpClient;
+  private final ExecutorService executor;
+  private final ClientHttpRequestFactory requestFactory;
+
+  /**
+   * @param httpClient client; owned and closed by this transport
+   * @param executor executor the client was built with, shut down on close
+   * @param readTimeout time to wait for a response
+   */
+  public JdkHttpTransport(HttpClient httpClient, ExecutorService executor, Duration readTimeout) {
+    this.httpClient = httpClient;
+    this.executor = executor;
+    JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient, executor);
+    factory.setReadTimeout(readTimeout);
+    this.requestFactory =
+        new InterceptingClientHttpRequestFactory(
+            factory,
+            List.of(
+                (request, body, execution) ->
+                    new DrainingResponse(execution.execute(request, body))));
+  }
+
+  @Override
+  public String name() {
+    return "jdk";
+  }
+
+  @Override
+  public ClientHttpRequestFactory requestFactory() {
+    return requestFactory;
+  }
+
+  @Override
+  public void close() {
+    httpClient.close();
+    executor.shutdown();
+  }
+
+  /**
+   * Reads the rest of the body before closing. The client drops an HTTP/1.1 connection whose
+   * response is closed unread, where HttpClient 5 drains it and keeps the connection pooled.
+   */
+  private static final class DrainingResponse implements ClientHttpResponse {
+
+    private final ClientHttpResponse delegate;
+
+    DrainingResponse(ClientHttpResponse delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() throws IOException {
+      return delegate.getStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+      return delegate.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return delegate.getHeaders();
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+      return delegate.getBody();
+    }
+
+    @Override
+    public void close() {
+      try {
+        delegate.getBody().transferTo(OutputStream.nullOutputStream());
+      } catch (IOException ignored) {
+        // Already closed or broken; the connection is not reused either way.
+      }
+      delegate.close();
+    }
+  }
+}
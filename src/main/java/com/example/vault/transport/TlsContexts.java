@@ -0,0 +1,66 @@
+package com.example.vault.transport;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.security.KeyStore;
+import javax.net.ssl.SSLContext;
+import org.apache.hc.client5.http.ssl.TrustSelfSignedStrategy;
+import org.apache.hc.core5.ssl.SSLContextBuilder;
+import org.apache.hc.core5.ssl.SSLContexts;
+
+/**
+ * Builds the client SSLContext of the HTTP transports. All clients built on the same context share
+ * its TLS session cache, so a session negotiated by one can be resumed by another.
+ */
+public final class TlsContexts {
+
+  private TlsContexts() {}
+
+  /** Context trusting the JDK trust store plus self-signed certificates, built once per JVM. */
+  public static SSLContext trustSelfSigned() {
+    return DefaultHolder.CONTEXT;
+  }
+
+  /**
+   * Builds a context trusting the certificates of a trust store.
+   *
+   * @param trustStore trust store location, or {@code null} for the JDK trust store
+   * @param type trust store type, e.g. {@code PKCS12}
+   * @param password trust store password, or {@code null}
+   * @param trustSelfSigned whether self-signed certificates are trusted as well
+   */
+  public static SSLContext create(
+      URL trustStore, String type, char[] password, boolean trustSelfSigned) {
+    if (trustStore == null && trustSelfSigned) {
+      return trustSelfSigned();
+    }
+    try {
+      SSLContextBuilder builder = SSLContexts.custom();
+      TrustSelfSignedStrategy strategy = trustSelfSigned ? TrustSelfSignedStrategy.INSTANCE : null;
+      if (trustStore == null) {
+        builder.loadTrustMaterial((KeyStore) null, strategy);
+      } else {
+        KeyStore keyStore = KeyStore.getInstance(type);
+        try (InputStream in = trustStore.openStream()) {
+          keyStore.load(in, password);
+        }
+        builder.loadTrustMaterial(keyStore, strategy);
+      }
+      return builder.build();
+    } catch (Exception e) {
+      throw new IllegalStateException("Failed to create TLS context: " + e.getMessage(), e);
+    }
+  }
+
+  private static final class DefaultHolder {
+    private static final SSLContext CONTEXT = build();
+
+    private static SSLContext build() {
+      try {
+        return SSLContexts.custom().loadTrustMaterial(TrustSelfSignedStrategy.INSTANCE).build();
+      } catch (Exception e) {
+        throw new IllegalStateException("Failed to create TLS context: " + e.getMessage(), e);
+      }
+    }
+  }
+}
@@ -0,0 +1,240 @@
+package com.example.vault.broker;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.vault.configuration.VaultUamiAuthProperties;
+import com.example.vault.configuration.VaultUamiHttpClients;
+import com.example.vault.delegate.VaultUamiAuthentication;
+import com.example.vault.service.UamiAuthService;
+import com.example.vault.stub.LocalAuthStub;
+import com.example.vault.transport.ClassicHttpTransport;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.vault.authentication.ClientAuthentication;
+import org.springframework.vault.authentication.LoginToken;
+import org.springframework.vault.authentication.SimpleSessionManager;
+import org.springframework.vault.client.RestTemplateBuilder;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultToken;
+import org.springframework.web.client.RestOperations;
+
+class TokenBrokerTests {
+
+  @TempDir Path dir;
+
+  private Path socket;
+  private AtomicInteger sessionCalls;
+  private volatile VaultToken sessionToken;
+  private RestOperations vault;
+  private AtomicInteger renewals;
+  private AtomicInteger fallbackLogins;
+  private ClientAuthentication fallback;
+  private TokenBrokerServer server;
+
+  @BeforeEach
+  void setUp() {
+    socket = dir.resolve("broker/broker.sock");
+    sessionCalls = new AtomicInteger();
+    sessionToken = token("session", Duration.ofHours(1));
+    vault = mock(RestOperations.class);
+    renewals = new AtomicInteger();
+    renewalGrants(Duration.ofHours(1));
+    fallbackLogins = new AtomicInteger();
+    fallback =
+        () -> {
+          fallbackLogins.incrementAndGet();
+          return token("direct", Duration.ofHours(1));
+        };
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (server != null) {
+      server.close();
+    }
+  }
+
+  private static LoginToken token(String token, Duration ttl) {
+    return LoginToken.builder().token(token).leaseDuration(ttl).renewable(true).build();
+  }
+
+  private static VaultResponse renewal(Duration granted, boolean renewable) {
+    VaultResponse response = new VaultResponse();
+    response.setAuth(Map.of("lease_duration", granted.toSeconds(), "renewable", renewable));
+    return response;
+  }
+
+  /** Answers renew-self with the grants in turn, repeating the last one. */
+  private void renewalGrants(Duration... grants) {
+    Queue<Duration> pending = new ArrayDeque<>(List.of(grants));
+    when(vault.postForObject(eq("auth/token/renew-self"), any(), eq(VaultResponse.class)))
+        .thenAnswer(
+            invocation -> {
+              renewals.incrementAndGet();
+              Duration granted = pending.size() > 1 ? pending.poll() : pending.peek();
+              return renewal(granted, true);
+            });
+    // Stubbing again runs the previous answer once.
+    renewals.set(0);
+  }
+
+  private TokenBrokerServer startServer(Duration refreshAhead) {
+    return new TokenBrokerServer(
+            socket,
+            () -> {
+              sessionCalls.incrementAndGet();
+              return sessionToken;
+            },
+            vault,
+            refreshAhead)
+        .start();
+  }
+
+  private TokenBrokerAuthentication client(Duration minTtl) {
+    return new TokenBrokerAuthentication(socket, Duration.ofSeconds(2), minTtl, fallback);
+  }
+
+  @Test
+  void clientsShareTheSessionTokenOfTheServer() {
+    server = startServer(Duration.ofMinutes(5));
+
+    LoginToken first = client(Duration.ofMinutes(1)).login();
+    LoginToken second = client(Duration.ofMinutes(1)).login();
+
+    assertEquals("session", first.getToken());
+    assertEquals("session", second.getToken());
+    assertFalse(first.isRenewable(), "the server owns the lease");
+    assertTrue(first.getLeaseDuration().compareTo(Duration.ofMinutes(59)) > 0);
+    assertEquals(1, sessionCalls.get());
+    assertEquals(1, renewals.get());
+    assertEquals(0, fallbackLogins.get());
+  }
+
+  @Test
+  void serverRenewsTheServedTokenOnceTheLeaseIsWithinRefreshAhead() {
+    // The first renewal leaves less than refresh-ahead once any time passed.
+    renewalGrants(Duration.ofMinutes(5), Duration.ofHours(1));
+    server = startServer(Duration.ofMinutes(5));
+
+    client(Duration.ZERO).login();
+    LoginToken token = client(Duration.ZERO).login();
+
+    assertEquals("session", token.getToken());
+    assertTrue(token.getLeaseDuration().compareTo(Duration.ofMinutes(59)) > 0);
+    assertEquals(2, renewals.get());
+  }
+
+  @Test
+  void tokenAtItsMaxTtlIsServedUntilTheSessionReplacesIt() {
+    renewalGrants(Duration.ofMinutes(2), Duration.ofHours(1));
+    server = startServer(Duration.ofMinutes(5));
+
+    client(Duration.ZERO).login();
+    client(Duration.ZERO).login();
+    assertEquals(1, renewals.get(), "a capped token is not renewed again");
+
+    sessionToken = token("session-2", Duration.ofHours(1));
+    assertEquals("session-2", client(Duration.ZERO).login().getToken());
+  }
+
+  @Test
+  void clientLogsInDirectlyWhenTheBrokerIsNotRunning() {
+    LoginToken token = client(Duration.ofMinutes(1)).login();
+
+    assertEquals("direct", token.getToken());
+    assertEquals(1, fallbackLogins.get());
+  }
+
+  @Test
+  void clientLogsInDirectlyWhenTheBrokeredTokenIsTooShortLived() {
+    sessionToken =
+        LoginToken.builder()
+            .token("session")
+            .leaseDuration(Duration.ofSeconds(30))
+            .renewable(false)
+            .build();
+    server = startServer(Duration.ZERO);
+
+    assertEquals("direct", client(Duration.ofMinutes(1)).login().getToken());
+  }
+
+  @Test
+  void clientLogsInDirectlyWhenTheBrokerCannotLogIn() {
+    server =
+        new TokenBrokerServer(
+                socket,
+                () -> {
+                  throw new IllegalStateException("IMDS unavailable");
+                },
+                vault,
+                Duration.ZERO)
+            .start();
+
+    assertEquals("direct", client(Duration.ZERO).login().getToken());
+  }
+
+  @Test
+  void socketIsReadableOnlyByItsOwner() throws Exception {
+    server = startServer(Duration.ZERO);
+
+    assertEquals(
+        PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(socket));
+    assertEquals(
+        PosixFilePermissions.fromString("rwx------"),
+        Files.getPosixFilePermissions(socket.getParent()));
+  }
+
+  @Test
+  void secondServerOnALiveSocketFailsAndAStaleSocketIsReplaced() {
+    server = startServer(Duration.ZERO);
+    assertThrows(IllegalStateException.class, () -> startServer(Duration.ZERO));
+
+    server.close();
+    assertFalse(Files.exists(socket));
+    server = startServer(Duration.ZERO);
+    assertEquals("session", client(Duration.ZERO).login().getToken());
+  }
+
+  @Test
+  void brokerServesTheUamiSessionToManyClients() throws Exception {
+    try (LocalAuthStub stub = LocalAuthStub.start()) {
+      try (UamiAuthService authService =
+          stub.uamiService(
+              new ClassicHttpTransport(
+                  VaultUamiHttpClients.create(new VaultUamiAuthProperties.Http())))) {
+        server =
+            new TokenBrokerServer(
+                    socket,
+                    new SimpleSessionManager(new VaultUamiAuthentication(authService)),
+                    RestTemplateBuilder.builder()
+                        .endpoint(VaultEndpoint.from(URI.create(stub.vaultUri())))
+                        .build(),
+                    Duration.ZERO)
+                .start();
+
+        for (int i = 0; i < 10; i++) {
+          client(Duration.ZERO).login();
+        }
+
+        assertEquals(1, stub.imdsCalls());
+        assertEquals(1, stub.loginCalls());
+        assertEquals(1, stub.renewCalls());
+        assertEquals(0, fallbackLogins.get());
+      }
+    }
+  }
+}
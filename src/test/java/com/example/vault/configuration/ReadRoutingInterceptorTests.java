@@ -0,0 +1,75 @@
+package com.example.vault.configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.service.VaultEndpointRouter;
+import com.example.vault.stub.LocalAuthStub;
+import com.example.vault.transport.HttpTransport;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+class ReadRoutingInterceptorTests {
+
+  private LocalAuthStub active;
+  private LocalAuthStub replica;
+  private HttpTransport transport;
+  private VaultEndpointRouter router;
+  private RestTemplate restTemplate;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    active = LocalAuthStub.start();
+    active.setDelay(Duration.ofMillis(50));
+    replica = LocalAuthStub.start();
+    replica.setStandby(true);
+    transport = VaultUamiHttpTransports.create(new VaultUamiAuthProperties.Http(), null);
+    router =
+        new VaultEndpointRouter(
+            List.of(active.vaultUri(), replica.vaultUri()),
+            transport.requestFactory(),
+            Duration.ofMinutes(1),
+            3);
+    router.probe();
+    restTemplate = new RestTemplate(transport.requestFactory());
+    restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory(active.vaultUri() + "/v1/"));
+    restTemplate.getInterceptors().add(new ReadRoutingInterceptor(router));
+  }
+
+  @AfterEach
+  void tearDown() {
+    router.close();
+    transport.close();
+    active.close();
+    replica.close();
+  }
+
+  @Test
+  void readsGoToTheFastestNode() {
+    @SuppressWarnings("unchecked")
+    Map<String, Map<String, String>> response =
+        restTemplate.getForObject("secret/app?version={v}", Map.class, 2);
+
+    assertEquals(replica.vaultUri(), response.get("data").get("served-by"));
+    assertEquals(0, active.readCalls());
+  }
+
+  @Test
+  void writesAndAuthRequestsStayOnTheActiveNode() {
+    restTemplate.postForObject("secret/app", Map.of("k", "v"), Map.class);
+    assertThrows(
+        HttpClientErrorException.Forbidden.class,
+        () -> restTemplate.getForObject("auth/token/lookup-self", Map.class));
+
+    assertEquals(1, active.readCalls());
+    assertEquals(1, active.lookupCalls());
+    assertEquals(0, replica.readCalls());
+    assertEquals(0, replica.lookupCalls());
+  }
+}
@@ -0,0 +1,153 @@
+package com.example.vault.configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.vault.service.BulkSecretFetcher;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.vault.core.VaultOperations;
+import org.springframework.vault.support.VaultResponse;
+
+class VaultLazyPropertySourceTests {
+
+  private static final class MutableClock extends Clock {
+    private volatile Instant now;
+
+    MutableClock(Instant now) {
+      this.now = now;
+    }
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+
+  private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+  private VaultOperations operations;
+  private VaultLazyPropertySource propertySource;
+
+  @BeforeEach
+  void setUp() {
+    operations = mock(VaultOperations.class);
+    propertySource =
+        new VaultLazyPropertySource(
+            "vault-lazy://secret/data/app",
+            new BulkSecretFetcher(operations, 4, Duration.ofSeconds(10)),
+            List.of("secret/data/app"),
+            List.of("db.password", "api.key"),
+            Duration.ofMinutes(5),
+            clock);
+  }
+
+  private static VaultResponse response(Map<String, Object> data) {
+    VaultResponse response = new VaultResponse();
+    response.setData(data);
+    return response;
+  }
+
+  @Test
+  void nothingIsReadUntilADeclaredKeyIsAccessed() {
+    when(operations.read("secret/data/app")).thenReturn(response(Map.of("api.key", "k")));
+
+    assertArrayEquals(new String[] {"db.password", "api.key"}, propertySource.getPropertyNames());
+    assertNull(propertySource.getProperty("server.port"));
+    verifyNoInteractions(operations);
+
+    assertEquals("k", propertySource.getProperty("api.key"));
+    assertNull(propertySource.getProperty("db.password"));
+    verify(operations, times(1)).read("secret/data/app");
+  }
+
+  @Test
+  void concurrentFirstAccessesShareOneRead() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    when(operations.read("secret/data/app"))
+        .thenAnswer(
+            invocation -> {
+              release.await(5, TimeUnit.SECONDS);
+              return response(Map.of("api.key", "k"));
+            });
+
+    List<Future<Object>> lookups = new ArrayList<>();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < 8; i++) {
+        lookups.add(executor.submit(() -> propertySource.getProperty("api.key")));
+      }
+      Thread.sleep(100);
+      release.countDown();
+    }
+
+    for (Future<Object> lookup : lookups) {
+      assertEquals("k", lookup.get());
+    }
+    verify(operations, times(1)).read("secret/data/app");
+  }
+
+  @Test
+  void valuesAreReadAgainAfterTheTtl() {
+    when(operations.read("secret/data/app"))
+        .thenReturn(response(Map.of("api.key", "old")))
+        .thenReturn(response(Map.of("api.key", "new")));
+
+    assertEquals("old", propertySource.getProperty("api.key"));
+    clock.advance(Duration.ofMinutes(4));
+    assertEquals("old", propertySource.getProperty("api.key"));
+    clock.advance(Duration.ofMinutes(1));
+
+    assertEquals("new", propertySource.getProperty("api.key"));
+    verify(operations, times(2)).read("secret/data/app");
+  }
+
+  @Test
+  void previousValuesAreServedWhenARereadFails() {
+    when(operations.read("secret/data/app"))
+        .thenReturn(response(Map.of("api.key", "k")))
+        .thenThrow(new IllegalStateException("sealed"));
+
+    propertySource.getProperty("api.key");
+    clock.advance(Duration.ofMinutes(5));
+
+    assertEquals("k", propertySource.getProperty("api.key"));
+    assertEquals("k", propertySource.getProperty("api.key"));
+    verify(operations, times(2)).read("secret/data/app");
+  }
+
+  @Test
+  void aFailedFirstReadFailsTheLookup() {
+    when(operations.read("secret/data/app")).thenThrow(new IllegalStateException("sealed"));
+
+    IllegalStateException failure =
+        assertThrows(IllegalStateException.class, () -> propertySource.getProperty("api.key"));
+
+    assertTrue(failure.getMessage().contains("secret/data/app"));
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.vault.configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultBootstrapContext;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
+
+class VaultUamiAuthenticationConfigurationTests {
+
+  private static DefaultBootstrapContext bootstrap(
+      Map<String, Object> yaml, Map<String, Object> env) {
+    StandardEnvironment environment = new StandardEnvironment();
+    environment.getPropertySources().addFirst(new MapPropertySource("application.yml", yaml));
+    environment
+        .getPropertySources()
+        .addFirst(new SystemEnvironmentPropertySource("test-systemEnvironment", env));
+    DefaultBootstrapContext context = new DefaultBootstrapContext();
+    context.register(Binder.class, ignored -> Binder.get(environment));
+    new VaultUamiAuthenticationConfiguration().initialize(context);
+    return context;
+  }
+
+  @Test
+  void propertiesAreBoundWithRelaxedNamesAndEnvironmentOverrides() {
+    DefaultBootstrapContext context =
+        bootstrap(
+            Map.of(
+                "vault.uami.uri", "https://vault.example",
+                "vault.uami.client-id", "from-yaml",
+                "vault.uami.http.maxPerRoute", "4",
+                "vault.uami.secret-cache.default-ttl", "2m"),
+            Map.of("VAULT_UAMI_CLIENT_ID", "from-env", "VAULT_UAMI_HTTP_TRANSPORT", "jdk"));
+
+    VaultUamiAuthProperties props = context.get(VaultUamiAuthProperties.class);
+
+    assertEquals("https://vault.example", props.getUri());
+    assertEquals("from-env", props.getClientId());
+    assertEquals(4, props.getHttp().getMaxPerRoute());
+    assertEquals(VaultUamiAuthProperties.Transport.JDK, props.getHttp().getTransport());
+    assertEquals(Duration.ofMinutes(2), props.getSecretCache().getDefaultTtl());
+    assertSame(props, context.get(VaultUamiAuthProperties.class), "bound once per bootstrap");
+  }
+
+  @Test
+  void missingUriFailsBinding() {
+    DefaultBootstrapContext context = bootstrap(Map.of("vault.uami.role", "r"), Map.of());
+
+    IllegalStateException e =
+        assertThrows(
+            IllegalStateException.class, () -> context.get(VaultUamiAuthProperties.class));
+    assertTrue(e.getMessage().contains("vault.uami.uri"));
+  }
+}
@@ -0,0 +1,148 @@
+package com.example.vault.configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.service.AuthResilience;
+import com.example.vault.service.CircuitBreaker;
+import com.example.vault.service.RetryPolicy;
+import com.example.vault.service.UamiAuthMetrics;
+import com.example.vault.transport.HttpTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.vault.authentication.LoginToken;
+
+class VaultUamiHealthIndicatorTests {
+
+  private UamiAuthMetrics metrics;
+  private CircuitBreaker vaultBreaker;
+  private AuthResilience resilience;
+  private HttpTransport transport;
+
+  @BeforeEach
+  void setUp() {
+    metrics = new UamiAuthMetrics(new SimpleMeterRegistry());
+    vaultBreaker = new CircuitBreaker("vault", 1, Duration.ofMinutes(1));
+    resilience =
+        new AuthResilience(RetryPolicy.NONE, CircuitBreaker.disabled("imds"), vaultBreaker);
+    transport = VaultUamiHttpTransports.create(new VaultUamiAuthProperties.Http(), null);
+  }
+
+  @AfterEach
+  void tearDown() {
+    transport.close();
+  }
+
+  private VaultUamiHealthIndicator indicator(Clock clock) {
+    return new VaultUamiHealthIndicator(metrics, resilience, transport, clock);
+  }
+
+  private void login(Duration ttl) {
+    metrics.recordAuthenticate(metrics.start(), true);
+    metrics.recordLogin(LoginToken.of("token".toCharArray(), ttl), false);
+  }
+
+  @Test
+  void unknownBeforeTheFirstLogin() {
+    VaultUamiHealthIndicator indicator = indicator(Clock.systemUTC());
+    assertEquals(Status.UNKNOWN, indicator.health().getStatus());
+
+    indicator.refresh();
+
+    assertEquals(Status.UNKNOWN, indicator.health().getStatus());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void upWithTokenTtlBreakersAndPoolWhileTheTokenIsValid() {
+    login(Duration.ofHours(1));
+    VaultUamiHealthIndicator indicator = indicator(Clock.systemUTC());
+
+    indicator.refresh();
+    Health health = indicator.health();
+
+    assertEquals(Status.UP, health.getStatus());
+    long ttl = (long) health.getDetails().get("tokenTtl");
+    assertTrue(ttl > 3500 && ttl <= 3600, "ttl " + ttl);
+    Map<String, Object> lastLogin = (Map<String, Object>) health.getDetails().get("lastLogin");
+    assertEquals("SUCCESS", lastLogin.get("outcome"));
+    Map<String, Map<String, Object>> breakers =
+        (Map<String, Map<String, Object>>) health.getDetails().get("circuitBreakers");
+    assertEquals("CLOSED", breakers.get("vault").get("state"));
+    Map<String, Object> pool = (Map<String, Object>) health.getDetails().get("connectionPool");
+    assertEquals(20, pool.get("max"));
+    assertEquals(0, pool.get("leased"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void openBreakerIsReportedWithoutTakingAValidTokenDown() {
+    login(Duration.ofHours(1));
+    vaultBreaker.onFailure();
+    VaultUamiHealthIndicator indicator = indicator(Clock.systemUTC());
+
+    indicator.refresh();
+    Health health = indicator.health();
+
+    assertEquals(Status.UP, health.getStatus());
+    Map<String, Map<String, Object>> breakers =
+        (Map<String, Map<String, Object>>) health.getDetails().get("circuitBreakers");
+    assertEquals("OPEN", breakers.get("vault").get("state"));
+    assertEquals(1, breakers.get("vault").get("consecutiveFailures"));
+  }
+
+  @Test
+  void downOnceTheTokenHasExpired() {
+    login(Duration.ofMinutes(5));
+    VaultUamiHealthIndicator indicator =
+        indicator(Clock.fixed(Instant.now().plus(Duration.ofMinutes(10)), ZoneOffset.UTC));
+
+    indicator.refresh();
+
+    assertEquals(Status.DOWN, indicator.health().getStatus());
+  }
+
+  @Test
+  void downWhenTheFirstLoginFailed() {
+    metrics.recordAuthenticate(metrics.start(), false);
+    VaultUamiHealthIndicator indicator = indicator(Clock.systemUTC());
+
+    indicator.refresh();
+
+    assertEquals(Status.DOWN, indicator.health().getStatus());
+  }
+
+  @Test
+  void probesReturnTheLastSnapshotUntilTheNextRefresh() {
+    VaultUamiHealthIndicator indicator = indicator(Clock.systemUTC());
+    indicator.refresh();
+    login(Duration.ofHours(1));
+
+    assertEquals(Status.UNKNOWN, indicator.health().getStatus());
+    indicator.refresh();
+    assertEquals(Status.UP, indicator.health().getStatus());
+  }
+
+  @Test
+  void backgroundRefreshPicksUpNewState() throws Exception {
+    try (VaultUamiHealthIndicator indicator =
+        indicator(Clock.systemUTC()).start(Duration.ofMillis(20))) {
+      login(Duration.ofHours(1));
+
+      long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+      while (indicator.health().getStatus() != Status.UP && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+
+      assertEquals(Status.UP, indicator.health().getStatus());
+    }
+  }
+}
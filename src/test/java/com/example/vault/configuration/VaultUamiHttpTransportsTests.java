@@ -0,0 +1,47 @@
+package com.example.vault.configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.configuration.VaultUamiAuthProperties.Transport;
+import com.example.vault.service.UamiAuthService;
+import com.example.vault.stub.LocalAuthStub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class VaultUamiHttpTransportsTests {
+
+  private LocalAuthStub stub;
+  private UamiAuthService service;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    stub = LocalAuthStub.startHttps();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (service != null) {
+      service.close();
+    }
+    stub.close();
+  }
+
+  @ParameterizedTest
+  @EnumSource(Transport.class)
+  void everyTransportLogsInOverOneTlsConnection(Transport transport) {
+    VaultUamiAuthProperties.Http http = new VaultUamiAuthProperties.Http();
+    http.setTransport(transport);
+    // The async client hands a connection back just after completing the response; with one
+    // connection per route the next request waits for it instead of opening another.
+    http.setMaxPerRoute(1);
+    service = stub.uamiService(VaultUamiHttpTransports.create(http, null));
+
+    assertEquals("vault-client-token", service.authenticate().getToken());
+    assertEquals("vault-client-token", service.authenticate().getToken());
+
+    assertEquals(2, stub.loginCalls());
+    assertEquals(1, stub.distinctConnections());
+  }
+}
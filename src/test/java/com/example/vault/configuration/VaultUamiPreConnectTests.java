@@ -0,0 +1,52 @@
+package com.example.vault.configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.service.UamiAuthService;
+import com.example.vault.stub.LocalAuthStub;
+import com.example.vault.transport.HttpTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class VaultUamiPreConnectTests {
+
+  private LocalAuthStub stub;
+  private UamiAuthService service;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    stub = LocalAuthStub.startHttps();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (service != null) {
+      service.close();
+    }
+    stub.close();
+  }
+
+  @Test
+  void firstLoginReusesPreConnectedConnections() {
+    HttpTransport transport =
+        VaultUamiHttpTransports.create(new VaultUamiAuthProperties.Http(), null);
+    service = stub.uamiService(transport);
+
+    VaultUamiPreConnect.warmUp(transport, stub.vaultUri(), stub.identityEndpoint());
+    int preConnected = stub.distinctConnections();
+    service.authenticate();
+
+    assertTrue(preConnected > 0);
+    assertEquals(preConnected, stub.distinctConnections(), "login opened no new connection");
+  }
+
+  @Test
+  void unreachableTargetsDoNotFailThePreConnect() {
+    try (HttpTransport transport =
+        VaultUamiHttpTransports.create(new VaultUamiAuthProperties.Http(), null)) {
+      assertDoesNotThrow(
+          () -> VaultUamiPreConnect.warmUp(transport, "https://127.0.0.1:1", null));
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.example.vault.delegate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.configuration.VaultUamiAuthProperties;
+import com.example.vault.configuration.VaultUamiHttpClients;
+import com.example.vault.service.UamiAuthService;
+import com.example.vault.stub.LocalAuthStub;
+import com.example.vault.transport.ClassicHttpTransport;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.vault.support.VaultToken;
+
+class VaultUamiAuthenticationTests {
+
+  private static final int CALLERS = 200;
+
+  private LocalAuthStub stub;
+  private UamiAuthService authService;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    stub = LocalAuthStub.start();
+    authService =
+        stub.uamiService(
+            new ClassicHttpTransport(
+                VaultUamiHttpClients.create(new VaultUamiAuthProperties.Http())));
+  }
+
+  @AfterEach
+  void tearDown() {
+    authService.close();
+    stub.close();
+  }
+
+  @Test
+  void concurrentLoginsShareOneImdsCallAndOneVaultLogin() throws Exception {
+    VaultUamiAuthentication authentication = new VaultUamiAuthentication(authService);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<VaultToken>> results = new ArrayList<>();
+    stub.holdLogins();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < CALLERS; i++) {
+        results.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return authentication.login();
+                }));
+      }
+      start.countDown();
+      awaitJoins(authentication, CALLERS - 1);
+      stub.releaseLogins();
+
+      for (Future<VaultToken> result : results) {
+        assertEquals("vault-client-token", result.get(10, TimeUnit.SECONDS).getToken());
+      }
+    }
+
+    assertEquals(1, stub.imdsCalls());
+    assertEquals(1, stub.loginCalls());
+  }
+
+  private static void awaitJoins(VaultUamiAuthentication authentication, long expected)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (authentication.getCoalescedLoginCount() < expected) {
+      if (System.nanoTime() > deadline) {
+        fail("only " + authentication.getCoalescedLoginCount() + " callers joined the login");
+      }
+      Thread.sleep(5);
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package com.example.vault.delegate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.configuration.VaultUamiAuthProperties;
+import com.example.vault.configuration.VaultUamiAuthProperties.Identity;
+import com.example.vault.configuration.VaultUamiHttpTransports;
+import com.example.vault.service.AuthResilience;
+import com.example.vault.service.ManagedIdentityTokenCache;
+import com.example.vault.service.UamiAuthMetrics;
+import com.example.vault.service.UamiAuthService;
+import com.example.vault.stub.LocalAuthStub;
+import com.example.vault.transport.HttpTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class VaultUamiTokenManagerTests {
+
+  private LocalAuthStub stub;
+  private HttpTransport transport;
+  private ManagedIdentityTokenCache cache;
+  private VaultUamiTokenManager tokenManager;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    stub = LocalAuthStub.start();
+    transport = VaultUamiHttpTransports.create(new VaultUamiAuthProperties.Http(), null);
+    cache = new ManagedIdentityTokenCache(Duration.ofMinutes(5));
+
+    VaultUamiAuthProperties props =
+        new VaultUamiAuthProperties(
+            stub.vaultUri(), "root-namespace", "root-client-id", "root-resource", "root-role");
+    props.getIdentities().put("payments", identity("payments-ns", "payments-client-id"));
+    props.getIdentities().put("orders", identity("orders-ns", "orders-client-id"));
+
+    Map<String, String> env =
+        Map.of("IDENTITY_ENDPOINT", stub.identityEndpoint(), "IDENTITY_HEADER", "id-header");
+    tokenManager =
+        new VaultUamiTokenManager(props, transport, cache, new SimpleMeterRegistry()) {
+          @Override
+          protected UamiAuthService createAuthService(Identity identity, UamiAuthMetrics metrics) {
+            return new UamiAuthService(
+                identity.getUri(),
+                identity.getNamespace(),
+                identity.getRole(),
+                identity.getResource(),
+                identity.getClientId(),
+                transport,
+                cache,
+                metrics,
+                AuthResilience.none()) {
+              @Override
+              protected String getEnv(String key) {
+                return env.get(key);
+              }
+            };
+          }
+        };
+  }
+
+  private static Identity identity(String namespace, String clientId) {
+    Identity identity = new Identity();
+    identity.setNamespace(namespace);
+    identity.setClientId(clientId);
+    return identity;
+  }
+
+  @AfterEach
+  void tearDown() {
+    tokenManager.close();
+    cache.close();
+    transport.close();
+    stub.close();
+  }
+
+  @Test
+  void identitiesLogInIndependentlyOverOneSharedConnectionPool() {
+    assertEquals(
+        "vault-client-token",
+        tokenManager.getClientAuthentication("payments").login().getToken());
+    assertEquals(
+        "vault-client-token", tokenManager.getClientAuthentication("orders").login().getToken());
+    tokenManager.getClientAuthentication("payments").login();
+
+    assertEquals(2, stub.imdsCalls(), "one access token per managed identity");
+    assertEquals(3, stub.loginCalls());
+    assertEquals(1, stub.distinctConnections());
+  }
+
+  @Test
+  void identitiesInheritUnsetFieldsFromTopLevelSettings() {
+    VaultUamiAuthProperties props =
+        new VaultUamiAuthProperties("https://vault", "ns", "client-id", "resource", "role");
+    props.getIdentities().put("reports", identity("reports-ns", null));
+
+    Identity resolved = props.resolveIdentity("reports");
+
+    assertEquals("https://vault", resolved.getUri());
+    assertEquals("reports-ns", resolved.getNamespace());
+    assertEquals("client-id", resolved.getClientId());
+    assertEquals("role", resolved.getRole());
+  }
+
+  @Test
+  void vaultTemplateIsCreatedOncePerIdentity() {
+    assertSame(tokenManager.getVaultTemplate("orders"), tokenManager.getVaultTemplate("orders"));
+    assertNotSame(
+        tokenManager.getVaultTemplate("orders"), tokenManager.getVaultTemplate("payments"));
+  }
+
+  @Test
+  void unknownIdentityIsRejected() {
+    assertThrows(
+        IllegalArgumentException.class, () -> tokenManager.getClientAuthentication("unknown"));
+  }
+}
@@ -0,0 +1,42 @@
+package com.example.vault.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StartupTimelineTests {
+
+  private final StartupTimeline timeline = new StartupTimeline();
+
+  @Test
+  void phasesAreReportedInStartOrderWithTheRemainder() throws Exception {
+    timeline.start();
+    try (StartupTimeline.Span phase = timeline.phase("bind-properties")) {
+      Thread.sleep(20);
+    }
+    long start = System.nanoTime();
+    Thread.sleep(20);
+    timeline.record("vault.uami.vault.login", start);
+
+    String report = timeline.report();
+
+    assertEquals(
+        List.of("bind-properties", "vault.uami.vault.login"),
+        timeline.phases().stream().map(StartupTimeline.Phase::name).toList());
+    assertTrue(report.startsWith("Vault UAMI startup timeline"), report);
+    assertTrue(report.indexOf("bind-properties") < report.indexOf("vault.uami.vault.login"));
+    assertTrue(report.contains("outside these phases"), report);
+  }
+
+  @Test
+  void nothingIsRecordedAfterTheReport() {
+    timeline.start();
+    timeline.report();
+
+    timeline.record("vault.uami.vault.login", System.nanoTime());
+    timeline.phase("tls-context").close();
+
+    assertTrue(timeline.phases().isEmpty());
+  }
+}
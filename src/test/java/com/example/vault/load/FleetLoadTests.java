@@ -0,0 +1,222 @@
+package com.example.vault.load;
+
+import static com.example.vault.load.LoadHarness.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.configuration.VaultUamiAuthProperties;
+import com.example.vault.configuration.VaultUamiHttpTransports;
+import com.example.vault.delegate.VaultUamiAuthentication;
+import com.example.vault.service.AuthResilience;
+import com.example.vault.service.CircuitBreaker;
+import com.example.vault.service.ManagedIdentityTokenCache;
+import com.example.vault.service.RetryPolicy;
+import com.example.vault.service.UamiAuthMetrics;
+import com.example.vault.service.UamiAuthService;
+import com.example.vault.stub.LocalAuthStub;
+import com.example.vault.transport.HttpTransport;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.vault.authentication.LifecycleAwareSessionManager;
+import org.springframework.vault.client.RestTemplateBuilder;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.core.VaultTemplate;
+
+/**
+ * A fleet of simulated pods, each with its own login service and connection pool, driving one
+ * local IMDS and Vault stub from many virtual threads. Run with {@code ./mvnw -Pload test}; the
+ * {@code load.*} system properties of {@link LoadHarness} scale it up to a soak test. Leaks of
+ * connections, platform threads or heap per login fail the run.
+ */
+@Tag("load")
+class FleetLoadTests {
+  private static final Logger logger = LoggerFactory.getLogger(FleetLoadTests.class);
+
+  static {
+    // The stub's HttpServer closes every connection beyond its 200th idle one, and the pools would
+    // then reuse a closed connection. The fleet keeps up to pods x max-per-route of them open.
+    System.setProperty("sun.net.httpserver.maxIdleConnections", "10000");
+  }
+
+  private final int pods = intSetting("pods", 50);
+  private final int threads = intSetting("threads", 4);
+  private final Duration duration = durationSetting("duration", Duration.ofSeconds(20));
+  private final Duration latency = durationSetting("latency", Duration.ofMillis(5));
+  private final double errorRate = doubleSetting("error-rate", 0.01);
+  private final int rateLimit = intSetting("rate-limit", 0);
+  private final double maxFailureRatio = doubleSetting("max-failure-ratio", 0.01);
+  private final int maxThreadGrowth = intSetting("max-thread-growth", 16);
+  private final int maxHeapGrowthMb = intSetting("max-heap-growth-mb", 64);
+
+  private final VaultUamiAuthProperties.Http http = new VaultUamiAuthProperties.Http();
+  private final List<AutoCloseable> closeables = new ArrayList<>();
+  private LocalAuthStub stub;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    stub = LocalAuthStub.start();
+    for (String path : List.of(LocalAuthStub.IDENTITY_PATH, LocalAuthStub.LOGIN_PATH)) {
+      stub.setLatency(path, latency);
+      stub.setErrorRate(path, errorRate, 503);
+      stub.setRateLimit(path, rateLimit);
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    for (AutoCloseable closeable : closeables.reversed()) {
+      closeable.close();
+    }
+    stub.close();
+  }
+
+  private UamiAuthService pod() {
+    UamiAuthService service =
+        stub.uamiService(
+            VaultUamiHttpTransports.create(http, null),
+            new ManagedIdentityTokenCache(Duration.ofMinutes(5)),
+            UamiAuthMetrics.NOOP,
+            new AuthResilience(
+                new RetryPolicy(
+                    5, Duration.ofMillis(20), Duration.ofSeconds(1), Duration.ofSeconds(30)),
+                CircuitBreaker.disabled("imds"),
+                CircuitBreaker.disabled("vault")));
+    closeables.add(service);
+    return service;
+  }
+
+  @Test
+  void podFleetLogsInWithoutLeakingConnectionsThreadsOrHeap() {
+    List<VaultUamiAuthentication> authentications = new ArrayList<>();
+    for (int i = 0; i < pods; i++) {
+      VaultUamiAuthentication authentication = new VaultUamiAuthentication(pod());
+      authentication.login();
+      authentications.add(authentication);
+    }
+
+    Latencies latencies = new Latencies();
+    Resources before = Resources.sample(true);
+    Resources peak = drive(authentications, VaultUamiAuthentication::login, latencies);
+    Resources after = Resources.sample(true);
+    logger.info(report("Fleet logins", duration, latencies, before, peak, after));
+
+    long calls = latencies.successes() + latencies.failures();
+    assertTrue(calls > 0);
+    assertTrue(
+        latencies.failures() <= calls * maxFailureRatio,
+        latencies.failures() + " of " + calls + " logins failed");
+    assertLeakFree(before, peak, after);
+  }
+
+  @Test
+  void sessionsRenewInsteadOfLoggingInAgain() {
+    for (String path : List.of(LocalAuthStub.IDENTITY_PATH, LocalAuthStub.LOGIN_PATH)) {
+      stub.setErrorRate(path, 0, 503);
+    }
+    stub.setLeaseDuration(Duration.ofSeconds(10));
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(2);
+    scheduler.setDaemon(true);
+    scheduler.initialize();
+    closeables.add(scheduler::shutdown);
+    List<VaultTemplate> templates = new ArrayList<>();
+    for (int i = 0; i < pods; i++) {
+      HttpTransport transport = VaultUamiHttpTransports.create(http, null);
+      closeables.add(transport);
+      RestTemplateBuilder restTemplateBuilder =
+          RestTemplateBuilder.builder()
+              .requestFactory(transport.requestFactory())
+              .endpoint(VaultEndpoint.from(URI.create(stub.vaultUri())));
+      LifecycleAwareSessionManager sessionManager =
+          new LifecycleAwareSessionManager(
+              new VaultUamiAuthentication(pod()),
+              scheduler,
+              restTemplateBuilder.build(),
+              new LifecycleAwareSessionManager.FixedTimeoutRefreshTrigger(
+                  Duration.ofSeconds(5), Duration.ofSeconds(1)));
+      closeables.add(sessionManager::destroy);
+      VaultTemplate template = new VaultTemplate(restTemplateBuilder, sessionManager);
+      template.read("secret/app");
+      templates.add(template);
+    }
+
+    Latencies latencies = new Latencies();
+    Resources before = Resources.sample(true);
+    Resources peak = drive(templates, template -> template.read("secret/app"), latencies);
+    Resources after = Resources.sample(true);
+    logger.info(report("Session reads", duration, latencies, before, peak, after));
+
+    assertEquals(0, latencies.failures());
+    assertEquals(pods, stub.loginCalls(), "every pod logged in once");
+    if (duration.compareTo(Duration.ofSeconds(10)) >= 0) {
+      assertTrue(stub.renewCalls() >= pods, stub.renewCalls() + " renewals");
+    }
+    assertLeakFree(before, peak, after);
+  }
+
+  /** Calls each target from {@code threads} virtual threads until the duration is over. */
+  private <T> Resources drive(List<T> targets, Consumer<T> call, Latencies latencies) {
+    long deadline = System.nanoTime() + duration.toNanos();
+    Resources peak = Resources.sample(false);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (T target : targets) {
+        for (int i = 0; i < threads; i++) {
+          executor.execute(
+              () -> {
+                while (System.nanoTime() < deadline) {
+                  long start = System.nanoTime();
+                  try {
+                    call.accept(target);
+                    latencies.success(System.nanoTime() - start);
+                  } catch (RuntimeException e) {
+                    latencies.failure();
+                  }
+                }
+              });
+        }
+      }
+      while (System.nanoTime() < deadline) {
+        Thread.sleep(500);
+        Resources sample = Resources.sample(false);
+        peak =
+            new Resources(
+                Math.max(peak.openSockets(), sample.openSockets()),
+                Math.max(peak.heapUsed(), sample.heapUsed()),
+                Math.max(peak.platformThreads(), sample.platformThreads()));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return peak;
+  }
+
+  /**
+   * Connections are bounded by the pools, client and stub side; platform threads and heap after GC
+   * stay flat while the pods keep logging in.
+   */
+  private void assertLeakFree(Resources before, Resources peak, Resources after) {
+    if (before.openSockets() >= 0) {
+      long maxSockets = before.openSockets() + 2L * pods * http.getMaxPerRoute();
+      assertTrue(
+          peak.openSockets() <= maxSockets,
+          peak.openSockets() + " open sockets, at most " + maxSockets + " expected");
+    }
+    assertTrue(
+        peak.platformThreads() - before.platformThreads() <= maxThreadGrowth,
+        "platform threads grew from " + before.platformThreads() + " to " + peak.platformThreads());
+    assertTrue(
+        (after.heapUsed() - before.heapUsed()) >> 20 <= maxHeapGrowthMb,
+        "heap grew from " + (before.heapUsed() >> 20) + "MB to " + (after.heapUsed() >> 20) + "MB");
+  }
+}
@@ -0,0 +1,153 @@
+package com.example.vault.load;
+
+import com.example.vault.stub.LocalAuthStub;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Settings, latency recording and resource sampling of the load tests. Settings are system
+ * properties, so a soak run only changes the command line:
+ *
+ * <pre>
+ * ./mvnw -Pload test -Dload.pods=100 -Dload.threads=8 -Dload.duration=PT30M
+ * </pre>
+ */
+final class LoadHarness {
+
+  private LoadHarness() {}
+
+  static int intSetting(String name, int defaultValue) {
+    return Integer.getInteger("load." + name, defaultValue);
+  }
+
+  static double doubleSetting(String name, double defaultValue) {
+    String value = System.getProperty("load." + name);
+    return value == null ? defaultValue : Double.parseDouble(value);
+  }
+
+  static Duration durationSetting(String name, Duration defaultValue) {
+    String value = System.getProperty("load." + name);
+    return value == null ? defaultValue : Duration.parse(value);
+  }
+
+  /** Latencies of the successful calls and the count of failed ones. */
+  static final class Latencies {
+    private long[] nanos = new long[1 << 16];
+    private int size;
+    private final AtomicLong failures = new AtomicLong();
+
+    synchronized void success(long latencyNanos) {
+      if (size == nanos.length) {
+        nanos = Arrays.copyOf(nanos, size * 2);
+      }
+      nanos[size++] = latencyNanos;
+    }
+
+    void failure() {
+      failures.incrementAndGet();
+    }
+
+    synchronized int successes() {
+      return size;
+    }
+
+    long failures() {
+      return failures.get();
+    }
+
+    /** Latency at the given percentile, e.g. 99.9. */
+    synchronized Duration percentile(double percentile) {
+      if (size == 0) {
+        return Duration.ZERO;
+      }
+      long[] sorted = Arrays.copyOf(nanos, size);
+      Arrays.sort(sorted);
+      int index = (int) Math.ceil(percentile / 100 * size) - 1;
+      return Duration.ofNanos(sorted[Math.max(0, Math.min(index, size - 1))]);
+    }
+  }
+
+  /**
+   * Process resources at one point in time.
+   *
+   * @param openSockets sockets among the open file descriptors, or -1 without {@code /proc}
+   * @param heapUsed used heap in bytes
+   * @param platformThreads live platform threads, not counting the stub's request threads
+   */
+  record Resources(long openSockets, long heapUsed, int platformThreads) {
+
+    /** Samples the resources, after a GC if {@code gc} is set, so heap use can be compared. */
+    static Resources sample(boolean gc) {
+      if (gc) {
+        System.gc();
+      }
+      return new Resources(
+          countOpenSockets(),
+          ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(),
+          (int)
+              Thread.getAllStackTraces().keySet().stream()
+                  .filter(thread -> !thread.getName().startsWith(LocalAuthStub.THREAD_NAME_PREFIX))
+                  .count());
+    }
+
+    private static long countOpenSockets() {
+      Path fds = Path.of("/proc/self/fd");
+      if (!Files.isDirectory(fds)) {
+        return -1;
+      }
+      long sockets = 0;
+      try (DirectoryStream<Path> entries = Files.newDirectoryStream(fds)) {
+        for (Path entry : entries) {
+          try {
+            if (Files.readSymbolicLink(entry).toString().startsWith("socket:")) {
+              sockets++;
+            }
+          } catch (IOException e) {
+            // Closed while listing.
+          }
+        }
+      } catch (IOException e) {
+        return -1;
+      }
+      return sockets;
+    }
+  }
+
+  /** One line per measure, logged at the end of a run. */
+  static String report(
+      String name,
+      Duration elapsed,
+      Latencies latencies,
+      Resources before,
+      Resources peak,
+      Resources after) {
+    double seconds = elapsed.toNanos() / 1e9;
+    return String.format(
+        "%s: %d calls (%.1f/s), %d failed%n"
+            + "  latency p50 %dms, p99 %dms, p99.9 %dms%n"
+            + "  sockets %d -> peak %d -> %d%n"
+            + "  heap %dMB -> %dMB after GC%n"
+            + "  platform threads %d -> peak %d -> %d",
+        name,
+        latencies.successes(),
+        latencies.successes() / seconds,
+        latencies.failures(),
+        latencies.percentile(50).toMillis(),
+        latencies.percentile(99).toMillis(),
+        latencies.percentile(99.9).toMillis(),
+        before.openSockets(),
+        peak.openSockets(),
+        after.openSockets(),
+        before.heapUsed() >> 20,
+        after.heapUsed() >> 20,
+        before.platformThreads(),
+        peak.platformThreads(),
+        after.platformThreads());
+  }
+}
@@ -0,0 +1,117 @@
+package com.example.vault.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.vault.core.VaultOperations;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.web.client.HttpClientErrorException;
+
+class BulkSecretFetcherTests {
+
+  private VaultOperations operations;
+
+  @BeforeEach
+  void setUp() {
+    operations = mock(VaultOperations.class);
+  }
+
+  private static VaultResponse response(Map<String, Object> data) {
+    VaultResponse response = new VaultResponse();
+    response.setData(data);
+    return response;
+  }
+
+  @Test
+  void pathsAreReadConcurrently() {
+    CountDownLatch allStarted = new CountDownLatch(4);
+    when(operations.read(anyString()))
+        .thenAnswer(
+            invocation -> {
+              allStarted.countDown();
+              // Completes only if all four reads are in flight at the same time.
+              assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+              return response(Map.of("path", invocation.getArgument(0)));
+            });
+
+    BulkSecretFetcher.Result result =
+        new BulkSecretFetcher(operations, 4, Duration.ofSeconds(10))
+            .fetch(List.of("secret/a", "secret/b", "secret/c", "secret/d"));
+
+    assertTrue(result.isComplete());
+    assertEquals(
+        List.of("secret/a", "secret/b", "secret/c", "secret/d"),
+        List.copyOf(result.secrets().keySet()));
+  }
+
+  @Test
+  void concurrencyIsBounded() {
+    AtomicInteger active = new AtomicInteger();
+    AtomicInteger maxActive = new AtomicInteger();
+    when(operations.read(anyString()))
+        .thenAnswer(
+            invocation -> {
+              maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+              Thread.sleep(20);
+              active.decrementAndGet();
+              return response(Map.of("k", "v"));
+            });
+
+    new BulkSecretFetcher(operations, 2, Duration.ofSeconds(10))
+        .fetch(List.of("p1", "p2", "p3", "p4", "p5", "p6"));
+
+    assertEquals(2, maxActive.get());
+  }
+
+  @Test
+  void laterPathsOverrideEarlierOnesAndKvV2DataIsUnwrapped() {
+    when(operations.read("secret/data/common"))
+        .thenReturn(
+            response(
+                Map.of(
+                    "data", Map.of("db", Map.of("user", "app"), "level", "info"),
+                    "metadata", Map.of("version", 2))));
+    when(operations.read("secret/data/service")).thenReturn(response(Map.of("level", "debug")));
+
+    BulkSecretFetcher.Result result =
+        new BulkSecretFetcher(operations, 4, Duration.ofSeconds(10))
+            .fetch(List.of("secret/data/common", "secret/data/service"));
+
+    assertEquals(Map.of("db.user", "app", "level", "debug"), result.merged());
+    assertEquals(2, result.revisions().get("secret/data/common").version());
+    assertNull(result.revisions().get("secret/data/service").version());
+  }
+
+  @Test
+  void failedAndSlowPathsAreReportedWithoutFailingTheOthers() {
+    when(operations.read("ok")).thenReturn(response(Map.of("k", "v")));
+    when(operations.read("forbidden"))
+        .thenThrow(new HttpClientErrorException(HttpStatus.FORBIDDEN));
+    when(operations.read("missing")).thenReturn(null);
+    when(operations.read("slow"))
+        .thenAnswer(
+            invocation -> {
+              Thread.sleep(2_000);
+              return response(Map.of("late", "value"));
+            });
+
+    BulkSecretFetcher.Result result =
+        new BulkSecretFetcher(operations, 4, Duration.ofMillis(200))
+            .fetch(List.of("ok", "forbidden", "missing", "slow"));
+
+    assertFalse(result.isComplete());
+    assertEquals(Map.of("k", "v"), result.merged());
+    assertEquals(List.of("forbidden", "missing", "slow"), List.copyOf(result.failures().keySet()));
+    assertInstanceOf(HttpClientErrorException.class, result.failures().get("forbidden"));
+    assertTrue(result.failures().get("slow").getMessage().contains("took longer than"));
+  }
+}
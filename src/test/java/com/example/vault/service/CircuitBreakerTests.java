@@ -0,0 +1,61 @@
+package com.example.vault.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.service.ManagedIdentityTokenCacheTests.MutableClock;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTests {
+
+  private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+  private final CircuitBreaker breaker =
+      new CircuitBreaker("vault", 3, Duration.ofSeconds(30), clock);
+
+  private void fail(int times) {
+    for (int i = 0; i < times; i++) {
+      breaker.acquirePermission();
+      breaker.onFailure();
+    }
+  }
+
+  @Test
+  void opensAfterConsecutiveFailures() {
+    fail(2);
+    breaker.acquirePermission();
+    breaker.onSuccess();
+    fail(2);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+    fail(1);
+
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    assertThrows(CircuitBreaker.OpenException.class, breaker::acquirePermission);
+  }
+
+  @Test
+  void letsOneTrialCallThroughAfterTheOpenDuration() {
+    fail(3);
+    clock.advance(Duration.ofSeconds(30));
+
+    breaker.acquirePermission();
+
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    assertThrows(CircuitBreaker.OpenException.class, breaker::acquirePermission);
+    breaker.onSuccess();
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+  }
+
+  @Test
+  void failedTrialReopens() {
+    fail(3);
+    clock.advance(Duration.ofSeconds(30));
+
+    fail(1);
+
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    clock.advance(Duration.ofSeconds(29));
+    assertThrows(CircuitBreaker.OpenException.class, breaker::acquirePermission);
+  }
+}
@@ -0,0 +1,50 @@
+package com.example.vault.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class HashedTimerWheelTests {
+
+  private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+  private static List<String> items(List<HashedTimerWheel.Timeout<String>> timeouts) {
+    return timeouts.stream().map(HashedTimerWheel.Timeout::item).sorted().toList();
+  }
+
+  @Test
+  void timeoutsExpireOnTheTickOfTheirDeadline() {
+    HashedTimerWheel<String> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 8, 0);
+    wheel.schedule("a", 2 * SECOND + 1);
+    wheel.schedule("b", 3 * SECOND);
+    wheel.schedule("c", 5 * SECOND);
+
+    assertEquals(List.of(), items(wheel.expire(2 * SECOND)));
+    assertEquals(List.of("a", "b"), items(wheel.expire(3 * SECOND)));
+    assertEquals(1, wheel.size());
+    assertEquals(List.of("c"), items(wheel.expire(5 * SECOND)));
+  }
+
+  @Test
+  void timeoutsBeyondOneRoundWaitForTheirRound() {
+    HashedTimerWheel<String> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 4, 0);
+    wheel.schedule("near", 2 * SECOND);
+    wheel.schedule("far", 6 * SECOND);
+
+    assertEquals(List.of("near"), items(wheel.expire(3 * SECOND)));
+    assertEquals(List.of("far"), items(wheel.expire(100 * SECOND)));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void pastDeadlinesExpireOnTheNextTick() {
+    HashedTimerWheel<String> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 4, 0);
+    wheel.expire(10 * SECOND);
+    wheel.schedule("late", 2 * SECOND);
+
+    assertEquals(List.of(), items(wheel.expire(10 * SECOND)));
+    assertEquals(List.of("late"), items(wheel.expire(11 * SECOND)));
+  }
+}
@@ -0,0 +1,132 @@
+package com.example.vault.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.vault.service.ManagedIdentityTokenCacheTests.MutableClock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.vault.core.VaultOperations;
+import org.springframework.vault.support.VaultResponse;
+
+class IncrementalSecretRefresherTests {
+
+  private VaultOperations operations;
+  private BulkSecretFetcher fetcher;
+  private final List<IncrementalSecretRefresher.Change> changes = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    operations = mock(VaultOperations.class);
+    fetcher = new BulkSecretFetcher(operations, 4, Duration.ofSeconds(10));
+  }
+
+  private static VaultResponse kv2(int version, Map<String, Object> data) {
+    VaultResponse response = new VaultResponse();
+    response.setData(Map.of("data", data, "metadata", Map.of("version", version)));
+    return response;
+  }
+
+  private static VaultResponse metadata(int currentVersion) {
+    VaultResponse response = new VaultResponse();
+    response.setData(Map.of("current_version", currentVersion));
+    return response;
+  }
+
+  private static VaultResponse leased(long leaseSeconds, Map<String, Object> data) {
+    VaultResponse response = new VaultResponse();
+    response.setData(data);
+    response.setLeaseDuration(leaseSeconds);
+    return response;
+  }
+
+  @Test
+  void unchangedVersionsCostOnlyMetadataReads() {
+    when(operations.read("secret/data/a")).thenReturn(kv2(1, Map.of("a", "1")));
+    when(operations.read("secret/data/b")).thenReturn(kv2(3, Map.of("b", "1")));
+    when(operations.read("secret/metadata/a")).thenReturn(metadata(1));
+    when(operations.read("secret/metadata/b")).thenReturn(metadata(3));
+    IncrementalSecretRefresher refresher =
+        new IncrementalSecretRefresher(
+            fetcher, fetcher.fetch(List.of("secret/data/a", "secret/data/b")), changes::add);
+
+    assertEquals(Optional.empty(), refresher.refresh());
+    assertEquals(Optional.empty(), refresher.refresh());
+
+    verify(operations, times(1)).read("secret/data/a");
+    verify(operations, times(1)).read("secret/data/b");
+    assertEquals(4, refresher.getMetadataReadCount());
+    assertEquals(0, refresher.getSecretReadCount());
+    assertTrue(changes.isEmpty());
+  }
+
+  @Test
+  void onlyTheChangedPathIsReadAndDiffedKeyByKey() {
+    when(operations.read("secret/data/common"))
+        .thenReturn(kv2(1, Map.of("db", Map.of("user", "app", "pass", "old"), "level", "info")));
+    when(operations.read("secret/data/service")).thenReturn(kv2(1, Map.of("level", "debug")));
+    when(operations.read("secret/metadata/common")).thenReturn(metadata(2));
+    when(operations.read("secret/metadata/service")).thenReturn(metadata(1));
+    IncrementalSecretRefresher refresher =
+        new IncrementalSecretRefresher(
+            fetcher,
+            fetcher.fetch(List.of("secret/data/common", "secret/data/service")),
+            changes::add);
+    when(operations.read("secret/data/common"))
+        .thenReturn(kv2(2, Map.of("db", Map.of("user", "app", "pass", "new"), "level", "warn")));
+
+    IncrementalSecretRefresher.Change change = refresher.refresh().orElseThrow();
+
+    // level is still overridden by the later path, so only the password changed.
+    assertEquals(Set.of("db.pass"), change.keys());
+    assertEquals(Map.of("db.user", "app", "db.pass", "new", "level", "debug"), change.merged());
+    assertEquals(List.of(change), changes);
+    verify(operations, times(2)).read("secret/data/common");
+    verify(operations, times(1)).read("secret/data/service");
+    assertEquals(1, refresher.getSecretReadCount());
+  }
+
+  @Test
+  void leasedSecretsAreReadAgainOnceTheirLeaseRanOut() {
+    MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    when(operations.read("database/creds/app"))
+        .thenReturn(leased(60, Map.of("username", "v-1")))
+        .thenReturn(leased(60, Map.of("username", "v-2")));
+    IncrementalSecretRefresher refresher =
+        new IncrementalSecretRefresher(
+            fetcher, fetcher.fetch(List.of("database/creds/app")), changes::add, clock);
+
+    assertEquals(Optional.empty(), refresher.refresh());
+    clock.advance(Duration.ofSeconds(60));
+
+    assertEquals(Set.of("username"), refresher.refresh().orElseThrow().keys());
+    assertEquals(0, refresher.getMetadataReadCount());
+  }
+
+  @Test
+  void failedReadsKeepThePreviousValues() {
+    when(operations.read("secret/data/a")).thenReturn(kv2(1, Map.of("a", "1")));
+    when(operations.read("secret/metadata/a")).thenReturn(metadata(2));
+    IncrementalSecretRefresher refresher =
+        new IncrementalSecretRefresher(
+            fetcher, fetcher.fetch(List.of("secret/data/a")), changes::add);
+    when(operations.read("secret/data/a")).thenThrow(new IllegalStateException("sealed"));
+
+    assertEquals(Optional.empty(), refresher.refresh());
+    assertTrue(changes.isEmpty());
+  }
+
+  @Test
+  void metadataPathReplacesTheDataSegment() {
+    assertEquals(
+        "secret/metadata/app/data/x",
+        IncrementalSecretRefresher.metadataPath("secret/data/app/data/x"));
+  }
+}
@@ -0,0 +1,157 @@
+package com.example.vault.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.vault.core.VaultOperations;
+import org.springframework.vault.support.VaultResponse;
+
+class LeaseRenewalSchedulerTests {
+
+  private VaultOperations operations;
+  private LeaseRenewalScheduler scheduler;
+  private final List<VaultResponse> reissued = new CopyOnWriteArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    operations = mock(VaultOperations.class);
+  }
+
+  @AfterEach
+  void tearDown() {
+    scheduler.close();
+  }
+
+  private static VaultResponse leased(String leaseId, long seconds, boolean renewable) {
+    VaultResponse response = new VaultResponse();
+    response.setData(Map.of("username", leaseId));
+    response.setLeaseId(leaseId);
+    response.setLeaseDuration(seconds);
+    response.setRenewable(renewable);
+    return response;
+  }
+
+  private static long in(Duration delay) {
+    return System.nanoTime() + delay.toNanos();
+  }
+
+  private void awaitIdle() {
+    long deadline = in(Duration.ofSeconds(5));
+    while (scheduler.getQueueDepth() > 0 && System.nanoTime() < deadline) {
+      Thread.onSpinWait();
+    }
+    assertEquals(0, scheduler.getQueueDepth());
+  }
+
+  @Test
+  void leasesAreRenewedAfterTwoThirdsOfTheirDuration() {
+    scheduler = new LeaseRenewalScheduler(operations, Duration.ofSeconds(1), 512, 0, 4);
+    when(operations.write(eq("sys/leases/renew"), any())).thenReturn(leased("db/1", 60, true));
+
+    scheduler.register("database/creds/app", leased("db/1", 60, true), reissued::add);
+
+    assertEquals(0, scheduler.runDue(in(Duration.ofSeconds(30))));
+    assertEquals(1, scheduler.runDue(in(Duration.ofSeconds(42))));
+    awaitIdle();
+    verify(operations).write("sys/leases/renew", Map.of("lease_id", "db/1", "increment", 60L));
+    assertEquals(1, scheduler.getRenewalCount());
+    assertEquals(1, scheduler.getScheduledCount(), "renewed lease is scheduled again");
+    assertTrue(reissued.isEmpty());
+  }
+
+  @Test
+  void leaseCappedByItsMaxTtlIsReissued() {
+    scheduler = new LeaseRenewalScheduler(operations, Duration.ofSeconds(1), 512, 0, 4);
+    // Vault grants less than requested once the max TTL is near.
+    when(operations.write(eq("sys/leases/renew"), any())).thenReturn(leased("db/1", 20, true));
+    when(operations.read("database/creds/app")).thenReturn(leased("db/2", 60, true));
+
+    scheduler.register("database/creds/app", leased("db/1", 60, true), reissued::add);
+    scheduler.runDue(in(Duration.ofSeconds(42)));
+    awaitIdle();
+    scheduler.runDue(in(Duration.ofSeconds(60)));
+    awaitIdle();
+
+    assertEquals(1, scheduler.getReissueCount());
+    assertEquals(1, reissued.size());
+    assertEquals("db/2", reissued.get(0).getLeaseId());
+    assertEquals(1, scheduler.getScheduledCount());
+  }
+
+  @Test
+  void jitterSpreadsLeasesObtainedTogether() {
+    scheduler = new LeaseRenewalScheduler(operations, Duration.ofSeconds(1), 512, 0.5, 4);
+    when(operations.write(eq("sys/leases/renew"), any())).thenReturn(leased("db", 60, true));
+    for (int i = 0; i < 100; i++) {
+      scheduler.register("database/creds/app" + i, leased("db/" + i, 60, true), reissued::add);
+    }
+
+    // Renewals fall between 20s (two thirds, halved) and 40s (two thirds).
+    assertEquals(0, scheduler.runDue(in(Duration.ofSeconds(19))));
+    int early = scheduler.runDue(in(Duration.ofSeconds(30)));
+    awaitIdle();
+
+    assertTrue(early > 0 && early < 100, "renewed at 30s: " + early);
+  }
+
+  @Test
+  void renewalsInFlightAreBounded() {
+    scheduler = new LeaseRenewalScheduler(operations, Duration.ofSeconds(1), 512, 0, 2);
+    AtomicInteger active = new AtomicInteger();
+    AtomicInteger maxActive = new AtomicInteger();
+    when(operations.write(eq("sys/leases/renew"), any()))
+        .thenAnswer(
+            invocation -> {
+              maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+              Thread.sleep(20);
+              active.decrementAndGet();
+              return leased("db", 60, true);
+            });
+    for (int i = 0; i < 6; i++) {
+      scheduler.register("database/creds/app" + i, leased("db/" + i, 60, true), reissued::add);
+    }
+
+    assertEquals(6, scheduler.runDue(in(Duration.ofSeconds(42))));
+    awaitIdle();
+
+    assertEquals(2, maxActive.get());
+    assertEquals(6, scheduler.getRenewalCount());
+  }
+
+  @Test
+  void failedRenewalIsRetriedAsReissue() {
+    scheduler = new LeaseRenewalScheduler(operations, Duration.ofSeconds(1), 512, 0, 4);
+    when(operations.write(eq("sys/leases/renew"), any()))
+        .thenThrow(new IllegalStateException("lease not found"));
+    when(operations.read("database/creds/app")).thenReturn(leased("db/2", 60, true));
+
+    scheduler.register("database/creds/app", leased("db/1", 60, true), reissued::add);
+    scheduler.runDue(in(Duration.ofSeconds(42)));
+    awaitIdle();
+    scheduler.runDue(in(Duration.ofSeconds(42).plus(LeaseRenewalScheduler.RETRY_DELAY)));
+    awaitIdle();
+
+    assertEquals(1, scheduler.getFailureCount());
+    assertEquals(1, reissued.size());
+  }
+
+  @Test
+  void cancelledAndUnleasedSecretsAreNotRenewed() {
+    scheduler = new LeaseRenewalScheduler(operations, Duration.ofSeconds(1), 512, 0, 4);
+
+    scheduler.register("secret/static", leased("", 0, false), reissued::add);
+    scheduler.register("database/creds/app", leased("db/1", 60, true), reissued::add);
+    scheduler.cancel("database/creds/app");
+    scheduler.runDue(in(Duration.ofSeconds(42)));
+
+    verifyNoInteractions(operations);
+  }
+}
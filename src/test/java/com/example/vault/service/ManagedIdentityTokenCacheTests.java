@@ -0,0 +1,163 @@
+package com.example.vault.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.service.ManagedIdentityTokenCache.AccessToken;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ManagedIdentityTokenCacheTests {
+
+  private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+  private final ManagedIdentityTokenCache cache =
+      new ManagedIdentityTokenCache(Duration.ofMinutes(5), clock);
+
+  static class MutableClock extends Clock {
+    private volatile Instant now;
+
+    MutableClock(Instant now) {
+      this.now = now;
+    }
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    cache.close();
+  }
+
+  @Test
+  void getTokenReusesCachedTokenUntilRefreshWindow() {
+    AtomicInteger loads = new AtomicInteger();
+
+    for (int i = 0; i < 10; i++) {
+      String token =
+          cache.getToken(
+              "resource",
+              "client",
+              () -> validForAnHour("token-" + loads.incrementAndGet()));
+      assertEquals("token-1", token);
+    }
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void getTokenRefreshesAheadInBackground() throws Exception {
+    cache.getToken("resource", "client", () -> validForAnHour("old"));
+    clock.advance(Duration.ofMinutes(56));
+    CountDownLatch refreshed = new CountDownLatch(1);
+
+    String token =
+        cache.getToken(
+            "resource",
+            "client",
+            () -> {
+              refreshed.countDown();
+              return validForAnHour("new");
+            });
+
+    assertEquals("old", token);
+    assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+    awaitToken("new");
+  }
+
+  @Test
+  void getTokenServesStaleTokenWhenRefreshFails() throws Exception {
+    cache.getToken("resource", "client", () -> validForAnHour("old"));
+    clock.advance(Duration.ofMinutes(56));
+    CountDownLatch attempted = new CountDownLatch(1);
+
+    String token =
+        cache.getToken(
+            "resource",
+            "client",
+            () -> {
+              attempted.countDown();
+              throw new RuntimeException("429 Too Many Requests");
+            });
+
+    assertEquals("old", token);
+    assertTrue(attempted.await(5, TimeUnit.SECONDS));
+    Thread.sleep(50);
+    assertEquals(
+        "old",
+        cache.getToken(
+            "resource",
+            "client",
+            () -> {
+              throw new RuntimeException("still throttled");
+            }));
+  }
+
+  @Test
+  void getTokenRefreshesWithTheRefresherNotTheLoader() throws Exception {
+    cache.getToken("resource", "client", () -> validForAnHour("old"));
+    clock.advance(Duration.ofMinutes(56));
+
+    String token =
+        cache.getToken(
+            "resource", "client", () -> fail("unexpected load"), () -> validForAnHour("new"));
+
+    assertEquals("old", token);
+    awaitToken("new");
+  }
+
+  @Test
+  void getTokenServesCachedTokenOnceClosed() {
+    cache.getToken("resource", "client", () -> validForAnHour("old"));
+    clock.advance(Duration.ofMinutes(56));
+    cache.close();
+
+    assertEquals("old", cache.getToken("resource", "client", () -> fail("unexpected load")));
+  }
+
+  @Test
+  void getTokenLoadsSynchronouslyOnceExpired() {
+    cache.getToken("resource", "client", () -> validForAnHour("old"));
+    clock.advance(Duration.ofMinutes(61));
+
+    assertEquals("new", cache.getToken("resource", "client", () -> validForAnHour("new")));
+  }
+
+  private AccessToken validForAnHour(String token) {
+    return new AccessToken(token, clock.instant().plusSeconds(3600));
+  }
+
+  private void awaitToken(String expected) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (System.nanoTime() < deadline) {
+      String token = cache.getToken("resource", "client", () -> fail("unexpected load"));
+      if (expected.equals(token)) {
+        return;
+      }
+      Thread.sleep(10);
+    }
+    fail("token was not refreshed to " + expected);
+  }
+}
@@ -0,0 +1,62 @@
+package com.example.vault.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.service.PersistentTokenStore.StoredToken;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.vault.authentication.LoginToken;
+
+class PersistentTokenStoreTests {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void saveAndLoadRoundTripsTheToken() throws Exception {
+    Path file = tempDir.resolve("store/token");
+    PersistentTokenStore store = new PersistentTokenStore(file, "client-id", "resource");
+
+    store.save(
+        LoginToken.builder()
+            .token("vault-client-token")
+            .leaseDuration(Duration.ofHours(1))
+            .renewable(true)
+            .accessor("vault-accessor")
+            .build());
+    Optional<StoredToken> loaded = store.load();
+
+    assertTrue(loaded.isPresent());
+    assertEquals("vault-client-token", loaded.get().token());
+    assertTrue(loaded.get().renewable());
+    assertEquals("vault-accessor", loaded.get().accessor());
+    assertFalse(new String(Files.readAllBytes(file)).contains("vault-client-token"));
+    assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+  }
+
+  @Test
+  void loadIgnoresFileWrittenForAnotherIdentity() {
+    Path file = tempDir.resolve("token");
+    new PersistentTokenStore(file, "client-id", "resource")
+        .save(LoginToken.of("vault-client-token".toCharArray(), Duration.ofHours(1)));
+
+    assertTrue(new PersistentTokenStore(file, "other-client-id", "resource").load().isEmpty());
+  }
+
+  @Test
+  void tokenFileCannotBeDecryptedWithoutItsKeyFile() throws Exception {
+    Path file = tempDir.resolve("token");
+    PersistentTokenStore store = new PersistentTokenStore(file, "client-id", "resource");
+    store.save(LoginToken.of("vault-client-token".toCharArray(), Duration.ofHours(1)));
+    Path keyFile = tempDir.resolve("token.key");
+
+    assertEquals(
+        "rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(keyFile)));
+    Files.delete(keyFile);
+    assertTrue(store.load().isEmpty());
+  }
+}
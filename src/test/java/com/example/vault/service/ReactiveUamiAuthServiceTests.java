@@ -0,0 +1,110 @@
+package com.example.vault.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.stub.LocalAuthStub;
+import com.example.vault.transport.TlsContexts;
+import java.time.Duration;
+import java.util.Map;
+import javax.net.ssl.SSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.vault.authentication.LoginToken;
+import org.springframework.vault.support.VaultToken;
+
+class ReactiveUamiAuthServiceTests {
+
+  private LocalAuthStub stub;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    stub = LocalAuthStub.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    stub.close();
+  }
+
+  private ReactiveUamiAuthService service(Map<String, String> env) {
+    return service(stub, "vault-role", null, env);
+  }
+
+  private static ReactiveUamiAuthService service(
+      LocalAuthStub stub, String role, SSLContext sslContext, Map<String, String> env) {
+    return new ReactiveUamiAuthService(
+        stub.vaultUri(),
+        "vault-namespace",
+        role,
+        "vault-resource-id",
+        "vault-client-id",
+        sslContext,
+        Duration.ofSeconds(5),
+        Duration.ofSeconds(5),
+        Duration.ofSeconds(10)) {
+      @Override
+      protected String getEnv(String key) {
+        return env.get(key);
+      }
+    };
+  }
+
+  @Test
+  void getVaultTokenReturnsLeaseAwareLoginToken() {
+    ReactiveUamiAuthService service =
+        service(
+            Map.of("IDENTITY_ENDPOINT", stub.identityEndpoint(), "IDENTITY_HEADER", "id-header"));
+
+    VaultToken token = service.getVaultToken().block(Duration.ofSeconds(10));
+
+    assertInstanceOf(LoginToken.class, token);
+    assertEquals("vault-client-token", token.getToken());
+    assertEquals(Duration.ofSeconds(3600), ((LoginToken) token).getLeaseDuration());
+    assertEquals(1, stub.imdsCalls());
+    assertEquals(1, stub.loginCalls());
+  }
+
+  @Test
+  void loginUsesTheGivenTlsContext() throws Exception {
+    try (LocalAuthStub https = LocalAuthStub.startHttps()) {
+      ReactiveUamiAuthService service =
+          service(
+              https,
+              "vault-role",
+              TlsContexts.trustSelfSigned(),
+              Map.of(
+                  "IDENTITY_ENDPOINT", https.identityEndpoint(), "IDENTITY_HEADER", "id-header"));
+
+      VaultToken token = service.getVaultToken().block(Duration.ofSeconds(10));
+
+      assertEquals("vault-client-token", token.getToken());
+      assertEquals(1, https.loginCalls());
+    }
+  }
+
+  @Test
+  void loginWithoutRoleIsSentLikeTheBlockingOne() {
+    ReactiveUamiAuthService service =
+        service(
+            stub,
+            null,
+            null,
+            Map.of("IDENTITY_ENDPOINT", stub.identityEndpoint(), "IDENTITY_HEADER", "id-header"));
+
+    assertNotNull(service.getVaultToken().block(Duration.ofSeconds(10)));
+    assertEquals(1, stub.loginCalls());
+  }
+
+  @Test
+  void getVaultTokenFailsWhenIdentityEnvVarsAreMissing() {
+    ReactiveUamiAuthService service = service(Map.of());
+
+    RuntimeException ex =
+        assertThrows(
+            RuntimeException.class, () -> service.getVaultToken().block(Duration.ofSeconds(10)));
+    assertTrue(
+        ex.getMessage()
+            .contains("IDENTITY_ENDPOINT or IDENTITY_HEADER environment variable is missing"));
+  }
+}
@@ -0,0 +1,152 @@
+package com.example.vault.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.service.ManagedIdentityTokenCacheTests.MutableClock;
+import com.example.vault.service.SecretCache.Key;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.vault.support.VaultResponse;
+
+class SecretCacheTests {
+
+  private static final Key KEY = new Key("ns", "secret/app", null);
+
+  private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+  private final SecretCache cache =
+      new SecretCache(2, Duration.ofMinutes(5), Duration.ofMinutes(1), clock);
+
+  @AfterEach
+  void tearDown() {
+    cache.close();
+  }
+
+  private static VaultResponse response(String value, long leaseSeconds) {
+    VaultResponse response = new VaultResponse();
+    response.setData(Map.of("value", value));
+    response.setLeaseDuration(leaseSeconds);
+    return response;
+  }
+
+  private static VaultResponse kvV2Response(String value, String ttl) {
+    VaultResponse response = new VaultResponse();
+    response.setData(
+        Map.of(
+            "data", Map.of("value", value),
+            "metadata", Map.of("version", 3, "custom_metadata", Map.of("ttl", ttl))));
+    return response;
+  }
+
+  @Test
+  void readsAreServedFromMemoryUntilTheLeaseExpires() {
+    AtomicInteger loads = new AtomicInteger();
+
+    for (int i = 0; i < 5; i++) {
+      cache.get(KEY, () -> response("v" + loads.incrementAndGet(), 600));
+    }
+    clock.advance(Duration.ofMinutes(11));
+    VaultResponse reloaded = cache.get(KEY, () -> response("v" + loads.incrementAndGet(), 600));
+
+    assertEquals("v2", reloaded.getData().get("value"));
+    assertEquals(2, loads.get());
+    assertEquals(4, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  void kvMetadataTtlOverridesTheDefault() {
+    AtomicInteger loads = new AtomicInteger();
+    cache.get(KEY, () -> kvV2Response("v" + loads.incrementAndGet(), "30s"));
+
+    clock.advance(Duration.ofSeconds(31));
+    cache.get(KEY, () -> kvV2Response("v" + loads.incrementAndGet(), "30s"));
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void leastRecentlyReadSecretIsEvictedWhenFull() {
+    Key a = new Key("ns", "a", null);
+    Key b = new Key("ns", "b", null);
+    Key c = new Key("ns", "c", null);
+    cache.get(a, () -> response("a", 600));
+    clock.advance(Duration.ofSeconds(1));
+    cache.get(b, () -> response("b", 600));
+    clock.advance(Duration.ofSeconds(1));
+    cache.get(a, () -> fail("a is cached"));
+
+    cache.get(c, () -> response("c", 600));
+
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+    assertEquals("a", cache.get(a, () -> fail("a was read recently")).getData().get("value"));
+    assertEquals("b2", cache.get(b, () -> response("b2", 600)).getData().get("value"));
+  }
+
+  @Test
+  void concurrentMissesShareOneVaultRead() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<CompletableFuture<VaultResponse>> readers = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      readers.add(
+          CompletableFuture.supplyAsync(
+              () ->
+                  cache.get(
+                      KEY,
+                      () -> {
+                        loads.incrementAndGet();
+                        loading.countDown();
+                        await(release);
+                        return response("v", 600);
+                      })));
+    }
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+    Thread.sleep(100);
+    release.countDown();
+
+    for (CompletableFuture<VaultResponse> reader : readers) {
+      assertEquals("v", reader.get(5, TimeUnit.SECONDS).getData().get("value"));
+    }
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void refreshesAheadInBackgroundWhileServingTheCachedSecret() throws Exception {
+    cache.get(KEY, () -> response("old", 600));
+    clock.advance(Duration.ofMinutes(9).plusSeconds(30));
+    CountDownLatch refreshed = new CountDownLatch(1);
+
+    VaultResponse served =
+        cache.get(
+            KEY,
+            () -> {
+              refreshed.countDown();
+              return response("new", 600);
+            });
+
+    assertEquals("old", served.getData().get("value"));
+    assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+    Thread.sleep(50);
+    assertEquals("new", cache.get(KEY, () -> fail("refreshed")).getData().get("value"));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
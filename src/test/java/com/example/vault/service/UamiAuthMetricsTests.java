@@ -0,0 +1,139 @@
+package com.example.vault.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.configuration.VaultUamiAuthProperties;
+import com.example.vault.configuration.VaultUamiHttpClients;
+import com.example.vault.delegate.VaultUamiAuthentication;
+import com.example.vault.stub.LocalAuthStub;
+import com.example.vault.transport.ClassicHttpTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.vault.authentication.LoginToken;
+
+class UamiAuthMetricsTests {
+
+  private LocalAuthStub stub;
+  private SimpleMeterRegistry registry;
+  private UamiAuthMetrics metrics;
+  private ManagedIdentityTokenCache cache;
+  private UamiAuthService service;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    stub = LocalAuthStub.start();
+    registry = new SimpleMeterRegistry();
+    metrics = new UamiAuthMetrics(registry);
+    cache = new ManagedIdentityTokenCache(Duration.ofMinutes(5));
+    metrics.bindTokenCache(cache);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (service != null) {
+      service.close();
+    }
+    cache.close();
+    stub.close();
+  }
+
+  private UamiAuthService createService() {
+    return stub.uamiService(
+        new ClassicHttpTransport(
+            VaultUamiHttpClients.create(new VaultUamiAuthProperties.Http(), registry)),
+        cache,
+        metrics,
+        AuthResilience.none());
+  }
+
+  @Test
+  void loginsRecordTimersCountersAndTokenExpiry() {
+    service = createService();
+    VaultUamiAuthentication authentication =
+        new VaultUamiAuthentication(service, null, Duration.ZERO, metrics);
+
+    authentication.login();
+    authentication.login();
+
+    assertEquals(
+        1,
+        registry
+            .get(UamiAuthMetrics.IMDS_FETCH)
+            .tags("outcome", "SUCCESS", "status", "200")
+            .timer()
+            .count());
+    assertEquals(
+        2,
+        registry
+            .get(UamiAuthMetrics.VAULT_LOGIN)
+            .tags("outcome", "SUCCESS", "status", "200")
+            .timer()
+            .count());
+    assertEquals(
+        2, registry.get(UamiAuthMetrics.AUTHENTICATE).tag("outcome", "SUCCESS").timer().count());
+    assertEquals(
+        1,
+        registry.get(UamiAuthMetrics.TOKEN_CACHE).tag("result", "hit").functionCounter().count());
+    assertEquals(
+        1,
+        registry.get(UamiAuthMetrics.TOKEN_CACHE).tag("result", "miss").functionCounter().count());
+    assertEquals(2, registry.get(UamiAuthMetrics.LOGINS).tag("source", "vault").counter().count());
+    assertEquals(0, registry.get(UamiAuthMetrics.COALESCED_LOGINS).functionCounter().count());
+    double vaultTtl =
+        registry.get(UamiAuthMetrics.TIME_TO_EXPIRY).tag("token", "vault").gauge().value();
+    assertTrue(vaultTtl > 3500 && vaultTtl <= 3600, "vault token TTL was " + vaultTtl);
+  }
+
+  @Test
+  void failedImdsFetchIsTaggedWithItsStatus() {
+    service = createService();
+    stub.failNext(LocalAuthStub.IDENTITY_PATH, 1, 404, null);
+
+    assertThrows(RuntimeException.class, service::authenticate);
+
+    assertEquals(
+        1,
+        registry
+            .get(UamiAuthMetrics.IMDS_FETCH)
+            .tags("outcome", "FAILURE", "status", "404")
+            .timer()
+            .count());
+    assertEquals(
+        1, registry.get(UamiAuthMetrics.AUTHENTICATE).tag("outcome", "FAILURE").timer().count());
+    assertTrue(registry.find(UamiAuthMetrics.VAULT_LOGIN).timers().isEmpty());
+  }
+
+  @Test
+  void connectionPoolGaugesAreRegistered() {
+    service = createService();
+
+    service.authenticate();
+
+    assertEquals(
+        1,
+        registry
+            .get("httpcomponents.httpclient.pool.total.connections")
+            .tags("httpclient", "vault-uami", "state", "available")
+            .gauge()
+            .value());
+  }
+
+  @Test
+  void renewalsUpdateTheVaultTokenExpiry() {
+    metrics.recordRenewal(
+        true, LoginToken.of("vault-client-token".toCharArray(), Duration.ofMinutes(10)));
+    metrics.recordRenewal(false, null);
+
+    assertEquals(
+        1, registry.get(UamiAuthMetrics.RENEWALS).tag("outcome", "SUCCESS").counter().count());
+    assertEquals(
+        1, registry.get(UamiAuthMetrics.RENEWALS).tag("outcome", "FAILURE").counter().count());
+    assertEquals(
+        600,
+        registry.get(UamiAuthMetrics.TIME_TO_EXPIRY).tag("token", "vault").gauge().value(),
+        1);
+  }
+}
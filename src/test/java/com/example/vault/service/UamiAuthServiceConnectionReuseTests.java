@@ -0,0 +1,51 @@
+package com.example.vault.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.configuration.VaultUamiAuthProperties;
+import com.example.vault.configuration.VaultUamiHttpClients;
+import com.example.vault.stub.LocalAuthStub;
+import com.example.vault.transport.ClassicHttpTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UamiAuthServiceConnectionReuseTests {
+
+  /** Enough logins that a client opening a connection per call would exceed the pool bound. */
+  private static final int LOGINS = 40;
+
+  private LocalAuthStub stub;
+  private UamiAuthService service;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    stub = LocalAuthStub.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (service != null) {
+      service.close();
+    }
+    stub.close();
+  }
+
+  @Test
+  void sequentialLoginsReuseABoundedNumberOfConnections() {
+    VaultUamiAuthProperties.Http http = new VaultUamiAuthProperties.Http();
+    http.setMaxTotal(4);
+    http.setMaxPerRoute(2);
+    service = stub.uamiService(new ClassicHttpTransport(VaultUamiHttpClients.create(http)));
+
+    for (int i = 0; i < LOGINS; i++) {
+      assertEquals("vault-client-token", service.authenticate().getToken());
+    }
+
+    assertEquals(LOGINS, stub.loginCalls());
+    assertTrue(
+        stub.distinctConnections() <= http.getMaxPerRoute(),
+        "expected at most " + http.getMaxPerRoute() + " connections but saw "
+            + stub.distinctConnections());
+  }
+}
@@ -0,0 +1,101 @@
+package com.example.vault.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.configuration.VaultUamiAuthProperties;
+import com.example.vault.configuration.VaultUamiHttpTransports;
+import com.example.vault.stub.LocalAuthStub;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UamiAuthServiceEventsTests {
+
+  @TempDir Path dir;
+
+  private LocalAuthStub stub;
+  private UamiAuthService service;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    stub = LocalAuthStub.start();
+    service =
+        stub.uamiService(
+            VaultUamiHttpTransports.create(new VaultUamiAuthProperties.Http(), null),
+            null,
+            UamiAuthMetrics.NOOP,
+            new AuthResilience(
+                new RetryPolicy(
+                    3, Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMinutes(1)),
+                CircuitBreaker.disabled("imds"),
+                CircuitBreaker.disabled("vault")));
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.close();
+    stub.close();
+  }
+
+  private List<RecordedEvent> record(Runnable action) throws Exception {
+    Path file = dir.resolve("auth.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("com.example.vault.uami.HttpExchange");
+      recording.enable("com.example.vault.uami.Authenticate");
+      recording.start();
+      action.run();
+      recording.stop();
+      recording.dump(file);
+    }
+    return RecordingFile.readAllEvents(file);
+  }
+
+  private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+    return events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+  }
+
+  @Test
+  void exchangesAndTheAuthenticationAreRecordedWithRetries() throws Exception {
+    stub.failNext(LocalAuthStub.LOGIN_PATH, 1, 503, null);
+
+    List<RecordedEvent> events = record(service::authenticate);
+
+    List<RecordedEvent> exchanges = named(events, "com.example.vault.uami.HttpExchange");
+    assertEquals(3, exchanges.size());
+    RecordedEvent imds = exchanges.get(0);
+    assertEquals(UamiAuthMetrics.IMDS_FETCH, imds.getString("operation"));
+    assertEquals(stub.identityEndpoint(), imds.getString("endpoint"));
+    assertEquals(200, imds.getInt("status"));
+    assertTrue(imds.getLong("bytes") > 0);
+    assertEquals(503, exchanges.get(1).getInt("status"));
+    assertEquals(1, exchanges.get(1).getInt("attempt"));
+    assertEquals(2, exchanges.get(2).getInt("attempt"));
+    assertTrue(exchanges.get(2).getBoolean("success"));
+
+    RecordedEvent authenticate = named(events, "com.example.vault.uami.Authenticate").get(0);
+    assertEquals(1, authenticate.getInt("retries"));
+    assertTrue(authenticate.getBoolean("success"));
+    assertFalse(authenticate.getBoolean("accessTokenCached"));
+    assertTrue(authenticate.getDuration().toNanos() > 0);
+  }
+
+  @Test
+  void noTokenMaterialIsRecorded() throws Exception {
+    List<RecordedEvent> events = record(service::authenticate);
+
+    assertFalse(events.isEmpty());
+    for (RecordedEvent event : events) {
+      String recorded = event.toString();
+      assertFalse(recorded.contains("access-token-value"), recorded);
+      assertFalse(recorded.contains("vault-client-token"), recorded);
+      assertFalse(recorded.contains("vault-client-id"), recorded);
+    }
+  }
+}
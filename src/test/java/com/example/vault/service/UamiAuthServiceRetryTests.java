@@ -0,0 +1,153 @@
+package com.example.vault.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.configuration.VaultUamiAuthProperties;
+import com.example.vault.configuration.VaultUamiHttpTransports;
+import com.example.vault.stub.LocalAuthStub;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UamiAuthServiceRetryTests {
+
+  private LocalAuthStub stub;
+  private UamiAuthService service;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    stub = LocalAuthStub.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (service != null) {
+      service.close();
+    }
+    stub.close();
+  }
+
+  private UamiAuthService createService(AuthResilience resilience) {
+    return stub.uamiService(
+        VaultUamiHttpTransports.create(new VaultUamiAuthProperties.Http(), null),
+        null,
+        UamiAuthMetrics.NOOP,
+        resilience);
+  }
+
+  private static AuthResilience retries(int maxAttempts, Duration deadline) {
+    return new AuthResilience(
+        new RetryPolicy(maxAttempts, Duration.ofMillis(10), Duration.ofMillis(50), deadline),
+        CircuitBreaker.disabled("imds"),
+        CircuitBreaker.disabled("vault"));
+  }
+
+  @Test
+  void serverErrorsAndDroppedConnectionsAreRetried() {
+    service = createService(retries(5, Duration.ofSeconds(10)));
+    stub.failNext(LocalAuthStub.IDENTITY_PATH, 1, 0, null);
+    stub.failNext(LocalAuthStub.LOGIN_PATH, 2, 503, null);
+
+    assertEquals("vault-client-token", service.authenticate().getToken());
+
+    assertEquals(2, stub.imdsCalls());
+    assertEquals(3, stub.loginCalls());
+  }
+
+  @Test
+  void retryAfterIsHonoured() {
+    service = createService(retries(3, Duration.ofSeconds(10)));
+    stub.failNext(LocalAuthStub.IDENTITY_PATH, 1, 429, "1");
+
+    long start = System.nanoTime();
+    service.authenticate();
+
+    assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 900);
+    assertEquals(2, stub.imdsCalls());
+  }
+
+  @Test
+  void clientErrorsAreNotRetried() {
+    service = createService(retries(5, Duration.ofSeconds(10)));
+    stub.failNext(LocalAuthStub.LOGIN_PATH, 1, 403, null);
+
+    RuntimeException e = assertThrows(RuntimeException.class, service::authenticate);
+
+    assertTrue(e.getMessage().contains("403"), e.getMessage());
+    assertEquals(1, stub.loginCalls());
+  }
+
+  @Test
+  void malformedResponsesAreNotRetried() {
+    CircuitBreaker vaultBreaker = new CircuitBreaker("vault", 1, Duration.ofMinutes(1));
+    service =
+        createService(
+            new AuthResilience(
+                new RetryPolicy(
+                    5, Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofSeconds(10)),
+                CircuitBreaker.disabled("imds"),
+                vaultBreaker));
+    stub.answerNext(LocalAuthStub.LOGIN_PATH, 1, 200, "{\"auth\":");
+
+    RuntimeException e = assertThrows(RuntimeException.class, service::authenticate);
+
+    assertInstanceOf(IllegalStateException.class, e.getCause(), e.toString());
+    assertEquals(1, stub.loginCalls());
+    assertEquals(CircuitBreaker.State.CLOSED, vaultBreaker.getState());
+  }
+
+  @Test
+  void retriesStopAtTheDeadline() {
+    service = createService(retries(100, Duration.ofMillis(300)));
+    stub.failNext(LocalAuthStub.LOGIN_PATH, 1_000, 503, null);
+
+    long start = System.nanoTime();
+    assertThrows(RuntimeException.class, service::authenticate);
+
+    assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2_000);
+    assertTrue(stub.loginCalls() < 100, "login calls: " + stub.loginCalls());
+  }
+
+  @Test
+  void retryAfterBeyondTheDeadlineFailsWithoutWaiting() {
+    service = createService(retries(3, Duration.ofSeconds(2)));
+    stub.failNext(LocalAuthStub.LOGIN_PATH, 1, 503, "60");
+
+    long start = System.nanoTime();
+    assertThrows(RuntimeException.class, service::authenticate);
+
+    assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1_000);
+    assertEquals(1, stub.loginCalls());
+  }
+
+  @Test
+  void openCircuitFailsFastWithoutCallingVault() {
+    CircuitBreaker vaultBreaker = new CircuitBreaker("vault", 2, Duration.ofMinutes(1));
+    service =
+        createService(
+            new AuthResilience(RetryPolicy.NONE, CircuitBreaker.disabled("imds"), vaultBreaker));
+    stub.failNext(LocalAuthStub.LOGIN_PATH, 2, 500, null);
+
+    assertThrows(RuntimeException.class, service::authenticate);
+    assertThrows(RuntimeException.class, service::authenticate);
+    RuntimeException e = assertThrows(RuntimeException.class, service::authenticate);
+
+    assertInstanceOf(CircuitBreaker.OpenException.class, e.getCause());
+    assertEquals(CircuitBreaker.State.OPEN, vaultBreaker.getState());
+    assertEquals(2, stub.loginCalls());
+  }
+
+  @Test
+  void backoffStaysWithinBounds() {
+    RetryPolicy policy =
+        new RetryPolicy(10, Duration.ofMillis(100), Duration.ofSeconds(2), Duration.ofMinutes(1));
+
+    long backoff = 100;
+    for (int i = 0; i < 1_000; i++) {
+      long next = policy.nextBackoffMillis(backoff);
+      assertTrue(next >= 100 && next <= Math.min(2_000, backoff * 3), "backoff " + next);
+      backoff = next;
+    }
+  }
+}
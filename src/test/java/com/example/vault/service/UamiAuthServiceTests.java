@@ -3,11 +3,17 @@ package com.example.vault.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.*;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.vault.authentication.LoginToken;
 import org.springframework.vault.support.VaultToken;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
 class UamiAuthServiceTests {
@@ -44,6 +50,23 @@ class UamiAuthServiceTests {
     restTemplate = mock(RestTemplate.class);
   }
 
+  /** Matches any response extractor, typed so that the stubbed call returns an Object. */
+  private static ResponseExtractor<Object> anyExtractor() {
+    return any();
+  }
+
+  /** Feeds the JSON body through the service's response extractor, as RestTemplate would. */
+  private void stubResponse(HttpMethod method, String json) {
+    when(restTemplate.execute(anyString(), eq(method), any(), anyExtractor()))
+        .thenAnswer(
+            invocation ->
+                invocation
+                    .<ResponseExtractor<Object>>getArgument(3)
+                    .extractData(
+                        new MockClientHttpResponse(
+                            json.getBytes(StandardCharsets.UTF_8), HttpStatus.OK)));
+  }
+
   @Test
   void authenticateReturnsVaultTokenOnSuccess() throws Exception {
     service =
@@ -60,13 +83,9 @@ class UamiAuthServiceTests {
     String accessTokenJson = "{\"access_token\":\"access-token-value\"}";
     String vaultTokenJson = "{\"auth\":{\"client_token\":\"vault-client-token\"}}";
 
-    when(restTemplate.exchange(
-            anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
-        .thenReturn(new ResponseEntity<>(accessTokenJson, HttpStatus.OK));
+    stubResponse(HttpMethod.GET, accessTokenJson);
 
-    when(restTemplate.exchange(
-            anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
-        .thenReturn(new ResponseEntity<>(vaultTokenJson, HttpStatus.OK));
+    stubResponse(HttpMethod.POST, vaultTokenJson);
 
     VaultToken token = service.authenticate();
 
@@ -74,6 +93,36 @@ class UamiAuthServiceTests {
     assertEquals("vault-client-token", token.getToken());
   }
 
+  @Test
+  void authenticateReturnsLeaseAwareLoginToken() {
+    service =
+        new TestableUamiAuthService(
+            Map.of(
+                "IDENTITY_ENDPOINT", "http://id-endpoint",
+                "IDENTITY_HEADER", "id-header")) {
+          @Override
+          protected RestTemplate createRestTemplate() {
+            return restTemplate;
+          }
+        };
+
+    String accessTokenJson = "{\"access_token\":\"access-token-value\"}";
+    String vaultTokenJson =
+        "{\"auth\":{\"client_token\":\"vault-client-token\",\"accessor\":\"vault-accessor\","
+            + "\"lease_duration\":2764800,\"renewable\":true}}";
+
+    stubResponse(HttpMethod.GET, accessTokenJson);
+
+    stubResponse(HttpMethod.POST, vaultTokenJson);
+
+    LoginToken token = service.authenticate();
+
+    assertEquals("vault-client-token", token.getToken());
+    assertEquals(Duration.ofSeconds(2764800), token.getLeaseDuration());
+    assertTrue(token.isRenewable());
+    assertEquals("vault-accessor", token.getAccessor());
+  }
+
   @Test
   void authenticateThrowsWhenAccessTokenResponseIsNot2xx() {
     service =
@@ -87,9 +136,8 @@ class UamiAuthServiceTests {
           }
         };
 
-    when(restTemplate.exchange(
-            anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
-        .thenReturn(new ResponseEntity<>(null, HttpStatus.BAD_REQUEST));
+    when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(), anyExtractor()))
+        .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
 
     RuntimeException ex = assertThrows(RuntimeException.class, service::authenticate);
     assertTrue(ex.getMessage().contains("Failed to retrieve access token"));
@@ -110,13 +158,10 @@ class UamiAuthServiceTests {
 
     String accessTokenJson = "{\"access_token\":\"access-token-value\"}";
 
-    when(restTemplate.exchange(
-            anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
-        .thenReturn(new ResponseEntity<>(accessTokenJson, HttpStatus.OK));
+    stubResponse(HttpMethod.GET, accessTokenJson);
 
-    when(restTemplate.exchange(
-            anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
-        .thenReturn(new ResponseEntity<>(null, HttpStatus.UNAUTHORIZED));
+    when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(), anyExtractor()))
+        .thenThrow(new HttpClientErrorException(HttpStatus.UNAUTHORIZED));
 
     RuntimeException ex = assertThrows(RuntimeException.class, service::authenticate);
     assertTrue(ex.getMessage().contains("Failed to authenticate to vault"));
@@ -135,8 +180,7 @@ class UamiAuthServiceTests {
           }
         };
 
-    when(restTemplate.exchange(
-            anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+    when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(), anyExtractor()))
         .thenThrow(new RuntimeException("RestTemplate error"));
 
     RuntimeException ex = assertThrows(RuntimeException.class, service::authenticate);
@@ -193,9 +237,7 @@ class UamiAuthServiceTests {
 
     String accessTokenJson = "{\"not_access_token\":\"no-token\"}";
 
-    when(restTemplate.exchange(
-            anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
-        .thenReturn(new ResponseEntity<>(accessTokenJson, HttpStatus.OK));
+    stubResponse(HttpMethod.GET, accessTokenJson);
 
     RuntimeException ex = assertThrows(RuntimeException.class, service::authenticate);
     assertTrue(ex.getMessage().contains("Vault authentication failed"));
@@ -217,13 +259,9 @@ class UamiAuthServiceTests {
     String accessTokenJson = "{\"access_token\":\"access-token-value\"}";
     String vaultTokenJson = "{\"auth\":{\"not_client_token\":\"no-token\"}}";
 
-    when(restTemplate.exchange(
-            anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
-        .thenReturn(new ResponseEntity<>(accessTokenJson, HttpStatus.OK));
+    stubResponse(HttpMethod.GET, accessTokenJson);
 
-    when(restTemplate.exchange(
-            anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
-        .thenReturn(new ResponseEntity<>(vaultTokenJson, HttpStatus.OK));
+    stubResponse(HttpMethod.POST, vaultTokenJson);
 
     RuntimeException ex = assertThrows(RuntimeException.class, service::authenticate);
     assertTrue(ex.getMessage().contains("Vault authentication failed"));
@@ -0,0 +1,138 @@
+package com.example.vault.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.vault.configuration.VaultUamiAuthProperties;
+import com.example.vault.configuration.VaultUamiHttpTransports;
+import com.example.vault.stub.LocalAuthStub;
+import com.example.vault.transport.HttpTransport;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.vault.client.VaultEndpoint;
+
+class VaultEndpointRouterTests {
+
+  private LocalAuthStub active;
+  private LocalAuthStub nearReplica;
+  private LocalAuthStub farReplica;
+  private HttpTransport transport;
+  private VaultEndpointRouter router;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    active = LocalAuthStub.start();
+    active.setDelay(Duration.ofMillis(80));
+    nearReplica = LocalAuthStub.start();
+    nearReplica.setStandby(true);
+    farReplica = LocalAuthStub.start();
+    farReplica.setStandby(true);
+    farReplica.setDelay(Duration.ofMillis(60));
+    transport = VaultUamiHttpTransports.create(new VaultUamiAuthProperties.Http(), null);
+    router =
+        new VaultEndpointRouter(
+            List.of(active.vaultUri(), nearReplica.vaultUri(), farReplica.vaultUri()),
+            transport.requestFactory(),
+            Duration.ofMinutes(1),
+            2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    router.close();
+    transport.close();
+    active.close();
+    nearReplica.close();
+    farReplica.close();
+  }
+
+  private static boolean isNode(VaultEndpoint endpoint, LocalAuthStub stub) {
+    return endpoint.getPort() == URI.create(stub.vaultUri()).getPort();
+  }
+
+  @Test
+  void readsGoToTheActiveNodeUntilTheFirstProbe() {
+    assertTrue(isNode(router.readEndpoint(), active));
+    assertTrue(isNode(router.getVaultEndpoint(), active));
+  }
+
+  @Test
+  void readsGoToTheFastestHealthyNodeAndWritesToTheActiveNode() {
+    router.probe();
+    router.probe();
+
+    assertTrue(isNode(router.readEndpoint(), nearReplica));
+    assertTrue(isNode(router.getVaultEndpoint(), active));
+    Duration near = router.latency(nearReplica.vaultUri()).orElseThrow();
+    Duration far = router.latency(farReplica.vaultUri()).orElseThrow();
+    assertTrue(near.compareTo(far) < 0, near + " < " + far);
+  }
+
+  @Test
+  void latencyIsAveragedSoOneSlowProbeDoesNotFlipTheRouting() {
+    router.probe();
+    router.probe();
+    nearReplica.setDelay(Duration.ofMillis(100));
+    router.probe();
+
+    assertTrue(isNode(router.readEndpoint(), nearReplica));
+  }
+
+  @Test
+  void failingNodeIsEjectedAndReadmittedOnceHealthy() {
+    router.probe();
+    nearReplica.failNext(LocalAuthStub.HEALTH_PATH, 2, 503, null);
+
+    router.probe();
+    assertTrue(isNode(router.readEndpoint(), nearReplica), "one failure is tolerated");
+    router.probe();
+    assertTrue(isNode(router.readEndpoint(), farReplica));
+    assertTrue(router.latency(nearReplica.vaultUri()).isEmpty());
+
+    router.probe();
+    assertTrue(isNode(router.readEndpoint(), nearReplica));
+  }
+
+  @Test
+  void unreachableNodeIsEjected() {
+    nearReplica.close();
+
+    router.probe();
+    router.probe();
+
+    assertTrue(isNode(router.readEndpoint(), farReplica));
+  }
+
+  @Test
+  void activeNodeFollowsAFailover() {
+    active.setStandby(true);
+    farReplica.setStandby(false);
+
+    router.probe();
+
+    assertTrue(isNode(router.getVaultEndpoint(), farReplica));
+  }
+
+  @Test
+  void loginsGoToTheActiveNodeAfterAFailover() {
+    active.setStandby(true);
+    farReplica.setStandby(false);
+    router.probe();
+    try (UamiAuthService service =
+        LocalAuthStub.uamiService(
+            router,
+            active.identityEndpoint(),
+            VaultUamiHttpTransports.create(new VaultUamiAuthProperties.Http(), null),
+            null,
+            UamiAuthMetrics.NOOP,
+            AuthResilience.none())) {
+      service.authenticate();
+    }
+
+    assertEquals(0, active.loginCalls());
+    assertEquals(1, farReplica.loginCalls());
+  }
+}
@@ -0,0 +1,477 @@
+package com.example.vault.stub;
+
+import com.example.vault.service.AuthResilience;
+import com.example.vault.service.ManagedIdentityTokenCache;
+import com.example.vault.service.UamiAuthMetrics;
+import com.example.vault.service.UamiAuthService;
+import com.example.vault.transport.HttpTransport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.SSLContext;
+import org.springframework.vault.client.SimpleVaultEndpointProvider;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.client.VaultEndpointProvider;
+
+/**
+ * Local HTTP(S) stub serving the managed identity token endpoint and Vault's Azure login,
+ * {@code lookup-self}, {@code renew-self}, {@code revoke-self}, {@code sys/health} and a KV read
+ * endpoint. Counts calls per endpoint and the distinct client connections that reached it. Faults
+ * (error statuses, {@code Retry-After}, dropped connections) can be injected per endpoint, and
+ * health checks and reads can be delayed to stand in for a distant Vault node. For load tests,
+ * IMDS and login can be given a latency, a random error rate and a rate limit answered with 429.
+ */
+public class LocalAuthStub implements AutoCloseable {
+
+  public static final String IDENTITY_PATH = "/msi/token";
+  public static final String LOGIN_PATH = "/v1/auth/azure/login";
+  public static final String LOOKUP_SELF_PATH = "/v1/auth/token/lookup-self";
+  public static final String HEALTH_PATH = "/v1/sys/health";
+  public static final String SECRET_PATH = "/v1/secret/";
+  public static final String RENEW_SELF_PATH = "/v1/auth/token/renew-self";
+  public static final String REVOKE_SELF_PATH = "/v1/auth/token/revoke-self";
+
+  /** Name prefix of the stub's request threads, so load tests can tell them from the client's. */
+  public static final String THREAD_NAME_PREFIX = "local-auth-stub-";
+
+  private final HttpServer server;
+  private final String scheme;
+  private final ExecutorService executor;
+  private final AtomicInteger imdsCalls = new AtomicInteger();
+  private final AtomicInteger loginCalls = new AtomicInteger();
+  private final AtomicInteger lookupCalls = new AtomicInteger();
+  private final AtomicInteger healthCalls = new AtomicInteger();
+  private final AtomicInteger readCalls = new AtomicInteger();
+  private final AtomicInteger renewCalls = new AtomicInteger();
+  private final AtomicInteger revokeCalls = new AtomicInteger();
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+  private final Map<String, Queue<Fault>> faults = new ConcurrentHashMap<>();
+  private final Map<String, Behavior> behaviors = new ConcurrentHashMap<>();
+  private volatile CountDownLatch loginGate;
+  private volatile Duration delay = Duration.ZERO;
+  private volatile boolean standby;
+  private volatile Duration leaseDuration = Duration.ofHours(1);
+
+  private record Fault(int status, String retryAfter, String body) {}
+
+  /** Latency, random error rate and per-second rate limit of one endpoint. */
+  private static final class Behavior {
+    private volatile Duration latency = Duration.ZERO;
+    private volatile double errorRate;
+    private volatile int errorStatus = 503;
+    private volatile int maxPerSecond;
+    private long windowSecond;
+    private int windowCount;
+
+    /** Whether a request in the current second is over the rate limit. */
+    private synchronized boolean throttled() {
+      if (maxPerSecond <= 0) {
+        return false;
+      }
+      long second = System.nanoTime() / 1_000_000_000L;
+      if (second != windowSecond) {
+        windowSecond = second;
+        windowCount = 0;
+      }
+      return ++windowCount > maxPerSecond;
+    }
+  }
+
+  private LocalAuthStub(HttpServer server, String scheme, ExecutorService executor) {
+    this.server = server;
+    this.scheme = scheme;
+    this.executor = executor;
+  }
+
+  /** Starts a plain HTTP stub on an ephemeral loopback port. */
+  public static LocalAuthStub start() throws IOException {
+    return start(
+        HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0), "http");
+  }
+
+  /** Starts an HTTPS stub on an ephemeral loopback port, serving a self-signed certificate. */
+  public static LocalAuthStub startHttps() throws IOException {
+    SSLContext sslContext = SelfSignedCertificate.serverContext();
+    HttpsServer server =
+        HttpsServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+    return start(server, "https");
+  }
+
+  private static LocalAuthStub start(HttpServer server, String scheme) {
+    // Platform threads: the HTTPS server blocks on socket reads while holding a monitor, which
+    // would pin a virtual thread and, on a single CPU, starve the client under test.
+    ExecutorService executor =
+        Executors.newCachedThreadPool(Thread.ofPlatform().name(THREAD_NAME_PREFIX, 0).factory());
+    LocalAuthStub stub = new LocalAuthStub(server, scheme, executor);
+    server.createContext(IDENTITY_PATH, stub::handleIdentity);
+    server.createContext(LOGIN_PATH, stub::handleLogin);
+    server.createContext(LOOKUP_SELF_PATH, stub::handleLookupSelf);
+    server.createContext(HEALTH_PATH, stub::handleHealth);
+    server.createContext(SECRET_PATH, stub::handleSecret);
+    server.createContext(RENEW_SELF_PATH, stub::handleRenewSelf);
+    server.createContext(REVOKE_SELF_PATH, stub::handleRevokeSelf);
+    server.setExecutor(executor);
+    server.start();
+    return stub;
+  }
+
+  private void handleIdentity(HttpExchange exchange) throws IOException {
+    accept(exchange);
+    imdsCalls.incrementAndGet();
+    if (injectFault(exchange, IDENTITY_PATH) || applyBehavior(exchange, IDENTITY_PATH)) {
+      return;
+    }
+    respond(exchange, 200, "{\"access_token\":\"access-token-value\",\"expires_in\":\"3600\"}");
+  }
+
+  private void handleLogin(HttpExchange exchange) throws IOException {
+    accept(exchange);
+    loginCalls.incrementAndGet();
+    if (injectFault(exchange, LOGIN_PATH) || applyBehavior(exchange, LOGIN_PATH)) {
+      return;
+    }
+    awaitGate(loginGate);
+    respondAuth(exchange);
+  }
+
+  private void handleRenewSelf(HttpExchange exchange) throws IOException {
+    accept(exchange);
+    renewCalls.incrementAndGet();
+    if (injectFault(exchange, RENEW_SELF_PATH) || applyBehavior(exchange, RENEW_SELF_PATH)) {
+      return;
+    }
+    respondAuth(exchange);
+  }
+
+  private void handleRevokeSelf(HttpExchange exchange) throws IOException {
+    accept(exchange);
+    revokeCalls.incrementAndGet();
+    exchange.sendResponseHeaders(204, -1);
+    exchange.close();
+  }
+
+  private void respondAuth(HttpExchange exchange) throws IOException {
+    respond(
+        exchange,
+        200,
+        "{\"auth\":{\"client_token\":\"vault-client-token\",\"accessor\":\"vault-accessor\","
+            + "\"lease_duration\":"
+            + leaseDuration.toSeconds()
+            + ",\"renewable\":true}}");
+  }
+
+  private void handleLookupSelf(HttpExchange exchange) throws IOException {
+    accept(exchange);
+    lookupCalls.incrementAndGet();
+    if (!"vault-client-token".equals(exchange.getRequestHeaders().getFirst("X-Vault-Token"))) {
+      respond(exchange, 403, "{\"errors\":[\"permission denied\"]}");
+      return;
+    }
+    respond(
+        exchange,
+        200,
+        "{\"data\":{\"accessor\":\"vault-accessor\",\"ttl\":3000,\"renewable\":true}}");
+  }
+
+  private void handleHealth(HttpExchange exchange) throws IOException {
+    accept(exchange);
+    healthCalls.incrementAndGet();
+    if (injectFault(exchange, HEALTH_PATH)) {
+      return;
+    }
+    sleep(delay);
+    respond(
+        exchange,
+        200,
+        "{\"initialized\":true,\"sealed\":false,\"standby\":"
+            + standby
+            + ",\"performance_standby\":"
+            + standby
+            + "}");
+  }
+
+  private void handleSecret(HttpExchange exchange) throws IOException {
+    accept(exchange);
+    readCalls.incrementAndGet();
+    if (injectFault(exchange, SECRET_PATH)) {
+      return;
+    }
+    sleep(delay);
+    respond(exchange, 200, "{\"data\":{\"served-by\":\"" + baseUri() + "\"}}");
+  }
+
+  private static void sleep(Duration delay) throws IOException {
+    if (delay.isZero()) {
+      return;
+    }
+    try {
+      Thread.sleep(delay);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    }
+  }
+
+  private boolean injectFault(HttpExchange exchange, String path) throws IOException {
+    Queue<Fault> queue = faults.get(path);
+    Fault fault = queue == null ? null : queue.poll();
+    if (fault == null) {
+      return false;
+    }
+    if (fault.status() == 0) {
+      exchange.close();
+      return true;
+    }
+    if (fault.retryAfter() != null) {
+      exchange.getResponseHeaders().set("Retry-After", fault.retryAfter());
+    }
+    respond(
+        exchange,
+        fault.status(),
+        fault.body() != null ? fault.body() : "{\"errors\":[\"injected fault\"]}");
+    return true;
+  }
+
+  /** Applies the endpoint's latency, rate limit and error rate; true if it answered. */
+  private boolean applyBehavior(HttpExchange exchange, String path) throws IOException {
+    Behavior behavior = behaviors.get(path);
+    if (behavior == null) {
+      return false;
+    }
+    sleep(behavior.latency);
+    if (behavior.throttled()) {
+      exchange.getResponseHeaders().set("Retry-After", "1");
+      respond(exchange, 429, "{\"errors\":[\"rate limited\"]}");
+      return true;
+    }
+    if (behavior.errorRate > 0 && ThreadLocalRandom.current().nextDouble() < behavior.errorRate) {
+      respond(exchange, behavior.errorStatus, "{\"errors\":[\"injected error\"]}");
+      return true;
+    }
+    return false;
+  }
+
+  private static void awaitGate(CountDownLatch gate) throws IOException {
+    if (gate == null) {
+      return;
+    }
+    try {
+      gate.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    }
+  }
+
+  private void accept(HttpExchange exchange) throws IOException {
+    clientPorts.add(exchange.getRemoteAddress().getPort());
+    exchange.getRequestBody().readAllBytes();
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  /**
+   * Fails the next {@code times} requests to {@code path} with {@code status}, or drops the
+   * connection without a response when {@code status} is 0.
+   *
+   * @param retryAfter {@code Retry-After} header value, or {@code null} for none
+   */
+  public void failNext(String path, int times, int status, String retryAfter) {
+    Queue<Fault> queue = faults.computeIfAbsent(path, key -> new ConcurrentLinkedQueue<>());
+    for (int i = 0; i < times; i++) {
+      queue.add(new Fault(status, retryAfter, null));
+    }
+  }
+
+  /** Answers the next {@code times} requests to {@code path} with the given status and body. */
+  public void answerNext(String path, int times, int status, String body) {
+    Queue<Fault> queue = faults.computeIfAbsent(path, key -> new ConcurrentLinkedQueue<>());
+    for (int i = 0; i < times; i++) {
+      queue.add(new Fault(status, null, body));
+    }
+  }
+
+  /** Holds Vault login responses until {@link #releaseLogins()} is called. */
+  public void holdLogins() {
+    loginGate = new CountDownLatch(1);
+  }
+
+  /** Releases Vault login responses held by {@link #holdLogins()}. */
+  public void releaseLogins() {
+    CountDownLatch gate = loginGate;
+    loginGate = null;
+    if (gate != null) {
+      gate.countDown();
+    }
+  }
+
+  /** Delays {@code sys/health} and KV read responses, like a node further away. */
+  public void setDelay(Duration delay) {
+    this.delay = delay;
+  }
+
+  /** Delays every response of {@code path}, e.g. {@link #IDENTITY_PATH} or {@link #LOGIN_PATH}. */
+  public void setLatency(String path, Duration latency) {
+    behavior(path).latency = latency;
+  }
+
+  /** Fails the given fraction of requests to {@code path}, at random, with {@code status}. */
+  public void setErrorRate(String path, double errorRate, int status) {
+    Behavior behavior = behavior(path);
+    behavior.errorStatus = status;
+    behavior.errorRate = errorRate;
+  }
+
+  /** Answers requests to {@code path} beyond {@code maxPerSecond} a second with 429. */
+  public void setRateLimit(String path, int maxPerSecond) {
+    behavior(path).maxPerSecond = maxPerSecond;
+  }
+
+  private Behavior behavior(String path) {
+    return behaviors.computeIfAbsent(path, key -> new Behavior());
+  }
+
+  /** Lease duration of the tokens issued by login and {@code renew-self}. */
+  public void setLeaseDuration(Duration leaseDuration) {
+    this.leaseDuration = leaseDuration;
+  }
+
+  /** Whether {@code sys/health} reports this node as a (performance) standby. */
+  public void setStandby(boolean standby) {
+    this.standby = standby;
+  }
+
+  /** Value for the {@code IDENTITY_ENDPOINT} environment variable. */
+  public String identityEndpoint() {
+    return baseUri() + IDENTITY_PATH;
+  }
+
+  /** Value for {@code vault.uami.uri}. */
+  public String vaultUri() {
+    return baseUri();
+  }
+
+  private String baseUri() {
+    InetSocketAddress address = server.getAddress();
+    return scheme + "://" + address.getHostString() + ":" + address.getPort();
+  }
+
+  /**
+   * A UamiAuthService of the test identity logging in through this stub, without an access token
+   * cache or retries. It takes ownership of the transport.
+   */
+  public UamiAuthService uamiService(HttpTransport transport) {
+    return uamiService(transport, null, UamiAuthMetrics.NOOP, AuthResilience.none());
+  }
+
+  /** A UamiAuthService of the test identity logging in through this stub. */
+  public UamiAuthService uamiService(
+      HttpTransport transport,
+      ManagedIdentityTokenCache cache,
+      UamiAuthMetrics metrics,
+      AuthResilience resilience) {
+    return uamiService(
+        SimpleVaultEndpointProvider.of(VaultEndpoint.from(URI.create(vaultUri()))),
+        identityEndpoint(),
+        transport,
+        cache,
+        metrics,
+        resilience);
+  }
+
+  /**
+   * A UamiAuthService of the test identity logging in to the Vault node {@code vault} returns,
+   * with {@code identityEndpoint} standing in for the {@code IDENTITY_ENDPOINT} variable.
+   */
+  public static UamiAuthService uamiService(
+      VaultEndpointProvider vault,
+      String identityEndpoint,
+      HttpTransport transport,
+      ManagedIdentityTokenCache cache,
+      UamiAuthMetrics metrics,
+      AuthResilience resilience) {
+    Map<String, String> env =
+        Map.of("IDENTITY_ENDPOINT", identityEndpoint, "IDENTITY_HEADER", "id-header");
+    return new UamiAuthService(
+        vault,
+        "vault-namespace",
+        "vault-role",
+        "vault-resource-id",
+        "vault-client-id",
+        transport,
+        cache,
+        metrics,
+        resilience) {
+      @Override
+      protected String getEnv(String key) {
+        return env.get(key);
+      }
+    };
+  }
+
+  public int imdsCalls() {
+    return imdsCalls.get();
+  }
+
+  public int loginCalls() {
+    return loginCalls.get();
+  }
+
+  public int lookupCalls() {
+    return lookupCalls.get();
+  }
+
+  public int healthCalls() {
+    return healthCalls.get();
+  }
+
+  public int readCalls() {
+    return readCalls.get();
+  }
+
+  public int renewCalls() {
+    return renewCalls.get();
+  }
+
+  public int revokeCalls() {
+    return revokeCalls.get();
+  }
+
+  /** Number of distinct client connections (source ports) seen so far. */
+  public int distinctConnections() {
+    return clientPorts.size();
+  }
+
+  @Override
+  public void close() {
+    releaseLogins();
+    server.stop(0);
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,74 @@
+package com.example.vault.stub;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+
+/**
+ * Generates a throwaway self-signed certificate for {@code localhost}/{@code 127.0.0.1} with the
+ * JDK {@code keytool}, so no key material has to be checked in.
+ */
+final class SelfSignedCertificate {
+
+  private static final char[] PASSWORD = "changeit".toCharArray();
+
+  private SelfSignedCertificate() {}
+
+  /** Returns a server SSLContext holding a freshly generated self-signed key pair. */
+  static SSLContext serverContext() throws IOException {
+    Path dir = Files.createTempDirectory("vault-uami-stub");
+    Path keyStorePath = dir.resolve("stub.p12");
+    try {
+      generate(keyStorePath);
+      KeyStore keyStore = KeyStore.getInstance("PKCS12");
+      try (InputStream in = Files.newInputStream(keyStorePath)) {
+        keyStore.load(in, PASSWORD);
+      }
+      KeyManagerFactory keyManagers =
+          KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+      keyManagers.init(keyStore, PASSWORD);
+      SSLContext sslContext = SSLContext.getInstance("TLS");
+      sslContext.init(keyManagers.getKeyManagers(), null, null);
+      return sslContext;
+    } catch (GeneralSecurityException e) {
+      throw new IOException("Failed to load self-signed certificate", e);
+    } finally {
+      Files.deleteIfExists(keyStorePath);
+      Files.deleteIfExists(dir);
+    }
+  }
+
+  private static void generate(Path keyStorePath) throws IOException {
+    String keytool = Path.of(System.getProperty("java.home"), "bin", "keytool").toString();
+    Process process =
+        new ProcessBuilder(
+                keytool,
+                "-genkeypair",
+                "-alias", "stub",
+                "-keyalg", "EC",
+                "-groupname", "secp256r1",
+                "-dname", "CN=localhost",
+                "-ext", "SAN=dns:localhost,ip:127.0.0.1",
+                "-validity", "1",
+                "-storetype", "PKCS12",
+                "-keystore", keyStorePath.toString(),
+                "-storepass", new String(PASSWORD),
+                "-keypass", new String(PASSWORD))
+            .redirectErrorStream(true)
+            .start();
+    try {
+      String output = new String(process.getInputStream().readAllBytes());
+      if (process.waitFor() != 0) {
+        throw new IOException("keytool failed: " + output);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    }
+  }
+}